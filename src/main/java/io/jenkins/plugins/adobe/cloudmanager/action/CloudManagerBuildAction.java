@@ -26,17 +26,26 @@ package io.jenkins.plugins.adobe.cloudmanager.action;
  * #L%
  */
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.http.HttpServletResponse;
 
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 import org.apache.commons.lang3.math.NumberUtils;
 
+import hudson.Util;
 import hudson.model.Job;
 import hudson.model.Run;
 import io.adobe.cloudmanager.CloudManagerApi;
@@ -44,16 +53,23 @@ import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.PipelineExecutionStepState;
 import io.adobe.cloudmanager.StepAction;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.StepLogUrlCache;
+import jenkins.model.RunAction2;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.jenkinsci.plugins.workflow.actions.PersistentAction;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 import org.kohsuke.stapler.export.ExportedBean;
+import org.kohsuke.stapler.verb.GET;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
@@ -63,7 +79,7 @@ import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
  */
 @Value
 @ExportedBean(defaultVisibility = 1500)
-public class CloudManagerBuildAction implements PersistentAction, Serializable {
+public class CloudManagerBuildAction implements PersistentAction, RunAction2, Serializable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerBuildAction.class);
   private static final long serialVersionUID = 1L;
@@ -91,6 +107,19 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     return String.format("adobe-cloud-manager-p%s-p%s-e%s", cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
   }
 
+  @Override
+  public void onAttached(Run<?, ?> r) {
+    ExecutionIndex.get().put(this, r);
+  }
+
+  /**
+   * Indexes runs from before the {@link ExecutionIndex} existed, as they're loaded.
+   */
+  @Override
+  public void onLoad(Run<?, ?> r) {
+    ExecutionIndex.get().putIfAbsent(this, r);
+  }
+
   @CheckForNull
   public Run<?, ?> getOwningRun() {
     StaplerRequest req = Stapler.getCurrentRequest();
@@ -100,21 +129,89 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     return req.findAncestorObject(Run.class);
   }
 
+  /**
+   * Read-only view of the steps; steps are only ever appended, so iteration is always over a consistent snapshot.
+   */
   public List<PipelineStep> getSteps() {
-    return new ArrayList<>(this.steps);
+    return Collections.unmodifiableList(this.steps);
   }
 
+  @CheckForNull
   public PipelineStep getStep(@Nonnull String id) {
     int i = NumberUtils.toInt(id, -1);
-    if (i >= 0 && i < getSteps().size()) {
-      return getSteps().get(i);
+    if (i >= 0 && i < steps.size()) {
+      return steps.get(i);
     } else {
       return null;
     }
   }
 
   public void addStep(@Nonnull PipelineStep step) {
-    steps.add(step);
+    synchronized (steps) {
+      steps.add(step);
+    }
+  }
+
+  /**
+   * Add the step, and push it to anyone watching the run.
+   */
+  public void addStep(@Nonnull Run<?, ?> run, @Nonnull PipelineStep step) {
+    int index;
+    synchronized (steps) {
+      linkStart(step);
+      steps.add(step);
+      index = steps.size() - 1;
+    }
+    ExecutionIndex.get().update(cmExecution, (e) -> e.withStep(step.getAction().name()).withStepStatus(step.getStatusState().name()));
+    JSONObject json = toJson(index, step);
+    json.put("execution", getUrlName());
+    RunEventBroadcaster.publish(run, RunEventBroadcaster.STEP_EVENT, json);
+    if (step.isHasQualityData()) {
+      QualityReports.get().ingest(run, this);
+    }
+  }
+
+  /**
+   * Summary of the execution's code quality results, empty until they are available.
+   */
+  @Nonnull
+  public List<QualityReports.Metric> getQualityMetrics() {
+    Run<?, ?> run = getOwningRun();
+    return run == null ? Collections.emptyList() : QualityReports.get().getMetrics(run, cmExecution.getExecutionId());
+  }
+
+  /**
+   * Which time round each state's action is, by index: once a step has ended, the same action again is another step -
+   * such as production's deploy after stage's.
+   */
+  @Nonnull
+  public static int[] occurrences(@Nonnull List<PipelineStep> steps) {
+    int[] occurrences = new int[steps.size()];
+    Map<StepAction, Integer> counts = new EnumMap<>(StepAction.class);
+    Map<StepAction, Boolean> ended = new EnumMap<>(StepAction.class);
+    for (int i = 0; i < occurrences.length; i++) {
+      StepAction action = steps.get(i).getAction();
+      occurrences[i] = counts.merge(action, ended.getOrDefault(action, false) ? 1 : 0, Integer::sum);
+      ended.put(action, steps.get(i).isEnded());
+    }
+    return occurrences;
+  }
+
+  // A step's later states take its start time from its earlier ones, so the last state has the step's full duration.
+  // Once a step has ended, the same action again is another step - such as production's deploy after stage's.
+  private void linkStart(PipelineStep step) {
+    if (step.getStarted() > 0) {
+      return;
+    }
+    for (int i = steps.size() - 1; i >= 0; i--) {
+      PipelineStep prior = steps.get(i);
+      if (prior.getAction() == step.getAction()) {
+        if (!prior.isEnded()) {
+          step.setStarted(prior.getStarted());
+        }
+        return;
+      }
+    }
   }
 
   private boolean canDownload() {
@@ -122,6 +219,71 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     return owningRun != null && owningRun.getParent().hasPermission(Job.READ);
   }
 
+  /**
+   * Incremental JSON view of the steps, for clients polling this execution.
+   * <p>
+   * Returns the steps with an index of at least {@code since}, along with the index to request next. Since steps are
+   * append-only the step count and {@code since} identify the content, and are used as the ETag.
+   */
+  @GET
+  public HttpResponse doSteps(@QueryParameter int since) {
+    if (!canDownload()) {
+      return HttpResponses.forbidden();
+    }
+    return (req, rsp, node) -> {
+      // Steps are only appended, so the count and where the response starts identify its content without building it.
+      int start = Math.max(since, 0);
+      int size = steps.size();
+      int count = Math.max(size, start);
+      String etag = String.format("\"%s-%d-%d\"", getUrlName(), start, count);
+      rsp.setHeader("ETag", etag);
+      rsp.setHeader("Cache-Control", "no-cache");
+      if (etag.equals(req.getHeader("If-None-Match"))) {
+        rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
+      JSONArray result = new JSONArray();
+      // Snapshot iterator, no copy of the list is made; steps appended since it was counted are left for the next request.
+      ListIterator<PipelineStep> it = steps.listIterator(Math.min(start, size));
+      while (it.nextIndex() < size) {
+        result.add(toJson(it.nextIndex(), it.next()));
+      }
+      JSONObject json = new JSONObject();
+      json.put("since", start);
+      json.put("next", count);
+      json.put("steps", result);
+      rsp.setContentType("application/json;charset=UTF-8");
+      json.write(rsp.getWriter());
+    };
+  }
+
+  /**
+   * Live stream of this run's Cloud Manager progress, as Server-Sent Events. See {@link RunEventBroadcaster}.
+   */
+  @GET
+  public void doStream(StaplerRequest req, StaplerResponse rsp) throws IOException {
+    Run<?, ?> owningRun = getOwningRun();
+    if (owningRun == null || !canDownload()) {
+      rsp.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    RunEventBroadcaster.get().subscribe(owningRun, req, rsp);
+  }
+
+  private static JSONObject toJson(int index, PipelineStep step) {
+    JSONObject json = new JSONObject();
+    json.put("index", index);
+    json.put("text", step.getStatus());
+    json.put("action", step.getAction().name());
+    json.put("status", step.getStatusState().name());
+    json.put("hasLogs", step.isHasLogs());
+    json.put("hasQualityData", step.isHasQualityData());
+    json.put("started", step.getStarted());
+    json.put("ended", step.getEnded());
+    json.put("duration", step.getDuration());
+    return json;
+  }
+
   public HttpResponse doGetLog() {
 
     final PipelineStep step = getPipelineStep();
@@ -146,14 +308,14 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
   @CheckForNull
   private PipelineStep getPipelineStep() {
     int stepId = NumberUtils.toInt(Stapler.getCurrentRequest().getParameter(STEP_PARAM), -1);
-    if (stepId < 0 || stepId > (getSteps().size() - 1)) {
+    if (stepId < 0 || stepId > (steps.size() - 1)) {
       LOGGER.warn(Messages.CloudManagerBuildAction_warn_unknownStep());
       return null;
     }
     if (!canDownload()) {
       return null;
     }
-    final PipelineStep step = getSteps().get(stepId);
+    final PipelineStep step = steps.get(stepId);
     if (!step.isHasLogs()) {
       LOGGER.warn(Messages.CloudManagerBuildAction_warn_unknownStep());
       return null;
@@ -161,19 +323,31 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
     return step;
   }
 
+  // Signed URLs are cached, so most requests are redirected without calling the API.
   @Nonnull
   private HttpResponse getLogRedirect(PipelineStep step, String fileName) {
-    Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(getAioProjectName());
-    if (api.isPresent()) {
-      try {
-        final CloudManagerPipelineExecution cmExecution = getCmExecution();
-        String url = api.get().getExecutionStepLogDownloadUrl(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId(), step.getAction().name(), fileName);
-        return HttpResponses.redirectTo(url);
-      } catch (CloudManagerApiException e) {
-        return HttpResponses.error(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, Messages.CloudManagerBuildAction_error_downloadLogs(e.getLocalizedMessage()));
+    final CloudManagerPipelineExecution cmExecution = getCmExecution();
+    try {
+      String url = StepLogUrlCache.get().getUrl(cmExecution, step.getAction().name(), fileName, () -> {
+        Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(getAioProjectName());
+        if (!api.isPresent()) {
+          return null;
+        }
+        // User is waiting on the redirect.
+        CloudManagerApi redirectApi = CloudManagerApiUtil.failFast(CloudManagerApiUtil.withPriority(api.get(), ApiRateLimiter.Priority.HIGH));
+        return redirectApi.getExecutionStepLogDownloadUrl(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId(), step.getAction().name(), fileName);
+      });
+      if (url == null) {
+        return HttpResponses.error(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, Messages.CloudManagerBuildAction_error_downloadLogs_creatApi());
       }
-    } else {
-      return HttpResponses.error(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, Messages.CloudManagerBuildAction_error_downloadLogs_creatApi());
+      return HttpResponses.redirectTo(url);
+    } catch (CloudManagerApiException e) {
+      return HttpResponses.error(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, Messages.CloudManagerBuildAction_error_downloadLogs(e.getLocalizedMessage()));
+    } catch (ApiUnavailableException e) {
+      return HttpResponses.error(HttpServletResponse.SC_SERVICE_UNAVAILABLE, Messages.CloudManagerBuildAction_error_downloadLogs(e.getLocalizedMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return HttpResponses.error(HttpServletResponse.SC_SERVICE_UNAVAILABLE, Messages.CloudManagerBuildAction_error_downloadLogs(e.getLocalizedMessage()));
     }
   }
 
@@ -187,14 +361,45 @@ public class CloudManagerBuildAction implements PersistentAction, Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    private static final Set<PipelineExecutionStepState.Status> ENDED_STATUS = EnumSet.of(ERROR, FINISHED, FAILED, ROLLED_BACK, CANCELLED);
+
     private final StepAction action;
     private final PipelineExecutionStepState.Status status;
     private final boolean hasLogs;
+    // When Cloud Manager published the step's start and end, in epoch millis; 0 if unknown.
+    @EqualsAndHashCode.Exclude
+    private long started;
+    @EqualsAndHashCode.Exclude
+    private long ended;
+
+    /**
+     * How long the step took in milliseconds, or -1 if it has not ended or its start is unknown.
+     */
+    public long getDuration() {
+      return started > 0 && ended >= started ? ended - started : -1;
+    }
+
+    @CheckForNull
+    public String getDurationString() {
+      long duration = getDuration();
+      return duration < 0 ? null : Util.getTimeSpanString(duration);
+    }
 
     public String getStatus() {
       return Messages.CloudManagerBuildAction_PipelineStep_status(action, status);
     }
 
+    public PipelineExecutionStepState.Status getStatusState() {
+      return status;
+    }
+
+    /**
+     * Whether this state is the end of the step.
+     */
+    public boolean isEnded() {
+      return ENDED_STATUS.contains(status);
+    }
+
     public boolean isHasQualityData() {
       return action == StepAction.codeQuality && (status == FINISHED || status == WAITING || status == ERROR);
     }
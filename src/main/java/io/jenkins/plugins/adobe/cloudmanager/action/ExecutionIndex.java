@@ -0,0 +1,352 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.AppendLog;
+import jenkins.model.Jenkins;
+import lombok.Value;
+import lombok.With;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static io.jenkins.plugins.adobe.cloudmanager.util.AppendLog.*;
+
+/**
+ * Index of Cloud Manager executions to the runs which they are associated with.
+ * <p>
+ *   Finding the run for an execution otherwise means loading every build of every job. The index is kept in memory and
+ *   persisted as an append-only log, which is compacted when it holds too many superseded records. Entries are added
+ *   when a {@link CloudManagerBuildAction} is attached to a run, and removed when the run or its job is deleted.
+ * </p>
+ * <p>
+ *   Entries also summarize the execution's progress: its latest step, any waiting approval, and the run's result once
+ *   complete. These are updated as the events arrive, so views of all executions never need to load any runs.
+ * </p>
+ */
+@Extension
+public class ExecutionIndex extends RunListener<Run<?, ?>> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionIndex.class);
+
+  private static final String PUT = "P";
+  private static final String DELETE = "D";
+  // Superseded records allowed before the log is rewritten, beyond one per entry.
+  private static final int COMPACT_SLACK = 1000;
+
+  private final Map<CloudManagerPipelineExecution, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<String, CloudManagerPipelineExecution> byExecutionId = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+  // Guarded by the lock, set once loaded.
+  private AppendLog log;
+
+  /**
+   * Get the index.
+   */
+  @Nonnull
+  public static ExecutionIndex get() {
+    return ExtensionList.lookupSingleton(ExecutionIndex.class);
+  }
+
+  /**
+   * Find where the execution ran.
+   */
+  @CheckForNull
+  public Entry lookup(@Nonnull CloudManagerPipelineExecution execution) {
+    load();
+    return entries.get(execution);
+  }
+
+  /**
+   * Find where the execution ran, using only its id; Cloud Manager execution ids are unique.
+   */
+  @CheckForNull
+  public Entry lookup(@Nonnull String executionId) {
+    load();
+    CloudManagerPipelineExecution execution = byExecutionId.get(executionId);
+    return execution == null ? null : entries.get(execution);
+  }
+
+  /**
+   * All the indexed executions.
+   */
+  @Nonnull
+  public Collection<Entry> getEntries() {
+    load();
+    return Collections.unmodifiableCollection(entries.values());
+  }
+
+  /**
+   * Record that the action's execution ran in the run.
+   */
+  public void put(@Nonnull CloudManagerBuildAction action, @Nonnull Run<?, ?> run) {
+    load();
+    Entry entry = Entry.of(action, run);
+    synchronized (this) {
+      Entry existing = entries.get(entry.execution);
+      // Keep the progress of an execution which is re-attached to the same run.
+      if (existing == null || existing.number != entry.number || !existing.job.equals(entry.job)) {
+        entries.put(entry.execution, entry);
+        byExecutionId.put(entry.execution.getExecutionId(), entry.execution);
+        append(entry.toRecord());
+      }
+    }
+  }
+
+  /**
+   * Record that the action's execution ran in the run, unless it's already known.
+   */
+  public void putIfAbsent(@Nonnull CloudManagerBuildAction action, @Nonnull Run<?, ?> run) {
+    if (lookup(action.getCmExecution()) == null) {
+      put(action, run);
+    }
+  }
+
+  /**
+   * Update the progress of the execution, if it's indexed.
+   */
+  public void update(@Nonnull CloudManagerPipelineExecution execution, @Nonnull UnaryOperator<Entry> change) {
+    load();
+    synchronized (this) {
+      Entry entry = entries.get(execution);
+      if (entry != null) {
+        Entry updated = change.apply(entry).withUpdated(System.currentTimeMillis());
+        entries.put(execution, updated);
+        append(updated.toRecord());
+      }
+    }
+  }
+
+  @Override
+  public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+    String result = String.valueOf(run.getResult());
+    for (CloudManagerBuildAction action : run.getActions(CloudManagerBuildAction.class)) {
+      update(action.getCmExecution(), (e) -> e.withWaiting(null).withResult(result));
+    }
+  }
+
+  @Override
+  public void onDeleted(Run<?, ?> run) {
+    for (CloudManagerBuildAction action : run.getActions(CloudManagerBuildAction.class)) {
+      Entry entry = lookup(action.getCmExecution());
+      if (entry != null && entry.number == run.getNumber() && StringUtils.equals(entry.job, run.getParent().getFullName())) {
+        remove(entry);
+      }
+    }
+  }
+
+  private synchronized void remove(Entry entry) {
+    if (entries.remove(entry.execution, entry)) {
+      byExecutionId.remove(entry.execution.getExecutionId(), entry.execution);
+      append(record(DELETE, encode(entry.execution.getProgramId()), encode(entry.execution.getPipelineId()), encode(entry.execution.getExecutionId())));
+    }
+  }
+
+  // Entries of the job, or all jobs within it if it's a folder.
+  private List<Entry> entriesOf(String fullName) {
+    load();
+    List<Entry> found = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (entry.job.equals(fullName) || entry.job.startsWith(fullName + "/")) {
+        found.add(entry);
+      }
+    }
+    return found;
+  }
+
+  // Read the log, applying each record in order.
+  private void load() {
+    if (loaded) {
+      return;
+    }
+    synchronized (this) {
+      if (loaded) {
+        return;
+      }
+      log = new AppendLog(getFile());
+      try {
+        log.read(this::apply);
+      } catch (IOException e) {
+        LOGGER.warn(Messages.ExecutionIndex_warn_load(log.getFile(), e.getLocalizedMessage()));
+      }
+      loaded = true;
+      if (log.getRecords() > entries.size()) {
+        compact();
+      }
+    }
+  }
+
+  private void apply(String[] fields) {
+    CloudManagerPipelineExecution execution = new CloudManagerPipelineExecution(decode(fields[1]), decode(fields[2]), decode(fields[3]));
+    if (PUT.equals(fields[0])) {
+      // Progress fields are optional.
+      entries.put(execution, new Entry(execution, decode(fields[4]), Integer.parseInt(fields[5]),
+          optional(fields, 6), optional(fields, 7), optional(fields, 8), optional(fields, 9), optional(fields, 10),
+          fields.length > 11 ? Long.parseLong(fields[11]) : 0));
+      byExecutionId.put(execution.getExecutionId(), execution);
+    } else if (DELETE.equals(fields[0])) {
+      entries.remove(execution);
+      byExecutionId.remove(execution.getExecutionId(), execution);
+    }
+  }
+
+  // Must hold the lock.
+  private void append(String record) {
+    try {
+      log.append(record);
+    } catch (IOException e) {
+      LOGGER.warn(Messages.ExecutionIndex_warn_save(log.getFile(), e.getLocalizedMessage()));
+    }
+    if (log.getRecords() > entries.size() + COMPACT_SLACK) {
+      compact();
+    }
+  }
+
+  // Rewrite the log with only the current entries. Must hold the lock.
+  private void compact() {
+    List<String> records = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      records.add(entry.toRecord());
+    }
+    try {
+      log.rewrite(records);
+    } catch (IOException e) {
+      LOGGER.warn(Messages.ExecutionIndex_warn_save(log.getFile(), e.getLocalizedMessage()));
+    }
+  }
+
+  private static File getFile() {
+    return new File(Jenkins.get().getRootDir(), ExecutionIndex.class.getName() + ".log");
+  }
+
+  /**
+   * Where an execution ran, and how far it has progressed.
+   */
+  @Value
+  @With
+  public static class Entry {
+    CloudManagerPipelineExecution execution;
+    String job;
+    int number;
+    @CheckForNull
+    String aioProject;
+    // Latest step reached, and its status.
+    @CheckForNull
+    String step;
+    @CheckForNull
+    String stepStatus;
+    // Reason the execution is waiting on a user, if it is.
+    @CheckForNull
+    String waiting;
+    // Result of the run, once it is complete.
+    @CheckForNull
+    String result;
+    long updated;
+
+    static Entry of(@Nonnull CloudManagerBuildAction action, @Nonnull Run<?, ?> run) {
+      List<CloudManagerBuildAction.PipelineStep> steps = action.getSteps();
+      CloudManagerBuildAction.PipelineStep last = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+      return new Entry(action.getCmExecution(), run.getParent().getFullName(), run.getNumber(), action.getAioProjectName(),
+          last == null ? null : last.getAction().name(),
+          last == null ? null : last.getStatusState().name(),
+          null,
+          run.isBuilding() ? null : String.valueOf(run.getResult()),
+          System.currentTimeMillis());
+    }
+
+    /**
+     * Indicates the execution's run has not yet completed.
+     */
+    public boolean isInFlight() {
+      return result == null;
+    }
+
+    /**
+     * Load the run, if it still exists and the current user can see it.
+     */
+    @CheckForNull
+    public Run<?, ?> getRun() {
+      Job<?, ?> j = Jenkins.get().getItemByFullName(job, Job.class);
+      return j == null ? null : j.getBuildByNumber(number);
+    }
+
+    private String toRecord() {
+      return record(PUT, encode(execution.getProgramId()), encode(execution.getPipelineId()), encode(execution.getExecutionId()),
+          encode(job), String.valueOf(number), encode(aioProject), encode(step), encode(stepStatus), encode(waiting), encode(result), String.valueOf(updated));
+    }
+  }
+
+  /**
+   * Keeps entries up to date as jobs are renamed, moved or deleted.
+   */
+  @Extension
+  public static class Items extends ItemListener {
+
+    @Override
+    public void onDeleted(Item item) {
+      ExecutionIndex index = get();
+      for (Entry entry : index.entriesOf(item.getFullName())) {
+        index.remove(entry);
+      }
+    }
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+      ExecutionIndex index = get();
+      synchronized (index) {
+        for (Entry entry : index.entriesOf(oldFullName)) {
+          Entry moved = entry.withJob(newFullName + entry.job.substring(oldFullName.length()));
+          if (index.entries.replace(entry.execution, entry, moved)) {
+            index.append(moved.toRecord());
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+
+/**
+ * Lists the in-flight and recent Cloud Manager executions of all jobs.
+ * <p>
+ *   Served entirely from the {@link ExecutionIndex}, so no jobs are iterated nor runs loaded to display it.
+ * </p>
+ */
+@Extension
+public class ExecutionsDashboardAction implements RootAction {
+
+  // Most completed executions to list; in-flight executions are always listed.
+  static final int RECENT = SystemProperties.getInteger(ExecutionsDashboardAction.class.getName() + ".recent", 200);
+
+  @Override
+  public String getIconFileName() {
+    return jenkins.model.Jenkins.RESOURCE_PATH + "/plugin/adobe-cloud-manager/icons/Adobe_Experience_Cloud_logo_48px.png";
+  }
+
+  @Override
+  public String getDisplayName() {
+    return Messages.ExecutionsDashboardAction_displayName();
+  }
+
+  @Override
+  public String getUrlName() {
+    return "adobe-cloud-manager-executions";
+  }
+
+  /**
+   * Executions visible to the current user, which match the filters. In-flight executions first, then the most recently updated.
+   */
+  @Nonnull
+  public List<ExecutionIndex.Entry> getExecutions(@CheckForNull String aioProject, @CheckForNull String program, @CheckForNull String pipeline) {
+    Map<String, Boolean> visible = new HashMap<>();
+    List<ExecutionIndex.Entry> inFlight = new ArrayList<>();
+    List<ExecutionIndex.Entry> completed = new ArrayList<>();
+    for (ExecutionIndex.Entry entry : ExecutionIndex.get().getEntries()) {
+      if (!matches(aioProject, entry.getAioProject()) ||
+          !matches(program, entry.getExecution().getProgramId()) ||
+          !matches(pipeline, entry.getExecution().getPipelineId())) {
+        continue;
+      }
+      if (!visible.computeIfAbsent(entry.getJob(), (job) -> Jenkins.get().getItemByFullName(job, Job.class) != null)) {
+        continue;
+      }
+      (entry.isInFlight() ? inFlight : completed).add(entry);
+    }
+    Comparator<ExecutionIndex.Entry> newest = Comparator.comparingLong(ExecutionIndex.Entry::getUpdated).reversed();
+    inFlight.sort(newest);
+    completed.sort(newest);
+    inFlight.addAll(completed.subList(0, Math.min(RECENT, completed.size())));
+    return inFlight;
+  }
+
+  private static boolean matches(@CheckForNull String filter, @CheckForNull String value) {
+    return StringUtils.isBlank(filter) || StringUtils.equals(filter.trim(), value);
+  }
+}
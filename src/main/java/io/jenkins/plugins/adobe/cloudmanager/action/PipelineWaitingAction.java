@@ -31,23 +31,28 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.Run;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineStepStateExecution;
 import jenkins.model.RunAction2;
+import jenkins.util.Timer;
+import net.sf.json.JSONObject;
 import org.jenkinsci.plugins.workflow.flow.FlowExecution;
 import org.jenkinsci.plugins.workflow.flow.FlowExecutionList;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,12 +67,17 @@ import org.slf4j.LoggerFactory;
 public class PipelineWaitingAction implements RunAction2, Serializable {
   private static final Logger LOGGER = LoggerFactory.getLogger(PipelineWaitingAction.class);
   private static final long serialVersionUID = 1L;
+  // Longest to wait for executions to be restored.
+  private static final long LOAD_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+  // Longest a page load waits for executions to be restored, before showing they're still loading.
+  private static final long UI_WAIT = TimeUnit.SECONDS.toMillis(5);
 
   @SuppressFBWarnings(value = "SE_TRANSIENT_FIELD_NOT_RESTORED", justification = "Reloaded during onAttached/onLoad(Run)")
   private transient List<PipelineStepStateExecution> executions = new ArrayList<>();
   @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "Reloaded during onAttached/onLoad(Run)")
   private transient Run<?, ?> run;
   private List<String> ids = new CopyOnWriteArrayList<>();
+  private transient volatile CompletableFuture<List<PipelineStepStateExecution>> loading;
 
   @Override
   public String getIconFileName() {
@@ -110,53 +120,75 @@ public class PipelineWaitingAction implements RunAction2, Serializable {
         executions = null;
       }
     }
+    // Restore the executions in the background, so they're ready before anyone asks for them.
+    if (!ids.isEmpty()) {
+      loadExecutions();
+    }
   }
 
   /**
    * Add the step to the list of executions, for later reloading.
    */
-  public synchronized void add(@Nonnull PipelineStepStateExecution step) throws IOException, InterruptedException, TimeoutException {
-    loadExecutions();
-    if (executions == null) {
-      throw new IOException(Messages.PipelineWaitingAction_error_loadState());
+  public void add(@Nonnull PipelineStepStateExecution step) throws IOException, InterruptedException, TimeoutException {
+    awaitExecutions(LOAD_TIMEOUT);
+    synchronized (this) {
+      if (executions == null) {
+        throw new IOException(Messages.PipelineWaitingAction_error_loadState());
+      }
+      this.executions.add(step);
+      ids.add(step.getId());
+      indexWaiting(step);
     }
-    this.executions.add(step);
-    ids.add(step.getId());
-    run.save();
+    RunSaver.save(run);
+    RunEventBroadcaster.publish(run, RunEventBroadcaster.WAITING_EVENT, toJson(step));
   }
 
   /**
    * Returns the execution based on the id.
    */
   @CheckForNull
-  public synchronized PipelineStepStateExecution getExecution(@Nonnull String id) throws InterruptedException, TimeoutException {
-    loadExecutions();
-    if (executions == null) {
-      return null;
-    }
-    return executions.stream().filter(e -> StringUtils.equals(id, e.getId())).findFirst().orElse(null);
+  public PipelineStepStateExecution getExecution(@Nonnull String id) throws InterruptedException, TimeoutException {
+    List<PipelineStepStateExecution> loaded = awaitExecutions(LOAD_TIMEOUT);
+    return loaded.stream().filter(e -> StringUtils.equals(id, e.getId())).findFirst().orElse(null);
   }
 
   /**
    * Lists all the stored executions. Used by the UI for form display/submission.
+   * <p>
+   *   Only waits briefly for executions which are still being restored, see {@link #isLoading()}.
+   * </p>
    */
   @Nonnull
-  public synchronized List<PipelineStepStateExecution> getExecutions() throws InterruptedException, TimeoutException {
-    loadExecutions();
-    return (executions == null) ? Collections.emptyList() : new ArrayList<>(executions);
+  public List<PipelineStepStateExecution> getExecutions() throws InterruptedException {
+    try {
+      return awaitExecutions(UI_WAIT);
+    } catch (TimeoutException e) {
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Indicates if the executions are still being restored after a restart. Used by the UI.
+   */
+  public boolean isLoading() {
+    return loading != null;
   }
 
   /**
    * Remove the specified step from the list of known executions.
    */
-  public synchronized void remove(@Nonnull PipelineStepStateExecution step) throws IOException, InterruptedException, TimeoutException {
-    loadExecutions();
-    if (executions == null) {
-      throw new IOException(Messages.PipelineWaitingAction_error_loadState());
+  public void remove(@Nonnull PipelineStepStateExecution step) throws IOException, InterruptedException, TimeoutException {
+    awaitExecutions(LOAD_TIMEOUT);
+    synchronized (this) {
+      if (executions == null) {
+        throw new IOException(Messages.PipelineWaitingAction_error_loadState());
+      }
+      executions.remove(step);
+      ids.remove(step.getId());
+      indexWaiting(step);
     }
-    executions.remove(step);
-    ids.remove(step.getId());
-    run.save();
+    RunSaver.save(run);
+    RunEventBroadcaster.publish(run, RunEventBroadcaster.RESOLVED_EVENT, toJson(step));
   }
 
   /**
@@ -166,35 +198,107 @@ public class PipelineWaitingAction implements RunAction2, Serializable {
     return getExecution(id);
   }
 
-  // Load all the executions. Be careful with the logic here, can sometimes block the VM thread - don't want that.
-  private synchronized void loadExecutions() throws InterruptedException, TimeoutException {
-    if (executions == null) { // Loaded after restart.
-      try {
-        Optional<FlowExecution> execution = StreamSupport.stream(FlowExecutionList.get().spliterator(), false).filter((ex) -> {
-          try {
-            return ex.getOwner().getExecutable() == run;
-          } catch (IOException e) {
-            LOGGER.warn(Messages.PipelineWaitingAction_error_loadExecutions(e.getLocalizedMessage()));
+  // Record why the step's execution is waiting, if it still is; a run may wait on more than one. Must hold the lock.
+  private void indexWaiting(@Nonnull PipelineStepStateExecution step) {
+    CloudManagerPipelineExecution execution = step.getWaitingExecution();
+    if (execution == null) {
+      return;
+    }
+    String reason = null;
+    for (PipelineStepStateExecution e : executions) {
+      if (execution.equals(e.getWaitingExecution())) {
+        reason = String.valueOf(e.getReason());
+      }
+    }
+    String waiting = reason;
+    ExecutionIndex.get().update(execution, (e) -> e.withWaiting(waiting));
+  }
+
+  private static JSONObject toJson(PipelineStepStateExecution step) {
+    JSONObject json = new JSONObject();
+    json.put("id", step.getId());
+    json.put("reason", String.valueOf(step.getReason()));
+    return json;
+  }
+
+  // Wait for the executions to be available, without holding this action's lock while doing so.
+  @Nonnull
+  private List<PipelineStepStateExecution> awaitExecutions(long timeoutMillis) throws InterruptedException, TimeoutException {
+    try {
+      List<PipelineStepStateExecution> loaded = loadExecutions().get(timeoutMillis, TimeUnit.MILLISECONDS);
+      synchronized (this) {
+        return loaded == null || executions == null ? Collections.emptyList() : new ArrayList<>(executions);
+      }
+    } catch (ExecutionException e) {
+      LOGGER.error(Messages.PipelineWaitingAction_error_loadExecutions(e.getCause().getLocalizedMessage()));
+      return Collections.emptyList();
+    }
+  }
+
+  // Load all the executions asynchronously, this must never block the VM thread.
+  private synchronized CompletableFuture<List<PipelineStepStateExecution>> loadExecutions() {
+    if (executions != null) {
+      return CompletableFuture.completedFuture(executions);
+    }
+    if (loading == null) { // Loaded after restart.
+      CompletableFuture<List<PipelineStepStateExecution>> future = new CompletableFuture<>();
+      // Callers wait on the dependent stage, so the executions are always set by the time it completes.
+      loading = future.orTimeout(LOAD_TIMEOUT, TimeUnit.MILLISECONDS).whenComplete((loaded, t) -> {
+        synchronized (this) {
+          if (loaded != null && executions == null) {
+            executions = loaded;
           }
-          return false;
-        }).findFirst();
-        if (execution.isPresent()) {
-          List<StepExecution> candidates = execution.get().getCurrentExecutions(true).get(60, TimeUnit.SECONDS);
-          executions = candidates.stream()
+          loading = null;
+        }
+      });
+      Timer.get().submit(() -> rehydrate(future));
+    }
+    return loading;
+  }
+
+  // Find the current step executions for the run, completes with null if the run's execution cannot be found.
+  private void rehydrate(CompletableFuture<List<PipelineStepStateExecution>> future) {
+    try {
+      FlowExecution execution = getFlowExecution();
+      if (execution == null) {
+        LOGGER.warn(Messages.PipelineWaitingAction_warn_missingExecution(run));
+        future.complete(null);
+        return;
+      }
+      ListenableFuture<List<StepExecution>> current = execution.getCurrentExecutions(true);
+      current.addListener(() -> {
+        try {
+          List<PipelineStepStateExecution> loaded = current.get().stream()
               .filter(se -> se instanceof PipelineStepStateExecution && ids.contains(((PipelineStepStateExecution) se).getId()))
               .map((se) -> ((PipelineStepStateExecution) se))
               .collect(Collectors.toList());
-          if (executions.size() < ids.size()) {
+          if (loaded.size() < ids.size()) {
             LOGGER.warn(Messages.PipelineWaitingAction_warn_lostExecutions(run));
           }
-        } else {
-          LOGGER.warn(Messages.PipelineWaitingAction_warn_missingExecution(run));
+          future.complete(loaded);
+        } catch (Exception e) {
+          future.completeExceptionally(e);
         }
-      } catch (InterruptedException | TimeoutException e) {
-        throw e;
-      } catch (Exception e) {
-        LOGGER.error(Messages.PipelineWaitingAction_error_loadExecutions(e.getLocalizedMessage()));
+      }, Timer.get());
+    } catch (Exception e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  // Pipeline runs know their own execution; only fall back to searching the running executions for anything else.
+  @CheckForNull
+  private FlowExecution getFlowExecution() throws IOException {
+    if (run instanceof FlowExecutionOwner.Executable) {
+      FlowExecutionOwner owner = ((FlowExecutionOwner.Executable) run).asFlowExecutionOwner();
+      if (owner != null) {
+        return owner.get();
+      }
+    }
+    for (FlowExecution ex : FlowExecutionList.get()) {
+      if (ex.getOwner().getExecutable() == run) {
+        return ex;
       }
     }
+    return null;
   }
 }
@@ -0,0 +1,485 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiCircuitBreaker;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
+import io.jenkins.plugins.adobe.cloudmanager.util.AppendLog;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
+import io.jenkins.plugins.adobe.cloudmanager.util.StepLogDownloads;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static io.jenkins.plugins.adobe.cloudmanager.util.AppendLog.*;
+
+/**
+ * Compact summaries of Cloud Manager code quality results.
+ * <p>
+ *   When an execution's code quality step produces results, they are downloaded once and parsed as they stream in,
+ *   keeping only each metric's value and threshold. The summary is saved beside the run, and appended to an index in
+ *   the job's directory. Trends are read from that index, only reading what has been appended since it was last read,
+ *   so they never load runs or download anything.
+ * </p>
+ */
+@Extension
+public class QualityReports extends RunListener<Run<?, ?>> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QualityReports.class);
+
+  static final String RUN_FILE = "adobe-cloud-manager-quality.log";
+  static final String JOB_FILE = "adobe-cloud-manager-quality-trend.log";
+  // Most metrics kept for an execution, in case the results aren't the expected summary.
+  static final int MAX_METRICS = SystemProperties.getInteger(QualityReports.class.getName() + ".maxMetrics", 100);
+  private static final String EXECUTION = "E";
+  private static final String METRIC = "M";
+  private static final String DELETE = "D";
+  // Superseded records allowed in a job's trend before it's rewritten, beyond one per metric.
+  static final int COMPACT_SLACK = 1000;
+  private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+  // Column names used by the results for each part of a metric, lower case.
+  private static final List<String> METRIC_COLUMNS = List.of("metric", "kpi", "name");
+  private static final List<String> VALUE_COLUMNS = List.of("actual value", "actualvalue", "actual", "value");
+  private static final List<String> THRESHOLD_COLUMNS = List.of("expected value", "expectedvalue", "expected", "threshold");
+  private static final List<String> PASSED_COLUMNS = List.of("passed", "status", "result");
+
+  private final Set<String> ingesting = ConcurrentHashMap.newKeySet();
+  private final Map<File, Trend> trends = new ConcurrentHashMap<>();
+
+  /**
+   * Get the reports.
+   */
+  @Nonnull
+  public static QualityReports get() {
+    return ExtensionList.lookupSingleton(QualityReports.class);
+  }
+
+  /**
+   * Download and summarize the code quality results of the action's execution in the background, unless already done.
+   */
+  public void ingest(@Nonnull Run<?, ?> run, @Nonnull CloudManagerBuildAction action) {
+    CloudManagerPipelineExecution execution = action.getCmExecution();
+    if (!ingesting.add(execution.getExecutionId())) {
+      return;
+    }
+    long deadline = System.currentTimeMillis() + ApiCircuitBreaker.get().getMaxWait();
+    CloudManagerExecutors.get().submit(() -> ingest(run, action, 0, deadline));
+  }
+
+  // If Cloud Manager is unavailable, try again after a backoff rather than waiting on the executor.
+  private void ingest(Run<?, ?> run, CloudManagerBuildAction action, int attempts, long deadline) {
+    CloudManagerPipelineExecution execution = action.getCmExecution();
+    boolean retrying = false;
+    try {
+      if (!isIngested(run, execution.getExecutionId())) {
+        List<Metric> metrics = download(action.getAioProjectName(), execution);
+        if (metrics != null) {
+          record(run, execution.getExecutionId(), metrics);
+        }
+      }
+    } catch (ApiUnavailableException e) {
+      long delay = ApiCircuitBreaker.backoff(attempts + 1);
+      if (System.currentTimeMillis() + delay > deadline) {
+        LOGGER.warn(Messages.QualityReports_warn_ingest(execution.getExecutionId(), e.getLocalizedMessage()));
+      } else {
+        retrying = true;
+        Timer.get().schedule(() -> CloudManagerExecutors.get().execute(() -> ingest(run, action, attempts + 1, deadline)), delay, TimeUnit.MILLISECONDS);
+      }
+    } catch (CloudManagerApiException | IOException e) {
+      LOGGER.warn(Messages.QualityReports_warn_ingest(execution.getExecutionId(), e.getLocalizedMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (!retrying) {
+        ingesting.remove(execution.getExecutionId());
+      }
+    }
+  }
+
+  /**
+   * The quality metrics of the execution which ran in the run, empty if there are none.
+   */
+  @Nonnull
+  public List<Metric> getMetrics(@Nonnull Run<?, ?> run, @Nonnull String executionId) {
+    List<Metric> metrics = new ArrayList<>();
+    AppendLog log = new AppendLog(new File(run.getRootDir(), RUN_FILE));
+    try {
+      log.read((fields) -> {
+        if (METRIC.equals(fields[0]) && executionId.equals(decode(fields[1]))) {
+          Metric metric = Metric.fromFields(fields, 2);
+          if (metric != null) {
+            metrics.add(metric);
+          }
+        }
+      });
+    } catch (IOException e) {
+      LOGGER.warn(Messages.QualityReports_warn_load(log.getFile(), e.getLocalizedMessage()));
+    }
+    return metrics;
+  }
+
+  /**
+   * Quality metrics of the job's most recent builds, newest first. Each build's metrics are those of its latest
+   * execution with results.
+   */
+  @Nonnull
+  public NavigableMap<Integer, List<Metric>> getTrend(@Nonnull Job<?, ?> job, int builds) {
+    Trend trend = trends.computeIfAbsent(job.getRootDir(), Trend::new);
+    synchronized (trend) {
+      trend.refresh();
+      NavigableMap<Integer, List<Metric>> recent = new TreeMap<>(Collections.reverseOrder());
+      for (Map.Entry<Integer, List<Metric>> entry : trend.builds.descendingMap().entrySet()) {
+        if (recent.size() >= builds) {
+          break;
+        }
+        recent.put(entry.getKey(), entry.getValue());
+      }
+      return recent;
+    }
+  }
+
+  @Override
+  public void onDeleted(Run<?, ?> run) {
+    File file = new File(run.getParent().getRootDir(), JOB_FILE);
+    if (file.exists()) {
+      Trend trend = trends.computeIfAbsent(run.getParent().getRootDir(), Trend::new);
+      synchronized (trend) {
+        trend.append(Collections.singletonList(AppendLog.record(DELETE, String.valueOf(run.getNumber()))));
+      }
+    }
+  }
+
+  /**
+   * Save the summary beside the run, and add it to the job's trend.
+   */
+  void record(@Nonnull Run<?, ?> run, @Nonnull String executionId, @Nonnull List<Metric> metrics) {
+    List<String> runRecords = new ArrayList<>();
+    List<String> jobRecords = new ArrayList<>();
+    runRecords.add(AppendLog.record(EXECUTION, encode(executionId)));
+    for (Metric metric : metrics) {
+      runRecords.add(AppendLog.record(METRIC, encode(executionId), metric.toFields()));
+      jobRecords.add(Trend.toRecord(run.getNumber(), executionId, metric));
+    }
+    AppendLog log = new AppendLog(new File(run.getRootDir(), RUN_FILE));
+    synchronized (this) {
+      try {
+        log.append(runRecords);
+      } catch (IOException e) {
+        LOGGER.warn(Messages.QualityReports_warn_save(log.getFile(), e.getLocalizedMessage()));
+      }
+    }
+    if (!metrics.isEmpty()) {
+      Trend trend = trends.computeIfAbsent(run.getParent().getRootDir(), Trend::new);
+      synchronized (trend) {
+        trend.append(jobRecords);
+      }
+    }
+  }
+
+  private boolean isIngested(Run<?, ?> run, String executionId) throws IOException {
+    AtomicBoolean found = new AtomicBoolean();
+    new AppendLog(new File(run.getRootDir(), RUN_FILE)).read((fields) -> {
+      if (EXECUTION.equals(fields[0]) && executionId.equals(decode(fields[1]))) {
+        found.set(true);
+      }
+    });
+    return found.get();
+  }
+
+  @CheckForNull
+  private List<Metric> download(String aioProject, CloudManagerPipelineExecution execution) throws CloudManagerApiException, IOException, InterruptedException {
+    Optional<CloudManagerApi> created = CloudManagerApiUtil.createApi().apply(aioProject);
+    if (!created.isPresent()) {
+      return null;
+    }
+    CloudManagerApi api = CloudManagerApiUtil.withPriority(created.get(), ApiRateLimiter.Priority.LOW);
+    // The default file of the code quality step is its results.
+    String url = StepLogDownloads.url(execution, StepAction.codeQuality.name(), null, api);
+    if (url == null) {
+      return null;
+    }
+    HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT).GET().build();
+    HttpResponse<InputStream> response = StepLogDownloads.client().send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (Reader reader = new InputStreamReader(response.body(), StandardCharsets.UTF_8)) {
+      if (response.statusCode() != 200) {
+        LOGGER.warn(Messages.QualityReports_warn_ingest(execution.getExecutionId(), response.statusCode()));
+        return null;
+      }
+      return parse(reader);
+    }
+  }
+
+  /**
+   * Parse the results a line at a time, keeping only each metric's name, value and threshold.
+   * <p>
+   *   The results are comma separated, with a header naming the columns. Results without a metric name column have
+   *   nothing to summarize.
+   * </p>
+   */
+  @Nonnull
+  static List<Metric> parse(@Nonnull Reader in) throws IOException {
+    BufferedReader reader = new BufferedReader(in);
+    String header = reader.readLine();
+    if (header == null) {
+      return Collections.emptyList();
+    }
+    List<String> columns = new ArrayList<>();
+    for (String column : split(header)) {
+      columns.add(column.trim().toLowerCase(Locale.ROOT));
+    }
+    int name = find(columns, METRIC_COLUMNS);
+    if (name < 0) {
+      return Collections.emptyList();
+    }
+    int value = find(columns, VALUE_COLUMNS);
+    int threshold = find(columns, THRESHOLD_COLUMNS);
+    int passed = find(columns, PASSED_COLUMNS);
+    // Later rows for the same metric replace earlier ones.
+    Map<String, Metric> metrics = new LinkedHashMap<>();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      List<String> cells = split(line);
+      String metric = cell(cells, name);
+      if (metric == null || (!metrics.containsKey(metric) && metrics.size() >= MAX_METRICS)) {
+        continue;
+      }
+      metrics.put(metric, new Metric(metric, cell(cells, value), cell(cells, threshold), toPassed(cell(cells, passed))));
+    }
+    return new ArrayList<>(metrics.values());
+  }
+
+  private static int find(List<String> columns, List<String> names) {
+    for (String name : names) {
+      int index = columns.indexOf(name);
+      if (index >= 0) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  @CheckForNull
+  private static String cell(List<String> cells, int index) {
+    return index >= 0 && index < cells.size() ? StringUtils.trimToNull(cells.get(index)) : null;
+  }
+
+  @CheckForNull
+  private static Boolean toPassed(@CheckForNull String value) {
+    if (value == null) {
+      return null;
+    }
+    switch (value.toLowerCase(Locale.ROOT)) {
+      case "true":
+      case "passed":
+      case "ok":
+        return Boolean.TRUE;
+      case "false":
+      case "failed":
+      case "error":
+        return Boolean.FALSE;
+      default:
+        return null;
+    }
+  }
+
+  // Split a line of comma separated values, allowing for quoted values.
+  private static List<String> split(String line) {
+    List<String> cells = new ArrayList<>();
+    StringBuilder cell = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          cell.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          cell.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        cells.add(cell.toString());
+        cell.setLength(0);
+      } else {
+        cell.append(c);
+      }
+    }
+    cells.add(cell.toString());
+    return cells;
+  }
+
+  /**
+   * A code quality metric's result.
+   */
+  @Value
+  public static class Metric {
+    String metric;
+    @CheckForNull
+    String value;
+    @CheckForNull
+    String threshold;
+    // Whether the metric met its threshold, if known.
+    @CheckForNull
+    Boolean passed;
+
+    private String toFields() {
+      return AppendLog.record(encode(metric), encode(value), encode(threshold), passed == null ? "" : passed.toString());
+    }
+
+    @CheckForNull
+    private static Metric fromFields(String[] fields, int start) {
+      if (fields.length < start + 4) {
+        return null;
+      }
+      String passed = fields[start + 3];
+      return new Metric(decode(fields[start]), optional(fields, start + 1), optional(fields, start + 2),
+          passed.isEmpty() ? null : Boolean.valueOf(passed));
+    }
+  }
+
+  // A job's trend index, read incrementally. Guarded by its own lock.
+  private static final class Trend {
+    private final AppendLog log;
+    private final NavigableMap<Integer, List<Metric>> builds = new TreeMap<>();
+    // Execution last read for each build, so a later execution replaces an earlier one's metrics.
+    private final Map<Integer, String> executions = new HashMap<>();
+
+    Trend(File dir) {
+      this.log = new AppendLog(new File(dir, JOB_FILE));
+    }
+
+    void refresh() {
+      if (log.isReplaced()) {
+        builds.clear();
+        executions.clear();
+      }
+      try {
+        log.read(this::apply);
+      } catch (IOException e) {
+        LOGGER.warn(Messages.QualityReports_warn_load(log.getFile(), e.getLocalizedMessage()));
+      }
+    }
+
+    // Append the records, then read them back, rewriting the index once it holds too many superseded records.
+    void append(List<String> records) {
+      try {
+        log.append(records);
+      } catch (IOException e) {
+        LOGGER.warn(Messages.QualityReports_warn_save(log.getFile(), e.getLocalizedMessage()));
+      }
+      refresh();
+      int current = builds.values().stream().mapToInt(List::size).sum();
+      if (log.getRecords() > current + COMPACT_SLACK) {
+        compact();
+      }
+    }
+
+    // Rewrite the index with only the metrics of each build's latest execution.
+    private void compact() {
+      List<String> records = new ArrayList<>();
+      for (Map.Entry<Integer, List<Metric>> entry : builds.entrySet()) {
+        for (Metric metric : entry.getValue()) {
+          records.add(toRecord(entry.getKey(), executions.get(entry.getKey()), metric));
+        }
+      }
+      try {
+        log.rewrite(records);
+      } catch (IOException e) {
+        LOGGER.warn(Messages.QualityReports_warn_save(log.getFile(), e.getLocalizedMessage()));
+      }
+    }
+
+    private void apply(String[] fields) {
+      int number = Integer.parseInt(fields[1]);
+      if (DELETE.equals(fields[0])) {
+        builds.remove(number);
+        executions.remove(number);
+      } else if (METRIC.equals(fields[0])) {
+        Metric metric = Metric.fromFields(fields, 3);
+        if (metric == null) {
+          return;
+        }
+        String execution = decode(fields[2]);
+        if (!execution.equals(executions.put(number, execution))) {
+          builds.put(number, new ArrayList<>());
+        }
+        builds.get(number).add(metric);
+      }
+    }
+
+    static String toRecord(int number, String executionId, Metric metric) {
+      return AppendLog.record(METRIC, String.valueOf(number), encode(executionId), metric.toFields());
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Job;
+import hudson.model.Run;
+import jenkins.model.TransientActionFactory;
+import jenkins.util.SystemProperties;
+
+/**
+ * Shows the Cloud Manager code quality metrics across a job's recent builds.
+ * <p>
+ *   Read entirely from the job's {@link QualityReports} index; no builds are loaded.
+ * </p>
+ */
+public class QualityTrendAction implements Action {
+
+  // Number of recent builds to show.
+  static final int BUILDS = SystemProperties.getInteger(QualityTrendAction.class.getName() + ".builds", 100);
+
+  private final Job<?, ?> job;
+
+  public QualityTrendAction(@Nonnull Job<?, ?> job) {
+    this.job = job;
+  }
+
+  @Override
+  public String getIconFileName() {
+    return jenkins.model.Jenkins.RESOURCE_PATH + "/plugin/adobe-cloud-manager/icons/Adobe_Experience_Cloud_logo_48px.png";
+  }
+
+  @Override
+  public String getDisplayName() {
+    return Messages.QualityTrendAction_displayName();
+  }
+
+  @Override
+  public String getUrlName() {
+    return "adobe-cloud-manager-quality";
+  }
+
+  public Job<?, ?> getJob() {
+    return job;
+  }
+
+  /**
+   * Quality metrics of the recent builds, by build number, newest first.
+   */
+  @Nonnull
+  public NavigableMap<Integer, List<QualityReports.Metric>> getBuilds() {
+    return QualityReports.get().getTrend(job, BUILDS);
+  }
+
+  /**
+   * The metrics reported by any of the builds, in the order first seen.
+   */
+  @Nonnull
+  public Set<String> getMetricNames(@Nonnull NavigableMap<Integer, List<QualityReports.Metric>> builds) {
+    Set<String> names = new LinkedHashSet<>();
+    builds.values().forEach(metrics -> metrics.forEach(m -> names.add(m.getMetric())));
+    return names;
+  }
+
+  /**
+   * The named metric from a build's metrics.
+   */
+  @CheckForNull
+  public QualityReports.Metric getMetric(@Nonnull List<QualityReports.Metric> metrics, @Nonnull String name) {
+    for (QualityReports.Metric metric : metrics) {
+      if (metric.getMetric().equals(name)) {
+        return metric;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds the trend to jobs whose last build used Cloud Manager.
+   */
+  @Extension
+  @SuppressWarnings("rawtypes")
+  public static class Factory extends TransientActionFactory<Job> {
+
+    @Override
+    public Class<Job> type() {
+      return Job.class;
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<? extends Action> createFor(@Nonnull Job target) {
+      Run<?, ?> last = target.getLastBuild();
+      if (last == null || last.getAction(CloudManagerBuildAction.class) == null) {
+        return Collections.emptyList();
+      }
+      return Collections.singletonList(new QualityTrendAction(target));
+    }
+  }
+}
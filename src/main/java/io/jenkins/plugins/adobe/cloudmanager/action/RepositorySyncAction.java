@@ -0,0 +1,212 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.Functions;
+import hudson.Util;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Run;
+import jenkins.model.Jenkins;
+import jenkins.model.RunAction2;
+import lombok.Value;
+
+/**
+ * Timings and transfer sizes of the pushes to Cloud Manager git repositories made by a run.
+ */
+public class RepositorySyncAction implements RunAction2 {
+
+  private static final Totals TOTALS = new Totals();
+
+  private final List<Push> pushes = new CopyOnWriteArrayList<>();
+  private transient Run<?, ?> run;
+
+  /**
+   * Record a push made by the run.
+   */
+  public static void record(@Nonnull Run<?, ?> run, @Nonnull Push push) {
+    TOTALS.add(push);
+    RepositorySyncAction action;
+    synchronized (RepositorySyncAction.class) {
+      action = run.getAction(RepositorySyncAction.class);
+      if (action == null) {
+        action = new RepositorySyncAction();
+        run.addAction(action);
+      }
+    }
+    action.pushes.add(push);
+  }
+
+  /**
+   * Totals across all pushes since startup.
+   */
+  @Nonnull
+  public static Totals getTotals() {
+    return TOTALS;
+  }
+
+  // Listing was recorded as negotiation by earlier versions.
+  @Initializer(before = InitMilestone.JOB_LOADED)
+  public static void addAliases() {
+    Run.XSTREAM2.aliasField("negotiation", Push.class, "listing");
+  }
+
+  @Override
+  public String getIconFileName() {
+    return Jenkins.RESOURCE_PATH + "/plugin/adobe-cloud-manager/icons/Adobe_Experience_Cloud_logo_48px.png";
+  }
+
+  @Override
+  public String getDisplayName() {
+    return Messages.RepositorySyncAction_displayName();
+  }
+
+  @Override
+  public String getUrlName() {
+    return "adobe-cloud-manager-sync";
+  }
+
+  @Override
+  public void onAttached(Run<?, ?> r) {
+    this.run = r;
+  }
+
+  @Override
+  public void onLoad(Run<?, ?> r) {
+    this.run = r;
+  }
+
+  @CheckForNull
+  public Run<?, ?> getRun() {
+    return run;
+  }
+
+  @Nonnull
+  public List<Push> getPushes() {
+    return Collections.unmodifiableList(pushes);
+  }
+
+  /**
+   * A push of refs to a Cloud Manager git repository.
+   */
+  @Value
+  public static class Push {
+    String url;
+    // Refs pushed; those already up to date are skipped.
+    int refs;
+    // Time spent listing the remote's refs.
+    long listing;
+    // Time spent counting the objects to send, a proxy for pack generation.
+    long counting;
+    // Time spent pushing.
+    long duration;
+    // Objects sent, and their uncompressed size; negative if unknown.
+    long objects;
+    long bytes;
+
+    public String getListingString() {
+      return Util.getTimeSpanString(listing);
+    }
+
+    public String getCountingString() {
+      return Util.getTimeSpanString(counting);
+    }
+
+    public String getDurationString() {
+      return Util.getTimeSpanString(duration);
+    }
+
+    public String getObjectsString() {
+      return objects < 0 ? "?" : String.valueOf(objects);
+    }
+
+    public String getBytesString() {
+      return bytes < 0 ? "?" : Functions.humanReadableByteSize(bytes);
+    }
+  }
+
+  /**
+   * Running totals of pushes, for metrics.
+   */
+  public static final class Totals {
+    private final LongAdder pushes = new LongAdder();
+    private final LongAdder refs = new LongAdder();
+    private final LongAdder listing = new LongAdder();
+    private final LongAdder counting = new LongAdder();
+    private final LongAdder duration = new LongAdder();
+    private final LongAdder objects = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    private Totals() {
+    }
+
+    private void add(Push push) {
+      pushes.increment();
+      refs.add(push.refs);
+      listing.add(push.listing);
+      counting.add(push.counting);
+      duration.add(push.duration);
+      objects.add(Math.max(0, push.objects));
+      bytes.add(Math.max(0, push.bytes));
+    }
+
+    public long getPushes() {
+      return pushes.sum();
+    }
+
+    public long getRefs() {
+      return refs.sum();
+    }
+
+    public long getListing() {
+      return listing.sum();
+    }
+
+    public long getCounting() {
+      return counting.sum();
+    }
+
+    public long getDuration() {
+      return duration.sum();
+    }
+
+    public long getObjects() {
+      return objects.sum();
+    }
+
+    public long getBytes() {
+      return bytes.sum();
+    }
+  }
+}
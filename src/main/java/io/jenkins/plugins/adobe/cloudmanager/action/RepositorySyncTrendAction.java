@@ -0,0 +1,134 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Job;
+import hudson.model.Run;
+import jenkins.model.TransientActionFactory;
+import jenkins.util.SystemProperties;
+
+/**
+ * Shows how the pushes to Cloud Manager git repositories have performed, across a job's recent builds.
+ */
+public class RepositorySyncTrendAction implements Action {
+
+  // Number of recent builds to show.
+  static final int BUILDS = SystemProperties.getInteger(RepositorySyncTrendAction.class.getName() + ".builds", 20);
+
+  private final Job<?, ?> job;
+
+  public RepositorySyncTrendAction(@Nonnull Job<?, ?> job) {
+    this.job = job;
+  }
+
+  @Override
+  public String getIconFileName() {
+    return jenkins.model.Jenkins.RESOURCE_PATH + "/plugin/adobe-cloud-manager/icons/Adobe_Experience_Cloud_logo_48px.png";
+  }
+
+  @Override
+  public String getDisplayName() {
+    return Messages.RepositorySyncTrendAction_displayName();
+  }
+
+  @Override
+  public String getUrlName() {
+    return "adobe-cloud-manager-sync-trend";
+  }
+
+  public Job<?, ?> getJob() {
+    return job;
+  }
+
+  /**
+   * The sync records of the recent builds, newest first. Builds which didn't sync are left out.
+   */
+  @Nonnull
+  public List<RepositorySyncAction> getBuilds() {
+    List<RepositorySyncAction> builds = new ArrayList<>();
+    for (Run<?, ?> run : job.getBuilds().limit(BUILDS)) {
+      RepositorySyncAction action = run.getAction(RepositorySyncAction.class);
+      if (action != null && !action.getPushes().isEmpty()) {
+        builds.add(action);
+      }
+    }
+    return builds;
+  }
+
+  /**
+   * The longest push in the builds, including listing and counting.
+   */
+  public long getMax(@Nonnull List<RepositorySyncAction> builds) {
+    return builds.stream().flatMap(b -> b.getPushes().stream()).mapToLong(RepositorySyncTrendAction::total).max().orElse(0);
+  }
+
+  /**
+   * Width of a part of a push's bar, as a percentage of the longest.
+   */
+  public int getPercent(long max, long duration) {
+    if (max <= 0 || duration <= 0) {
+      return 0;
+    }
+    return (int) Math.max(1, duration * 100 / max);
+  }
+
+  private static long total(RepositorySyncAction.Push push) {
+    return push.getListing() + push.getCounting() + push.getDuration();
+  }
+
+  /**
+   * Adds the trend to jobs whose last build synced to Cloud Manager.
+   */
+  @Extension
+  @SuppressWarnings("rawtypes")
+  public static class Factory extends TransientActionFactory<Job> {
+
+    @Override
+    public Class<Job> type() {
+      return Job.class;
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<? extends Action> createFor(@Nonnull Job target) {
+      Run<?, ?> last = target.getLastBuild();
+      if (last == null || last.getAction(RepositorySyncAction.class) == null) {
+        return Collections.emptyList();
+      }
+      return Collections.singletonList(new RepositorySyncTrendAction(target));
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.PeriodicWork;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pushes Cloud Manager progress of a run to its viewers, as Server-Sent Events.
+ * <p>
+ *   Each event is encoded once and queued to every viewer of the run; each viewer is written to without blocking, so a
+ *   slow viewer never holds up the others, or any thread. Viewers which fall too far behind are disconnected, and can
+ *   reconnect. Streams are ended when the run completes, and the number of viewers is limited.
+ * </p>
+ */
+@Extension
+public class RunEventBroadcaster extends RunListener<Run<?, ?>> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RunEventBroadcaster.class);
+
+  // Interval between keep-alive comments, which also detect viewers who have gone away.
+  static final long KEEP_ALIVE = SystemProperties.getLong(RunEventBroadcaster.class.getName() + ".keepAlive", TimeUnit.SECONDS.toMillis(15));
+  // Most events which may be queued to a single viewer.
+  static final int MAX_PENDING = SystemProperties.getInteger(RunEventBroadcaster.class.getName() + ".maxPending", 256);
+  // Most viewers connected at once, across all runs; further requests are refused.
+  static final int MAX_SUBSCRIBERS = SystemProperties.getInteger(RunEventBroadcaster.class.getName() + ".maxSubscribers", 100);
+
+  public static final String STEP_EVENT = "step";
+  public static final String WAITING_EVENT = "waiting";
+  public static final String RESOLVED_EVENT = "resolved";
+  public static final String END_EVENT = "end";
+
+  private static final byte[] PING = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+  private final Map<String, Set<Subscriber>> channels = new ConcurrentHashMap<>();
+  // Viewers connected across all runs, limited so open streams can't exhaust the controller's connections.
+  private final AtomicInteger subscribers = new AtomicInteger();
+
+  /**
+   * Get the broadcaster.
+   */
+  @Nonnull
+  public static RunEventBroadcaster get() {
+    return ExtensionList.lookupSingleton(RunEventBroadcaster.class);
+  }
+
+  /**
+   * Send the event to everyone viewing the run. Never blocks on the viewers.
+   */
+  public static void publish(@Nonnull Run<?, ?> run, @Nonnull String event, @Nonnull JSONObject data) {
+    RunEventBroadcaster broadcaster = get();
+    Set<Subscriber> subscribers = broadcaster.channels.get(run.getExternalizableId());
+    if (subscribers == null) {
+      return;
+    }
+    byte[] frame = frame(event, data);
+    for (Subscriber subscriber : subscribers) {
+      subscriber.offer(frame);
+    }
+  }
+
+  /**
+   * Start streaming the run's events to the requester; the response remains open until the run completes or the viewer leaves.
+   */
+  public void subscribe(@Nonnull Run<?, ?> run, @Nonnull StaplerRequest req, @Nonnull StaplerResponse rsp) throws IOException {
+    if (subscribers.incrementAndGet() > MAX_SUBSCRIBERS) {
+      subscribers.decrementAndGet();
+      LOGGER.debug(Messages.RunEventBroadcaster_debug_tooManySubscribers(MAX_SUBSCRIBERS));
+      rsp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+    rsp.setContentType("text/event-stream;charset=UTF-8");
+    rsp.setHeader("Cache-Control", "no-cache");
+    // Don't let proxies buffer the stream.
+    rsp.setHeader("X-Accel-Buffering", "no");
+    AsyncContext context = req.startAsync(req, rsp);
+    context.setTimeout(0);
+    String channel = run.getExternalizableId();
+    Subscriber subscriber = new Subscriber(channel, context);
+    context.addListener(subscriber);
+    channels.compute(channel, (k, s) -> {
+      Set<Subscriber> set = s == null ? ConcurrentHashMap.newKeySet() : s;
+      set.add(subscriber);
+      return set;
+    });
+    subscriber.start();
+    subscriber.offer(PING); // Sends the headers.
+    // Completed between the request and subscribing.
+    if (!run.isBuilding()) {
+      subscriber.finish(frame(END_EVENT, new JSONObject()));
+    }
+  }
+
+  /**
+   * Number of viewers currently connected, across all runs.
+   */
+  public int getSubscriberCount() {
+    return channels.values().stream().mapToInt(Set::size).sum();
+  }
+
+  @Override
+  public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+    close(run.getExternalizableId());
+  }
+
+  @Override
+  public void onDeleted(Run<?, ?> run) {
+    close(run.getExternalizableId());
+  }
+
+  private void close(String channel) {
+    Set<Subscriber> subscribers = channels.remove(channel);
+    if (subscribers != null) {
+      byte[] frame = frame(END_EVENT, new JSONObject());
+      for (Subscriber subscriber : subscribers) {
+        subscriber.finish(frame);
+      }
+    }
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    channels.computeIfPresent(subscriber.channel, (k, s) -> {
+      s.remove(subscriber);
+      return s.isEmpty() ? null : s;
+    });
+  }
+
+  // Also ends streams of runs which completed while their viewer was subscribing.
+  private void ping() {
+    for (Map.Entry<String, Set<Subscriber>> entry : channels.entrySet()) {
+      Run<?, ?> run = Run.fromExternalizableId(entry.getKey());
+      if (run == null || !run.isBuilding()) {
+        close(entry.getKey());
+        continue;
+      }
+      for (Subscriber subscriber : entry.getValue()) {
+        subscriber.offer(PING);
+      }
+    }
+  }
+
+  private static byte[] frame(String event, JSONObject data) {
+    return ("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Keeps idle streams open through proxies, and finds viewers which have disconnected.
+   */
+  @Extension
+  public static class KeepAlive extends PeriodicWork {
+
+    @Override
+    public long getRecurrencePeriod() {
+      return KEEP_ALIVE;
+    }
+
+    @Override
+    protected void doRun() {
+      get().ping();
+    }
+  }
+
+  // A single viewer; events are queued and written without blocking, in order, whenever the connection can take them.
+  private final class Subscriber implements AsyncListener, WriteListener {
+
+    private final String channel;
+    private final AsyncContext context;
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean ending;
+    // The stream, and whether it's been written to since the last flush; guarded by this.
+    private ServletOutputStream out;
+    private boolean dirty;
+
+    private Subscriber(String channel, AsyncContext context) {
+      this.channel = channel;
+      this.context = context;
+    }
+
+    synchronized void start() throws IOException {
+      try {
+        out = context.getResponse().getOutputStream();
+        out.setWriteListener(this);
+      } catch (IOException | IllegalStateException e) {
+        close();
+        throw e;
+      }
+    }
+
+    void offer(byte[] frame) {
+      if (closed.get()) {
+        return;
+      }
+      if (size.incrementAndGet() > MAX_PENDING) {
+        LOGGER.debug(Messages.RunEventBroadcaster_debug_slowSubscriber(channel));
+        close();
+        return;
+      }
+      queue.add(frame);
+      write();
+    }
+
+    // Write the final event, then end the stream.
+    void finish(byte[] frame) {
+      size.incrementAndGet();
+      queue.add(frame);
+      ending = true;
+      write();
+    }
+
+    // Writes only while the connection is ready; when it isn't, the container calls onWritePossible once it is, so
+    // nothing ever waits on a slow viewer.
+    private synchronized void write() {
+      if (closed.get() || out == null) {
+        return;
+      }
+      try {
+        while (out.isReady()) {
+          byte[] frame = queue.poll();
+          if (frame != null) {
+            size.decrementAndGet();
+            out.write(frame);
+            dirty = true;
+          } else if (dirty) {
+            dirty = false;
+            out.flush();
+          } else {
+            if (ending) {
+              close();
+            }
+            return;
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        // Viewer has gone away.
+        close();
+      }
+    }
+
+    @Override
+    public void onWritePossible() {
+      write();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      close();
+    }
+
+    private void close() {
+      if (closed.compareAndSet(false, true)) {
+        queue.clear();
+        subscribers.decrementAndGet();
+        unsubscribe(this);
+        try {
+          context.complete();
+        } catch (IllegalStateException e) {
+          // Already completed by the container.
+        }
+      }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Not restarted.
+    }
+  }
+}
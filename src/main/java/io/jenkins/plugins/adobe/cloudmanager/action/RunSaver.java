@@ -0,0 +1,119 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.Terminator;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind saving of runs whose Cloud Manager actions have changed.
+ * <p>
+ *   Saving a run rewrites its entire build.xml, so rather than saving on every change, changes within a short window are
+ *   batched into a single save. Pending saves are written immediately when the run completes, or Jenkins shuts down.
+ * </p>
+ */
+@Extension
+public class RunSaver extends RunListener<Run<?, ?>> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RunSaver.class);
+
+  // Longest a change may go unsaved.
+  static final long DELAY = SystemProperties.getLong(RunSaver.class.getName() + ".delay", TimeUnit.SECONDS.toMillis(5));
+
+  private final Map<Run<?, ?>, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+  /**
+   * Save the run within the staleness window, along with any other changes made to it in the meantime.
+   */
+  public static void save(@Nonnull Run<?, ?> run) {
+    ExtensionList.lookupSingleton(RunSaver.class).schedule(run);
+  }
+
+  /**
+   * Immediately save all runs with pending changes.
+   */
+  @Terminator
+  public static void flushAll() {
+    RunSaver saver = ExtensionList.lookupSingleton(RunSaver.class);
+    for (Run<?, ?> run : new ArrayList<>(saver.pending.keySet())) {
+      saver.flush(run);
+    }
+  }
+
+  @Override
+  public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+    flush(run);
+  }
+
+  @Override
+  public void onDeleted(Run<?, ?> run) {
+    ScheduledFuture<?> future = pending.remove(run);
+    if (future != null) {
+      future.cancel(false);
+    }
+  }
+
+  private void schedule(Run<?, ?> run) {
+    pending.computeIfAbsent(run, (r) -> Timer.get().schedule(() -> doSave(r, pending.remove(r)), DELAY, TimeUnit.MILLISECONDS));
+  }
+
+  private void flush(Run<?, ?> run) {
+    ScheduledFuture<?> future = pending.remove(run);
+    if (future != null) {
+      future.cancel(false);
+      doSave(run, future);
+    }
+  }
+
+  // Changes made while saving schedule another save, as the pending entry is removed first.
+  private static void doSave(Run<?, ?> run, ScheduledFuture<?> future) {
+    if (future == null) {
+      return; // Already flushed.
+    }
+    try {
+      run.save();
+    } catch (IOException e) {
+      LOGGER.warn(Messages.RunSaver_warn_save(run, e.getLocalizedMessage()));
+    }
+  }
+}
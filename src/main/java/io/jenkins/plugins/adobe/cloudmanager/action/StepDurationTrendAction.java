@@ -0,0 +1,207 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.Job;
+import hudson.model.Run;
+import io.adobe.cloudmanager.StepAction;
+import jenkins.model.TransientActionFactory;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+
+/**
+ * Shows how long each Cloud Manager step took, across a job's recent builds.
+ */
+public class StepDurationTrendAction implements Action {
+
+  // Number of recent builds to show.
+  static final int BUILDS = SystemProperties.getInteger(StepDurationTrendAction.class.getName() + ".builds", 20);
+
+  private final Job<?, ?> job;
+
+  public StepDurationTrendAction(@Nonnull Job<?, ?> job) {
+    this.job = job;
+  }
+
+  @Override
+  public String getIconFileName() {
+    return jenkins.model.Jenkins.RESOURCE_PATH + "/plugin/adobe-cloud-manager/icons/Adobe_Experience_Cloud_logo_48px.png";
+  }
+
+  @Override
+  public String getDisplayName() {
+    return Messages.StepDurationTrendAction_displayName();
+  }
+
+  @Override
+  public String getUrlName() {
+    return "adobe-cloud-manager-trend";
+  }
+
+  public Job<?, ?> getJob() {
+    return job;
+  }
+
+  /**
+   * Step durations of the recent builds, newest first. Builds without any timed steps are left out.
+   */
+  @Nonnull
+  public List<BuildDurations> getBuilds() {
+    List<BuildDurations> builds = new ArrayList<>();
+    for (Run<?, ?> run : job.getBuilds().limit(BUILDS)) {
+      Map<Step, Long> durations = new TreeMap<>();
+      for (CloudManagerBuildAction action : run.getActions(CloudManagerBuildAction.class)) {
+        // A run with several executions sums them.
+        durations(action.getSteps()).forEach((s, d) -> durations.merge(s, d, Long::sum));
+      }
+      if (!durations.isEmpty()) {
+        builds.add(new BuildDurations(run, durations));
+      }
+    }
+    return builds;
+  }
+
+  // A step's last state has its full duration. An action which comes round again once its step has ended - such as
+  // production's deploy after stage's - is a separate step.
+  @Nonnull
+  static Map<Step, Long> durations(@Nonnull List<CloudManagerBuildAction.PipelineStep> steps) {
+    Map<Step, Long> durations = new TreeMap<>();
+    int[] occurrences = CloudManagerBuildAction.occurrences(steps);
+    for (int i = 0; i < occurrences.length; i++) {
+      CloudManagerBuildAction.PipelineStep state = steps.get(i);
+      if (state.getDuration() >= 0) {
+        durations.put(new Step(state.getAction(), occurrences[i]), state.getDuration());
+      }
+    }
+    return durations;
+  }
+
+  /**
+   * The steps which were timed in any of the builds, in pipeline order.
+   */
+  @Nonnull
+  public Set<Step> getSteps(@Nonnull List<BuildDurations> builds) {
+    Set<Step> steps = new TreeSet<>();
+    builds.forEach(b -> steps.addAll(b.getDurations().keySet()));
+    return steps;
+  }
+
+  /**
+   * The longest duration in the builds.
+   */
+  public long getMax(@Nonnull List<BuildDurations> builds) {
+    return builds.stream().flatMap(b -> b.getDurations().values().stream()).mapToLong(Long::longValue).max().orElse(0);
+  }
+
+  /**
+   * Width of a duration's bar, as a percentage of the longest.
+   */
+  public int getPercent(long max, @CheckForNull Long duration) {
+    if (duration == null || max <= 0) {
+      return 0;
+    }
+    return (int) Math.max(1, duration * 100 / max);
+  }
+
+  /**
+   * A step of a pipeline: its action, and which time round that action is, as some actions - like deploy - happen in
+   * more than one phase.
+   */
+  @Value
+  public static class Step implements Comparable<Step> {
+    StepAction action;
+    int occurrence;
+
+    public String getLabel() {
+      return occurrence == 0 ? action.name() : Messages.StepDurationTrendAction_step_repeated(action.name(), occurrence + 1);
+    }
+
+    // Phases in turn, then the actions of each in pipeline order.
+    @Override
+    public int compareTo(@Nonnull Step other) {
+      return occurrence != other.occurrence ? Integer.compare(occurrence, other.occurrence) : action.compareTo(other.action);
+    }
+  }
+
+  /**
+   * The step durations of a single build.
+   */
+  @Value
+  public static class BuildDurations {
+    Run<?, ?> run;
+    Map<Step, Long> durations;
+
+    @CheckForNull
+    public Long getDuration(@Nonnull Step step) {
+      return durations.get(step);
+    }
+
+    @CheckForNull
+    public String getDurationString(@Nonnull Step step) {
+      Long duration = durations.get(step);
+      return duration == null ? null : Util.getTimeSpanString(duration);
+    }
+  }
+
+  /**
+   * Adds the trend to jobs whose last build used Cloud Manager.
+   */
+  @Extension
+  @SuppressWarnings("rawtypes")
+  public static class Factory extends TransientActionFactory<Job> {
+
+    @Override
+    public Class<Job> type() {
+      return Job.class;
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<? extends Action> createFor(@Nonnull Job target) {
+      Run<?, ?> last = target.getLastBuild();
+      if (last == null || last.getAction(CloudManagerBuildAction.class) == null) {
+        return Collections.emptyList();
+      }
+      return Collections.singletonList(new StepDurationTrendAction(target));
+    }
+  }
+}
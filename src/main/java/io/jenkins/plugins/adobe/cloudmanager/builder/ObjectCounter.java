@@ -0,0 +1,138 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import hudson.plugins.git.GitException;
+import hudson.remoting.VirtualChannel;
+import lombok.Value;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.ObjectWalk;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.jenkinsci.plugins.gitclient.GitClient;
+import org.jenkinsci.plugins.gitclient.RepositoryCallback;
+
+/**
+ * Counts the objects a push will send, and their uncompressed size, where the repository is.
+ * <p>
+ *   Objects reachable from the commit but not from any of the remote's refs which the repository has are counted, the
+ *   same walk git does before it generates the pack. How long this takes is an indication of the pack generation part
+ *   of a push; the rest is transfer.
+ * </p>
+ */
+final class ObjectCounter implements RepositoryCallback<ObjectCounter.Count> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final ObjectId commit;
+  private final List<ObjectId> remote;
+
+  private ObjectCounter(@Nonnull ObjectId commit, @Nonnull Collection<ObjectId> remote) {
+    this.commit = commit;
+    this.remote = new ArrayList<>(remote);
+  }
+
+  /**
+   * Count what pushing the commit to a remote with the refs will send, or {@link Count#UNKNOWN} if it can't be counted.
+   */
+  @Nonnull
+  static Count count(@Nonnull GitClient client, @Nonnull ObjectId commit, @Nonnull Collection<ObjectId> remote) throws InterruptedException {
+    try {
+      return client.withRepository(new ObjectCounter(commit, remote));
+    } catch (IOException | GitException e) {
+      return Count.UNKNOWN;
+    }
+  }
+
+  @Override
+  public Count invoke(Repository repo, VirtualChannel channel) throws IOException, InterruptedException {
+    try (ObjectWalk walk = new ObjectWalk(repo)) {
+      walk.markStart(walk.parseAny(commit));
+      for (ObjectId id : remote) {
+        try {
+          walk.markUninteresting(walk.parseAny(id));
+        } catch (MissingObjectException e) {
+          // The remote has commits which aren't here, they can't be excluded.
+        }
+      }
+      ObjectReader reader = walk.getObjectReader();
+      long objects = 0;
+      long bytes = 0;
+      RevCommit c;
+      while ((c = walk.next()) != null) {
+        objects++;
+        bytes += reader.getObjectSize(c, ObjectReader.OBJ_ANY);
+      }
+      RevObject o;
+      while ((o = walk.nextObject()) != null) {
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+        objects++;
+        bytes += reader.getObjectSize(o, ObjectReader.OBJ_ANY);
+      }
+      return new Count(objects, bytes);
+    } catch (MissingObjectException e) {
+      return Count.UNKNOWN;
+    }
+  }
+
+  /**
+   * Objects and their size, negative if unknown.
+   */
+  @Value
+  static class Count implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    static final Count NONE = new Count(0, 0);
+    static final Count UNKNOWN = new Count(-1, -1);
+
+    long objects;
+    long bytes;
+
+    /**
+     * Add the counts, unknown if either is.
+     */
+    @Nonnull
+    Count plus(@Nonnull Count other) {
+      if (objects < 0 || other.objects < 0) {
+        return UNKNOWN;
+      }
+      return new Count(objects + other.objects, bytes + other.bytes);
+    }
+  }
+}
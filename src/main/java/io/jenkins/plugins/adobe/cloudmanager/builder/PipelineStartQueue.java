@@ -0,0 +1,274 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Controller wide queue of requests to start Cloud Manager pipelines.
+ * <p>
+ *   Cloud Manager only allows one execution of a pipeline at a time, so starting a busy pipeline fails. Requests wait here until
+ *   the pipeline is idle: they are woken by pipeline end events when a webhook is configured, and otherwise by polling.
+ * </p>
+ * <p>
+ *   Requests for a pipeline which arrive before it is started are coalesced, and all receive the same execution. Requests arriving
+ *   after the start form the next batch, which waits for that execution to end, so starts are never attempted concurrently.
+ * </p>
+ */
+public class PipelineStartQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PipelineStartQueue.class);
+
+  // How often to check a busy pipeline when no end event arrives.
+  static final long POLL_INTERVAL = SystemProperties.getLong(PipelineStartQueue.class.getName() + ".pollInterval", TimeUnit.MINUTES.toMillis(1));
+
+  private static final PipelineStartQueue INSTANCE = new PipelineStartQueue(POLL_INTERVAL);
+
+  private final long pollInterval;
+  // Program/Pipeline -> the batch of requests waiting to start it, guarded by this.
+  private final Map<String, Batch> pending = new HashMap<>();
+
+  PipelineStartQueue(long pollInterval) {
+    this.pollInterval = pollInterval;
+  }
+
+  /**
+   * Get the queue instance.
+   */
+  @Nonnull
+  public static PipelineStartQueue get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Determines if any request is waiting to start the specified pipeline.
+   */
+  public synchronized boolean isWaiting(@Nonnull String programId, @Nonnull String pipelineId) {
+    return pending.containsKey(key(programId, pipelineId));
+  }
+
+  /**
+   * Notify the queue that an execution of the pipeline ended, so waiting requests are checked now rather than at the next poll.
+   */
+  public void ended(@Nonnull String programId, @Nonnull String pipelineId) {
+    Batch batch;
+    synchronized (this) {
+      batch = pending.get(key(programId, pipelineId));
+    }
+    if (batch != null) {
+      LOGGER.debug(Messages.PipelineStartQueue_debug_ended(programId, pipelineId));
+      batch.schedule(0);
+    }
+  }
+
+  /**
+   * Start the pipeline once it is idle, waiting at most {@code timeout} milliseconds.
+   *
+   * @param starter checks and starts the pipeline; only the first request of a batch is used
+   * @param onBusy  called if the pipeline is found to be busy while this request is waiting
+   */
+  @Nonnull
+  PipelineExecution start(@Nonnull String programId, @Nonnull String pipelineId, @Nonnull Starter starter, @CheckForNull Runnable onBusy, long timeout)
+      throws CloudManagerApiException, InterruptedException, TimeoutException {
+    String key = key(programId, pipelineId);
+    Batch batch;
+    boolean created = false;
+    synchronized (this) {
+      batch = pending.get(key);
+      if (batch == null) {
+        batch = new Batch(key, starter);
+        pending.put(key, batch);
+        created = true;
+      }
+      batch.waiters++;
+      if (onBusy != null) {
+        batch.onBusy.add(onBusy);
+      }
+    }
+    if (created) {
+      batch.schedule(0);
+    }
+    try {
+      return batch.future.get(timeout, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      Throwable cause = CloudManagerApiUtil.unwrap(e);
+      if (cause instanceof CloudManagerApiException) {
+        throw (CloudManagerApiException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    } catch (TimeoutException | InterruptedException e) {
+      leave(batch, onBusy);
+      throw e;
+    }
+  }
+
+  // Abandon the batch if the last waiting request has given up.
+  private void leave(Batch batch, Runnable onBusy) {
+    boolean abandoned;
+    synchronized (this) {
+      batch.waiters--;
+      batch.onBusy.remove(onBusy);
+      abandoned = batch.waiters == 0 && pending.remove(batch.key, batch);
+    }
+    if (abandoned) {
+      batch.future.cancel(false);
+      batch.cancel();
+    }
+  }
+
+  private synchronized void finish(Batch batch) {
+    pending.remove(batch.key, batch);
+  }
+
+  private synchronized List<Runnable> busy(Batch batch) {
+    List<Runnable> notify = new ArrayList<>(batch.onBusy);
+    batch.onBusy.clear();
+    return notify;
+  }
+
+  private static String key(String programId, String pipelineId) {
+    return programId + "/" + pipelineId;
+  }
+
+  /**
+   * Checks and starts a pipeline on behalf of a batch of requests.
+   */
+  interface Starter {
+
+    /**
+     * Determines if the pipeline currently has an execution.
+     */
+    boolean isBusy() throws CloudManagerApiException;
+
+    /**
+     * Start a new execution of the pipeline.
+     */
+    @Nonnull
+    PipelineExecution start() throws CloudManagerApiException;
+  }
+
+  private final class Batch {
+
+    private final String key;
+    private final Starter starter;
+    private final CompletableFuture<PipelineExecution> future = new CompletableFuture<>();
+    // Guarded by the queue.
+    private final List<Runnable> onBusy = new ArrayList<>();
+    private int waiters;
+    // Guarded by this.
+    private ScheduledFuture<?> task;
+    // Checks never overlap; one requested while another is in flight is run by that thread once it's done.
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private volatile boolean recheck;
+
+    private Batch(String key, Starter starter) {
+      this.key = key;
+      this.starter = starter;
+    }
+
+    // Timer only keeps time, the check itself waits on Cloud Manager so runs on the Cloud Manager executor.
+    // Scheduling replaces any check which is still pending, so an end event brings the next poll forward.
+    private synchronized void schedule(long delay) {
+      if (future.isDone()) {
+        return;
+      }
+      if (task != null) {
+        task.cancel(false);
+      }
+      task = Timer.get().schedule(() -> CloudManagerExecutors.get().execute(this::check), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void cancel() {
+      if (task != null) {
+        task.cancel(false);
+        task = null;
+      }
+    }
+
+    // A check prompted by an end event never overlaps a poll, and doesn't hold a thread waiting for the poll's remote calls.
+    private void check() {
+      recheck = true;
+      while (recheck && checking.compareAndSet(false, true)) {
+        try {
+          recheck = false;
+          poll();
+        } finally {
+          checking.set(false);
+        }
+      }
+    }
+
+    private void poll() {
+      if (future.isDone()) {
+        return;
+      }
+      try {
+        if (starter.isBusy()) {
+          busy(this).forEach(Runnable::run);
+          schedule(pollInterval);
+          return;
+        }
+      } catch (CloudManagerApiException | RuntimeException e) {
+        // Includes the API being unavailable; the batch must stay scheduled, or its waiters would never be released.
+        LOGGER.warn(Messages.PipelineStartQueue_warning_checkFailed(key, e.getLocalizedMessage()));
+        schedule(pollInterval);
+        return;
+      }
+      // Requests arriving while the start is in flight still share its execution.
+      try {
+        PipelineExecution execution = starter.start();
+        finish(this);
+        future.complete(execution);
+      } catch (CloudManagerApiException | RuntimeException e) {
+        finish(this);
+        future.completeExceptionally(e);
+      }
+    }
+  }
+}
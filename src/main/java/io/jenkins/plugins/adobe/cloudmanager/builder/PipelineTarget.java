@@ -0,0 +1,94 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.ListBoxModel;
+import io.jenkins.plugins.adobe.cloudmanager.util.DescriptorHelper;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.RelativePath;
+
+/**
+ * A Cloud Manager pipeline for a {@link StartPipelinesBuilder} to start.
+ */
+public class PipelineTarget extends AbstractDescribableImpl<PipelineTarget> {
+
+  private final String program;
+  private final String pipeline;
+
+  @DataBoundConstructor
+  public PipelineTarget(@Nonnull String program, @Nonnull String pipeline) {
+    this.program = program;
+    this.pipeline = pipeline;
+  }
+
+  /**
+   * The Program, as an Id or Name.
+   */
+  @CheckForNull
+  public String getProgram() {
+    return program;
+  }
+
+  /**
+   * The Pipeline in the Program, as an Id or Name.
+   */
+  @CheckForNull
+  public String getPipeline() {
+    return pipeline;
+  }
+
+  @Extension
+  public static class DescriptorImpl extends Descriptor<PipelineTarget> {
+
+    /**
+     * List the Programs available based on the Adobe IO Project selected for the builder.
+     */
+    public ListBoxModel doFillProgramItems(@RelativePath("..") @QueryParameter String aioProject) {
+      return DescriptorHelper.fillProgramItems(aioProject);
+    }
+
+    /**
+     * List the Pipelines associated with the selected Program.
+     */
+    public ListBoxModel doFillPipelineItems(@RelativePath("..") @QueryParameter String aioProject, @QueryParameter String program) {
+      return DescriptorHelper.fillPipelineItems(aioProject, program);
+    }
+
+    @Nonnull
+    @Override
+    public String getDisplayName() {
+      return Messages.PipelineTarget_DescriptorImpl_displayName();
+    }
+  }
+}
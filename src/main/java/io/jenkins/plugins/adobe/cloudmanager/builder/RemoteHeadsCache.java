@@ -0,0 +1,134 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.plugins.git.GitException;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Short-lived cache of the branch heads of Cloud Manager git repositories, by URL and the credentials used to list them,
+ * as different credentials may not see the same repository.
+ * <p>
+ *   Lets frequent syncs of the same commit find that the remote is already up to date with a single
+ *   <code>ls-remote</code>, or none at all. Heads are updated after each successful push.
+ * </p>
+ */
+final class RemoteHeadsCache {
+
+  // How long the heads of a repository are used before they're listed again; zero disables the cache.
+  static final long TTL = SystemProperties.getLong(RemoteHeadsCache.class.getName() + ".ttl", TimeUnit.SECONDS.toMillis(30));
+
+  private static final RemoteHeadsCache INSTANCE = new RemoteHeadsCache(System::currentTimeMillis);
+
+  private final Map<Key, Heads> heads = new ConcurrentHashMap<>();
+  private final LongSupplier clock;
+
+  RemoteHeadsCache(@Nonnull LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Nonnull
+  static RemoteHeadsCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * The commit the ref points to in the remote repository, listing the repository's heads only if they aren't cached.
+   */
+  @CheckForNull
+  ObjectId getHead(@Nonnull String url, @CheckForNull String credentialsId, @Nonnull String ref, @Nonnull Lister lister) throws InterruptedException {
+    return getHeads(url, credentialsId, lister).get(ref);
+  }
+
+  /**
+   * All the refs of the remote repository, listing them only if they aren't cached.
+   */
+  @Nonnull
+  Map<String, ObjectId> getHeads(@Nonnull String url, @CheckForNull String credentialsId, @Nonnull Lister lister) throws InterruptedException {
+    Key key = new Key(url, credentialsId);
+    long now = clock.getAsLong();
+    Heads cached = heads.get(key);
+    if (cached == null || cached.expires <= now) {
+      cached = new Heads(new HashMap<>(lister.list()), now + TTL);
+      if (TTL > 0) {
+        heads.put(key, cached);
+      }
+      heads.values().removeIf(h -> h.expires <= now);
+    }
+    return Collections.unmodifiableMap(cached.refs);
+  }
+
+  /**
+   * Record that the ref was pushed to the remote repository.
+   */
+  void pushed(@Nonnull String url, @CheckForNull String credentialsId, @Nonnull String ref, @Nonnull ObjectId id) {
+    heads.computeIfPresent(new Key(url, credentialsId), (k, h) -> {
+      Map<String, ObjectId> refs = new HashMap<>(h.refs);
+      refs.put(ref, id);
+      return new Heads(refs, h.expires);
+    });
+  }
+
+  /**
+   * Forget the remote repository's heads, as they're unknown.
+   */
+  void invalidate(@Nonnull String url, @CheckForNull String credentialsId) {
+    heads.remove(new Key(url, credentialsId));
+  }
+
+  /**
+   * Lists the heads of a remote repository.
+   */
+  @FunctionalInterface
+  interface Lister {
+    @Nonnull
+    Map<String, ObjectId> list() throws GitException, InterruptedException;
+  }
+
+  @Value
+  private static class Key {
+    String url;
+    String credentialsId;
+  }
+
+  @Value
+  private static class Heads {
+    Map<String, ObjectId> refs;
+    long expires;
+  }
+}
@@ -0,0 +1,146 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.plugins.git.GitException;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.URIish;
+import org.jenkinsci.plugins.gitclient.Git;
+import org.jenkinsci.plugins.gitclient.GitClient;
+
+/**
+ * A persistent bare mirror of a Cloud Manager git repository, kept on an agent.
+ * <p>
+ *   Pushes from the mirror only need to negotiate the commits which are new since its last push, rather than a whole
+ *   clone's worth of refs, and don't need a workspace. The mirror starts with the Cloud Manager repository's branches,
+ *   and only fetches commits it doesn't already have. Builds using the same mirror take turns.
+ * </p>
+ */
+final class RepositoryMirror {
+
+  static final String DIR = "adobe-cloud-manager-mirrors";
+
+  // Mirrors in use, by node and path; held while fetching and pushing.
+  private static final Map<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+  private final Node node;
+  private final FilePath dir;
+  private final String url;
+
+  RepositoryMirror(@Nonnull Node node, @Nonnull String url) throws AbortException {
+    FilePath root = node.getRootPath();
+    if (root == null) {
+      throw new AbortException(Messages.RepositoryMirror_error_offline(node.getDisplayName()));
+    }
+    this.node = node;
+    this.url = url;
+    this.dir = root.child(DIR).child(Util.getDigestOf(url));
+  }
+
+  /**
+   * Where the mirror is on its node.
+   */
+  @Nonnull
+  FilePath getDir() {
+    return dir;
+  }
+
+  /**
+   * Wait for any other build to finish with the mirror.
+   */
+  @Nonnull
+  ReentrantLock lock() throws InterruptedException {
+    ReentrantLock lock = LOCKS.computeIfAbsent(node.getNodeName() + ":" + dir.getRemote(), (k) -> new ReentrantLock(true));
+    lock.lockInterruptibly();
+    return lock;
+  }
+
+  /**
+   * Open a client for the mirror, creating it from the Cloud Manager repository if needed. Must hold the lock.
+   */
+  @Nonnull
+  GitClient open(@Nonnull String gitExe, @Nonnull TaskListener listener, @Nonnull GitClientConfigurer configurer) throws IOException, InterruptedException {
+    // The mirror outlives the build, so none of the build's environment is given to git.
+    GitClient client = Git.with(listener, new EnvVars()).in(dir).using(gitExe).getClient();
+    configurer.configure(client);
+    if (!dir.child("HEAD").exists()) {
+      listener.getLogger().println(Messages.RepositoryMirror_creating(url, dir.getRemote()));
+      dir.mkdirs();
+      client.init_().workspace(dir.getRemote()).bare(true).execute();
+      fetch(client, url, Collections.singletonList(new RefSpec("+refs/heads/*:refs/heads/*")));
+    }
+    return client;
+  }
+
+  /**
+   * Fetch the commits the mirror doesn't have yet from the source, storing each at its destination ref so it's kept.
+   */
+  void fetch(@Nonnull GitClient client, @Nonnull String source, @Nonnull Collection<RepositorySyncBuilder.Ref> refs) throws InterruptedException {
+    List<RefSpec> missing = new ArrayList<>();
+    for (RepositorySyncBuilder.Ref ref : refs) {
+      if (!client.isCommitInRepo(ref.getCommit())) {
+        missing.add(new RefSpec("+" + ref.getCommit().name() + ":" + ref.getDestination()));
+      }
+    }
+    if (!missing.isEmpty()) {
+      fetch(client, source, missing);
+    }
+  }
+
+  private void fetch(GitClient client, String source, List<RefSpec> refspecs) throws InterruptedException {
+    try {
+      client.fetch_().from(new URIish(source), refspecs).execute();
+    } catch (URISyntaxException e) {
+      throw new GitException(Messages.RepositoryMirror_error_invalidSource(source), e);
+    }
+  }
+
+  /**
+   * Adds credentials to a mirror's client before it's used.
+   */
+  @FunctionalInterface
+  interface GitClientConfigurer {
+    void configure(@Nonnull GitClient client) throws IOException, InterruptedException;
+  }
+}
@@ -29,24 +29,38 @@ package io.jenkins.plugins.adobe.cloudmanager.builder;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
+import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
 import hudson.AbortException;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.Util;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
+import hudson.model.Computer;
 import hudson.model.Item;
+import hudson.model.Node;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.plugins.git.GitException;
@@ -57,8 +71,14 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import io.jenkins.plugins.adobe.cloudmanager.action.RepositorySyncAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
 import io.jenkins.plugins.adobe.cloudmanager.util.CredentialsUtil;
+import jenkins.model.Jenkins;
 import jenkins.tasks.SimpleBuildStep;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.transport.URIish;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.gitclient.GitClient;
@@ -73,9 +93,17 @@ import org.kohsuke.stapler.QueryParameter;
  */
 public class RepositorySyncBuilder extends Builder implements SimpleBuildStep {
 
+  // Maximum number of remotes pushed to at once.
+  static final int CONCURRENCY = Math.max(1, SystemProperties.getInteger(RepositorySyncBuilder.class.getName() + ".concurrency", 4));
+
   private final String url;
   private final String credentialsId;
   private boolean force = false;
+  private String refspecs;
+  private List<RepositorySyncTarget> targets;
+  private boolean mirror = false;
+  private String mirrorNode;
+  private boolean countObjects = false;
 
   /**
    * Create an new Repository Sync Builder using the specified Cloud Manager URL and Credentials.
@@ -120,6 +148,95 @@ public class RepositorySyncBuilder extends Builder implements SimpleBuildStep {
     this.force = force;
   }
 
+  /**
+   * The refs to push, separated by whitespace.
+   */
+  @CheckForNull
+  public String getRefspecs() {
+    return refspecs;
+  }
+
+  /**
+   * Set the refs to push, instead of the build's commit to its branch.
+   * <p>
+   *   Each is either <code>source:destination</code>, or a single name used for both; names which aren't full refs are
+   *   branches. Sources which aren't local refs are looked for in the SCM's remote tracking branches.
+   * </p>
+   */
+  @DataBoundSetter
+  public void setRefspecs(String refspecs) {
+    this.refspecs = StringUtils.trimToNull(refspecs);
+  }
+
+  /**
+   * Additional Cloud Manager repositories to push to.
+   */
+  @Nonnull
+  public List<RepositorySyncTarget> getTargets() {
+    return targets == null ? Collections.emptyList() : Collections.unmodifiableList(targets);
+  }
+
+  @DataBoundSetter
+  public void setTargets(List<RepositorySyncTarget> targets) {
+    this.targets = targets == null || targets.isEmpty() ? null : new ArrayList<>(targets);
+  }
+
+  /**
+   * Whether to push from a persistent mirror of each Cloud Manager repository, rather than the workspace.
+   */
+  public boolean isMirror() {
+    return mirror;
+  }
+
+  /**
+   * Set whether to push from a mirror. Mirrors only fetch the commits they don't already have, from the workspace if
+   * it's on the mirror's node, otherwise from the SCM's origin; no workspace is needed.
+   */
+  @DataBoundSetter
+  public void setMirror(boolean mirror) {
+    this.mirror = mirror;
+  }
+
+  /**
+   * Name of the agent which keeps the mirrors; required to push from a mirror.
+   */
+  @CheckForNull
+  public String getMirrorNode() {
+    return mirrorNode;
+  }
+
+  @DataBoundSetter
+  public void setMirrorNode(String mirrorNode) {
+    this.mirrorNode = StringUtils.trimToNull(mirrorNode);
+  }
+
+  /**
+   * Whether to count the objects and bytes each push sends.
+   */
+  public boolean isCountObjects() {
+    return countObjects;
+  }
+
+  /**
+   * Set whether to count what each push sends, for the build's report and metrics.
+   * <p>
+   *   Counting walks every commit and tree between the pushed commit and the remote's heads before each push, which
+   *   can take as long as the push itself on large repositories.
+   * </p>
+   */
+  @DataBoundSetter
+  public void setCountObjects(boolean countObjects) {
+    this.countObjects = countObjects;
+  }
+
+  // The configured repository, then any additional ones.
+  private List<RepositorySyncTarget> getAllTargets() {
+    List<RepositorySyncTarget> all = new ArrayList<>();
+    all.add(new RepositorySyncTarget(url, credentialsId));
+    all.addAll(getTargets());
+    return all;
+  }
+
   /*
     Get the first SCM from the provided list. Run/Build SCM is required for this builder to work.
    */
@@ -164,7 +281,7 @@ public class RepositorySyncBuilder extends Builder implements SimpleBuildStep {
     return git;
   }
 
-  private StandardUsernameCredentials getCreds() throws AbortException {
+  private StandardUsernameCredentials getCreds(@Nonnull String credentialsId) throws AbortException {
     Optional<StandardUsernameCredentials> creds = CredentialsUtil.credentialsFor(credentialsId, StandardUsernameCredentials.class);
     if (!creds.isPresent()) {
       throw new AbortException(Messages.RepositorySyncBuilder_error_missingGitCredentials(credentialsId));
@@ -172,34 +289,249 @@ public class RepositorySyncBuilder extends Builder implements SimpleBuildStep {
     return creds.get();
   }
 
-  // The actual work of syncing to Cloud Manager's git.
-  private void push(@Nonnull GitClient client, @Nonnull EnvVars env, @Nonnull PrintStream log) throws AbortException {
+  // The configured refs, resolved to the commits to push. Without any, the build's commit is pushed to its branch.
+  private List<Ref> resolveRefs(@Nonnull Resolver resolver, @Nonnull EnvVars env) throws AbortException, InterruptedException {
+    if (StringUtils.isBlank(refspecs)) {
+      String branch = env.get(GitSCM.GIT_BRANCH, "");
+      String sha1 = env.get(GitSCM.GIT_COMMIT, "");
+      if (StringUtils.isBlank(branch) || StringUtils.isBlank(sha1)) {
+        throw new AbortException(Messages.RepositorySyncBuilder_error_missingGitInfo(branch, sha1));
+      }
+      return Collections.singletonList(new Ref(ObjectId.fromString(sha1), "refs/heads/" + StringUtils.remove(branch, "origin/")));
+    }
+    List<Ref> refs = new ArrayList<>();
+    for (String refspec : StringUtils.split(refspecs)) {
+      String source = StringUtils.substringBefore(refspec, ":");
+      String destination = refspec.contains(":") ? StringUtils.substringAfter(refspec, ":")
+          : source.startsWith("refs/") ? source : "refs/heads/" + source;
+      refs.add(new Ref(resolver.resolve(source), destination));
+    }
+    return refs;
+  }
 
-    String branch = env.get(GitSCM.GIT_BRANCH, "");
-    String sha1 = env.get(GitSCM.GIT_COMMIT, "");
-    if (StringUtils.isBlank(branch) || StringUtils.isBlank(sha1)) {
-      throw new AbortException(Messages.RepositorySyncBuilder_error_missingGitInfo(branch, sha1));
-    } else {
-      branch = StringUtils.remove(branch, "origin/");
+  // Checkouts usually only have remote tracking branches, so look there too.
+  private ObjectId resolveLocal(@Nonnull GitClient client, @Nonnull String source, @Nonnull String remote) throws AbortException, InterruptedException {
+    try {
+      return client.revParse(source);
+    } catch (GitException e) {
+      try {
+        return client.revParse("refs/remotes/" + remote + "/" + source);
+      } catch (GitException notRemote) {
+        throw new AbortException(Messages.RepositorySyncBuilder_error_unknownRef(source));
+      }
     }
+  }
 
+  // Without a workspace, names are looked up in the origin's branches and tags.
+  private static ObjectId resolveRemote(@Nonnull Map<String, ObjectId> origin, @Nonnull String source) throws AbortException {
+    if (ObjectId.isId(source)) {
+      return ObjectId.fromString(source);
+    }
+    for (String name : new String[] { source, "refs/heads/" + source, "refs/tags/" + source }) {
+      if (origin.containsKey(name)) {
+        return origin.get(name);
+      }
+    }
+    throw new AbortException(Messages.RepositorySyncBuilder_error_unknownRef(source));
+  }
+
+  // The actual work of syncing to a Cloud Manager git repository; refs already there are skipped.
+  private void push(@Nonnull Run<?, ?> run, @Nonnull GitClient client, @Nonnull RepositorySyncTarget target, @Nonnull List<Ref> refs, @Nonnull PrintStream log) throws AbortException {
+    String targetUrl = target.getUrl();
+    long start = System.currentTimeMillis();
+    long listing = 0;
+    long counting = 0;
+    long pushing = 0;
+    ObjectCounter.Count sent = ObjectCounter.Count.NONE;
+    int pushed = 0;
     try {
-      log.println(Messages.RepositorySyncBuilder_pushMessage(url));
-      client.setCredentials(getCreds());
-      client.push().to(new URIish(url)).ref(sha1 + ":refs/heads/" + branch).force(isForce()).execute();
+      client.setCredentials(getCreds(target.getCredentialsId()));
+      URIish uri = new URIish(targetUrl);
+      for (Ref ref : refs) {
+        long mark = System.currentTimeMillis();
+        Map<String, ObjectId> heads = remoteHeads(client, target, log);
+        listing += System.currentTimeMillis() - mark;
+        if (ref.commit.equals(heads.get(ref.destination))) {
+          log.println(Messages.RepositorySyncBuilder_upToDate(targetUrl, ref.destination));
+          continue;
+        }
+        if (pushed == 0) {
+          log.println(Messages.RepositorySyncBuilder_pushMessage(targetUrl));
+        }
+        // Without the remote's heads, counting would walk the commit's whole history; an empty or unknown remote gets
+        // everything anyway, so the count isn't worth it.
+        if (!countObjects || heads.isEmpty()) {
+          sent = ObjectCounter.Count.UNKNOWN;
+        } else {
+          mark = System.currentTimeMillis();
+          sent = sent.plus(ObjectCounter.count(client, ref.commit, heads.values()));
+          counting += System.currentTimeMillis() - mark;
+        }
+        mark = System.currentTimeMillis();
+        client.push().to(uri).ref(ref.commit.name() + ":" + ref.destination).force(isForce()).execute();
+        pushing += System.currentTimeMillis() - mark;
+        RemoteHeadsCache.get().pushed(targetUrl, target.getCredentialsId(), ref.destination, ref.commit);
+        pushed++;
+      }
     } catch (URISyntaxException e) {
-      throw new AbortException(Messages.RepositorySyncBuilder_error_invalidRemoteRepository(url));
+      throw new AbortException(Messages.RepositorySyncBuilder_error_invalidRemoteRepository(targetUrl));
     } catch (GitException | InterruptedException e) {
+      if (e instanceof InterruptedException) {
+        // Keep the interrupt, so the remaining remotes are stopped too.
+        Thread.currentThread().interrupt();
+      }
+      RemoteHeadsCache.get().invalidate(targetUrl, target.getCredentialsId());
       throw new AbortException(Messages.RepositorySyncBuilder_error_pushFailed(e.getLocalizedMessage()));
     }
+    log.println(Messages.RepositorySyncBuilder_synced(targetUrl, pushed, refs.size(), Util.getTimeSpanString(System.currentTimeMillis() - start)));
+    RepositorySyncAction.Push push = new RepositorySyncAction.Push(targetUrl, pushed, listing, counting, pushing, sent.getObjects(), sent.getBytes());
+    if (pushed > 0) {
+      log.println(Messages.RepositorySyncBuilder_transfer(push.getObjectsString(), push.getBytesString(),
+          Util.getTimeSpanString(listing), Util.getTimeSpanString(counting), Util.getTimeSpanString(pushing)));
+    }
+    RepositorySyncAction.record(run, push);
   }
 
-  @Override
-  public void perform(@Nonnull Run<?, ?> run,
-                      @Nonnull FilePath workspace,
-                      @Nonnull EnvVars env,
-                      @Nonnull Launcher launcher,
-                      @Nonnull TaskListener listener) throws InterruptedException, IOException {
+  // The refs in Cloud Manager's git, or none if they can't be listed.
+  @Nonnull
+  private Map<String, ObjectId> remoteHeads(@Nonnull GitClient client, @Nonnull RepositorySyncTarget target, @Nonnull PrintStream log) throws InterruptedException {
+    String targetUrl = target.getUrl();
+    try {
+      return RemoteHeadsCache.get().getHeads(targetUrl, target.getCredentialsId(), () -> client.getRemoteReferences(targetUrl, null, false, false));
+    } catch (GitException e) {
+      // The push will report any real problem.
+      log.println(Messages.RepositorySyncBuilder_warning_listFailed(e.getLocalizedMessage()));
+      return Collections.emptyMap();
+    }
+  }
+
+  // Sync each remote, several at once.
+  private void syncAll(@Nonnull List<RepositorySyncTarget> all, @Nonnull Sync sync, @Nonnull PrintStream log) throws AbortException, InterruptedException {
+    if (all.size() == 1) {
+      sync.sync(all.get(0));
+      return;
+    }
+    Queue<RepositorySyncTarget> pending = new ConcurrentLinkedQueue<>(all);
+    Queue<String> failures = new ConcurrentLinkedQueue<>();
+    // Pushes, and waits for a mirror another build is using, block; so they get threads of this build's own.
+    int threads = Math.min(CONCURRENCY, all.size());
+    ExecutorService executor = CloudManagerExecutors.newBounded(getClass().getSimpleName(), threads);
+    List<Future<?>> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      workers.add(executor.submit(() -> {
+        RepositorySyncTarget next;
+        while (!Thread.currentThread().isInterrupted() && (next = pending.poll()) != null) {
+          try {
+            sync.sync(next);
+          } catch (AbortException e) {
+            log.println(e.getMessage());
+            failures.add(next.getUrl());
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(next.getUrl());
+          }
+        }
+      }));
+    }
+    executor.shutdown();
+    try {
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
+      // Stop the remaining pushes; those in progress are interrupted.
+      executor.shutdownNow();
+      throw e;
+    } catch (ExecutionException e) {
+      executor.shutdownNow();
+      throw new AbortException(Messages.RepositorySyncBuilder_error_pushFailed(e.getCause().getLocalizedMessage()));
+    }
+    if (!failures.isEmpty()) {
+      throw new AbortException(Messages.RepositorySyncBuilder_error_remotesFailed(String.join(", ", failures)));
+    }
+  }
+
+  // Push from a clone in the workspace. Each remote has its own client, as credentials are set on the client.
+  private void syncFromWorkspace(@Nonnull GitSCM scm, @Nonnull Run<?, ?> run, @Nonnull FilePath workspace, @Nonnull EnvVars env, @Nonnull TaskListener listener) throws IOException, InterruptedException {
+    Map<RepositorySyncTarget, GitClient> clients = new LinkedHashMap<>();
+    for (RepositorySyncTarget target : getAllTargets()) {
+      clients.put(target, createClient(scm, run, workspace, env, listener));
+    }
+    GitClient first = clients.values().iterator().next();
+    List<Ref> refs = resolveRefs((source) -> resolveLocal(first, source, getOriginName(scm)), env);
+    syncAll(getAllTargets(), (target) -> push(run, clients.get(target), target, refs, listener.getLogger()), listener.getLogger());
+  }
+
+  // Push from a mirror of each remote, fetching what it needs from the workspace if it's on the same node, otherwise the origin.
+  private void syncFromMirror(@Nonnull GitSCM scm, @Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull EnvVars env, @Nonnull TaskListener listener) throws IOException, InterruptedException {
+    Node node = getMirrorNodeInstance();
+    String gitExe = scm.getGitExe(node, listener);
+    UserRemoteConfig origin = scm.getUserRemoteConfigs().get(0);
+    StandardUsernameCredentials originCreds = StringUtils.isBlank(origin.getCredentialsId()) ? null
+        : CredentialsProvider.findCredentialById(origin.getCredentialsId(), StandardUsernameCredentials.class, run, URIRequirementBuilder.fromUri(origin.getUrl()).build());
+
+    List<Ref> resolved = null;
+    String source = origin.getUrl();
+    if (workspace != null) {
+      GitClient local = createClient(scm, run, workspace, env, listener);
+      resolved = resolveRefs((name) -> resolveLocal(local, name, getOriginName(scm)), env);
+      if (workspace.getChannel() == node.getChannel()) {
+        source = workspace.getRemote();
+      }
+    }
+    List<Ref> workspaceRefs = resolved;
+    String fetchFrom = source;
+    syncAll(getAllTargets(), (target) -> {
+      RepositoryMirror mirror = new RepositoryMirror(node, target.getUrl());
+      ReentrantLock lock = mirror.lock();
+      try {
+        StandardUsernameCredentials targetCreds = getCreds(target.getCredentialsId());
+        GitClient client = mirror.open(gitExe, listener, (c) -> {
+          c.addCredentials(target.getUrl(), targetCreds);
+          if (originCreds != null) {
+            c.addCredentials(origin.getUrl(), originCreds);
+          }
+        });
+        List<Ref> refs = workspaceRefs;
+        if (refs == null) {
+          Map<String, ObjectId> originRefs = client.getRemoteReferences(origin.getUrl(), null, false, false);
+          refs = resolveRefs((name) -> resolveRemote(originRefs, name), env);
+        }
+        mirror.fetch(client, fetchFrom, refs);
+        push(run, client, target, refs, listener.getLogger());
+      } catch (IOException | GitException e) {
+        throw new AbortException(Messages.RepositorySyncBuilder_error_mirrorFailed(target.getUrl(), e.getLocalizedMessage()));
+      } finally {
+        lock.unlock();
+      }
+    }, listener.getLogger());
+  }
+
+  private static String getOriginName(@Nonnull GitSCM scm) {
+    return StringUtils.defaultIfBlank(scm.getUserRemoteConfigs().get(0).getName(), "origin");
+  }
+
+  // Mirrors are only kept on a named agent which the build may use: on the built-in node, a build could read or write the controller's files.
+  private Node getMirrorNodeInstance() throws AbortException {
+    if (StringUtils.isBlank(mirrorNode)) {
+      throw new AbortException(Messages.RepositoryMirror_error_noNode());
+    }
+    Node node = Jenkins.get().getNode(mirrorNode);
+    if (node instanceof Jenkins) {
+      throw new AbortException(Messages.RepositoryMirror_error_noNode());
+    }
+    Computer computer = node == null ? null : node.toComputer();
+    if (computer == null || node.getChannel() == null) {
+      throw new AbortException(Messages.RepositoryMirror_error_offline(StringUtils.defaultString(mirrorNode)));
+    }
+    // The build runs as its queue item's authentication; it may only use the mirror node if it could have been scheduled there.
+    if (!computer.getACL().hasPermission2(Jenkins.getAuthentication2(), Computer.BUILD)) {
+      throw new AbortException(Messages.RepositoryMirror_error_permission(Jenkins.getAuthentication2().getName(), mirrorNode));
+    }
+    return node;
+  }
+
+  private void sync(@Nonnull Run<?, ?> run, @CheckForNull FilePath workspace, @Nonnull EnvVars env, @Nonnull TaskListener listener) throws InterruptedException, IOException {
     PrintStream log = listener.getLogger();
 
     GitSCM scm;
@@ -211,14 +543,52 @@ public class RepositorySyncBuilder extends Builder implements SimpleBuildStep {
       throw new AbortException(Messages.RepositorySyncBuilder_error_invalidRunType());
     }
     scm.buildEnvironment(run, env);
-    GitClient client = createClient(scm, run, workspace, env, listener);
-    push(client, env, log);
+    if (mirror) {
+      syncFromMirror(scm, run, workspace, env, listener);
+    } else if (workspace == null) {
+      throw new AbortException(Messages.RepositorySyncBuilder_error_missingGitRepository());
+    } else {
+      syncFromWorkspace(scm, run, workspace, env, listener);
+    }
+  }
+
+  @Override
+  public void perform(@Nonnull Run<?, ?> run,
+                      @Nonnull FilePath workspace,
+                      @Nonnull EnvVars env,
+                      @Nonnull Launcher launcher,
+                      @Nonnull TaskListener listener) throws InterruptedException, IOException {
+    sync(run, workspace, env, listener);
+  }
+
+  @Override
+  public void perform(@Nonnull Run<?, ?> run, @Nonnull EnvVars env, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+    sync(run, null, env, listener);
   }
 
-  // Sync requires a workspace, as the client needs the files to push up to Cloud Manager remote.
+  // Sync requires a workspace, as the client needs the files to push up to Cloud Manager remote; unless pushing from a mirror.
   @Override
   public boolean requiresWorkspace() {
-    return true;
+    return !mirror;
+  }
+
+  // Resolves a source ref to its commit.
+  @FunctionalInterface
+  private interface Resolver {
+    ObjectId resolve(@Nonnull String source) throws AbortException, InterruptedException;
+  }
+
+  // Syncs a single remote.
+  @FunctionalInterface
+  private interface Sync {
+    void sync(@Nonnull RepositorySyncTarget target) throws AbortException, InterruptedException;
+  }
+
+  // A commit to push, and where to push it.
+  @Value
+  static class Ref {
+    ObjectId commit;
+    String destination;
   }
 
   @Symbol("acmRepoSync")
@@ -0,0 +1,101 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.model.Item;
+import hudson.plugins.git.UserRemoteConfig;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import org.kohsuke.stapler.AncestorInPath;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * An additional Cloud Manager git repository for a {@link RepositorySyncBuilder} to push to.
+ */
+public class RepositorySyncTarget extends AbstractDescribableImpl<RepositorySyncTarget> {
+
+  private final String url;
+  private final String credentialsId;
+
+  @DataBoundConstructor
+  public RepositorySyncTarget(@Nonnull String url, @Nonnull String credentialsId) {
+    this.url = url;
+    this.credentialsId = credentialsId;
+  }
+
+  /**
+   * The URL to the Cloud Manager git repository.
+   */
+  @CheckForNull
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * The credentials id of the secret containing the Cloud Manager git credentials.
+   */
+  @CheckForNull
+  public String getCredentialsId() {
+    return credentialsId;
+  }
+
+  @Extension
+  public static class DescriptorImpl extends Descriptor<RepositorySyncTarget> {
+
+    @Inject
+    private UserRemoteConfig.DescriptorImpl delegate;
+
+    /**
+     * Create a list of the credentials that are valid for this target.
+     */
+    public ListBoxModel doFillCredentialsIdItems(@AncestorInPath Item project, @QueryParameter String url, @QueryParameter String credentialsId) {
+      return delegate.doFillCredentialsIdItems(project, url, credentialsId);
+    }
+
+    /**
+     * Check if the provided Cloud Manager url is valid.
+     */
+    public FormValidation doCheckUrl(@AncestorInPath Item project, @QueryParameter String url, @QueryParameter String credentialsId) throws IOException, InterruptedException {
+      return delegate.doCheckUrl(project, credentialsId, url);
+    }
+
+    @Nonnull
+    @Override
+    public String getDisplayName() {
+      return Messages.RepositorySyncTarget_DescriptorImpl_displayName();
+    }
+  }
+}
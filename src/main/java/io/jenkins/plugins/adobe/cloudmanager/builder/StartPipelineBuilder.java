@@ -28,6 +28,8 @@ package io.jenkins.plugins.adobe.cloudmanager.builder;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.annotation.Nonnull;
 
 import hudson.AbortException;
@@ -37,21 +39,45 @@ import hudson.model.Run;
 import hudson.model.TaskListener;
 import io.adobe.cloudmanager.CloudManagerApi;
 import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.Pipeline;
 import io.adobe.cloudmanager.PipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Starts the specified Cloud Manager pipeline.
  */
 public class StartPipelineBuilder extends CloudManagerBuilder {
 
+  public static final int DEFAULT_QUEUE_TIMEOUT = 60;
+
+  private Integer queueTimeout;
+
   @DataBoundConstructor
   public StartPipelineBuilder() {
   }
 
+  /**
+   * Minutes to wait for a busy pipeline to become idle before starting it.
+   */
+  public int getQueueTimeout() {
+    return queueTimeout == null ? DEFAULT_QUEUE_TIMEOUT : queueTimeout;
+  }
+
+  /**
+   * Set the minutes to wait for a busy pipeline. While waiting, the start is queued with any others for the same pipeline;
+   * <code>0</code> starts immediately, failing if the pipeline is busy.
+   */
+  @DataBoundSetter
+  public void setQueueTimeout(int queueTimeout) {
+    this.queueTimeout = Math.max(0, queueTimeout);
+  }
+
   @Override
   public void perform(@Nonnull Run<?, ?> run, @Nonnull EnvVars env, @Nonnull TaskListener listener) throws InterruptedException, IOException {
     if (run.getAction(CloudManagerBuildAction.class) != null) {
@@ -64,7 +90,7 @@ public class StartPipelineBuilder extends CloudManagerBuilder {
 
     try {
       PrintStream log = listener.getLogger();
-      PipelineExecution execution = api.startExecution(programId, pipelineId);
+      PipelineExecution execution = start(api, programId, pipelineId, pipeline, getQueueTimeout(), log);
       CloudManagerBuildAction data = new CloudManagerBuildAction(getAioProject(), new CloudManagerPipelineExecution(execution.getProgramId(), execution.getPipelineId(), execution.getId()));
       run.addAction(data);
       log.println(Messages.StartPipelineBuilder_started(execution.getId(), pipeline));
@@ -73,6 +99,51 @@ public class StartPipelineBuilder extends CloudManagerBuilder {
     }
   }
 
+  /**
+   * Start the pipeline, queueing the start for at most {@code timeout} minutes if the pipeline is busy.
+   */
+  @Nonnull
+  static PipelineExecution start(@Nonnull CloudManagerApi api, @Nonnull String programId, @Nonnull String pipelineId, String pipeline, int timeout, @Nonnull PrintStream log)
+      throws CloudManagerApiException, InterruptedException, AbortException {
+    if (timeout == 0) {
+      return api.startExecution(programId, pipelineId);
+    }
+    try {
+      return PipelineStartQueue.get().start(programId, pipelineId, new Starter(api, programId, pipelineId),
+          () -> log.println(Messages.StartPipelineBuilder_waiting(pipeline, timeout)), TimeUnit.MINUTES.toMillis(timeout));
+    } catch (TimeoutException e) {
+      throw new AbortException(Messages.StartPipelineBuilder_error_queueTimeout(pipeline, timeout));
+    }
+  }
+
+  // Busy checks are only polling, so shouldn't hold up other API calls.
+  private static class Starter implements PipelineStartQueue.Starter {
+
+    private final CloudManagerApi api;
+    private final String programId;
+    private final String pipelineId;
+
+    private Starter(CloudManagerApi api, String programId, String pipelineId) {
+      this.api = api;
+      this.programId = programId;
+      this.pipelineId = pipelineId;
+    }
+
+    @Override
+    public boolean isBusy() throws CloudManagerApiException {
+      return CloudManagerApiUtil.withPriority(api, ApiRateLimiter.Priority.LOW).listPipelines(programId)
+          .stream()
+          .filter(p -> pipelineId.equals(p.getId()))
+          .anyMatch(p -> p.getStatusState() != null && p.getStatusState() != Pipeline.Status.IDLE);
+    }
+
+    @Nonnull
+    @Override
+    public PipelineExecution start() throws CloudManagerApiException {
+      return api.startExecution(programId, pipelineId);
+    }
+  }
+
   // No workspace is necessary to start remote pipeline.
   @Override
   public boolean requiresWorkspace() {
@@ -0,0 +1,302 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.tasks.Builder;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.Pipeline;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.Program;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
+import jenkins.tasks.SimpleBuildStep;
+import jenkins.util.SystemProperties;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Starts several Cloud Manager pipelines, across any programs of an Adobe IO project, concurrently.
+ * <p>
+ *   All pipelines share one API client. Names are resolved with one listing per program, and each execution started is
+ *   recorded as its own {@link CloudManagerBuildAction}.
+ * </p>
+ */
+public class StartPipelinesBuilder extends Builder implements SimpleBuildStep {
+
+  // Maximum number of pipelines started at once.
+  static final int CONCURRENCY = Math.max(1, SystemProperties.getInteger(StartPipelinesBuilder.class.getName() + ".concurrency", 4));
+
+  // Seconds to wait for starts in flight to return when the build is interrupted.
+  private static final long STOP_TIMEOUT = 30;
+
+  private final String aioProject;
+  private final List<PipelineTarget> pipelines;
+  private Integer queueTimeout;
+
+  @DataBoundConstructor
+  public StartPipelinesBuilder(@Nonnull String aioProject, @Nonnull List<PipelineTarget> pipelines) {
+    this.aioProject = aioProject;
+    this.pipelines = new ArrayList<>(pipelines);
+  }
+
+  @CheckForNull
+  public String getAioProject() {
+    return aioProject;
+  }
+
+  /**
+   * The pipelines to start.
+   */
+  @Nonnull
+  public List<PipelineTarget> getPipelines() {
+    return pipelines == null ? Collections.emptyList() : Collections.unmodifiableList(pipelines);
+  }
+
+  /**
+   * Minutes to wait for each busy pipeline to become idle before starting it.
+   */
+  public int getQueueTimeout() {
+    return queueTimeout == null ? StartPipelineBuilder.DEFAULT_QUEUE_TIMEOUT : queueTimeout;
+  }
+
+  /**
+   * Set the minutes to wait for each busy pipeline, see {@link StartPipelineBuilder#setQueueTimeout(int)}.
+   */
+  @DataBoundSetter
+  public void setQueueTimeout(int queueTimeout) {
+    this.queueTimeout = Math.max(0, queueTimeout);
+  }
+
+  /**
+   * Create a {@link CloudManagerApi} from this Builder's configured Adobe IO project, shared by all the pipelines.
+   */
+  @Nonnull
+  public CloudManagerApi createApi() throws AbortException {
+    return CloudManagerApiUtil.createApi().apply(aioProject).orElseThrow(() -> new AbortException(Messages.CloudManagerBuilder_error_missingAioProject(aioProject)));
+  }
+
+  @Override
+  public void perform(@Nonnull Run<?, ?> run, @Nonnull EnvVars env, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+    if (run.getAction(CloudManagerBuildAction.class) != null) {
+      throw new AbortException(Messages.StartPipelineBuilder_error_duplicateBuild());
+    }
+    if (getPipelines().isEmpty()) {
+      throw new AbortException(Messages.StartPipelinesBuilder_error_noPipelines());
+    }
+
+    PrintStream log = listener.getLogger();
+    CloudManagerApi api = createApi();
+    List<Target> targets;
+    try {
+      targets = resolve(api);
+    } catch (CloudManagerApiException e) {
+      throw new AbortException(Messages.CloudManagerBuilder_error_CloudManagerApiException(e.getLocalizedMessage()));
+    }
+
+    AtomicReferenceArray<PipelineExecution> started = new AtomicReferenceArray<>(targets.size());
+    Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+    for (int i = 0; i < targets.size(); i++) {
+      pending.add(i);
+    }
+    Queue<String> failures = new ConcurrentLinkedQueue<>();
+    // Starts may wait on a busy pipeline, whose checks run on the shared executor; so wait on threads of this build's own.
+    int threads = Math.min(CONCURRENCY, targets.size());
+    ExecutorService executor = CloudManagerExecutors.newBounded(getClass().getSimpleName(), threads);
+    List<Future<?>> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      workers.add(executor.submit(() -> {
+        Integer next;
+        while (!Thread.currentThread().isInterrupted() && (next = pending.poll()) != null) {
+          Target target = targets.get(next);
+          try {
+            started.set(next, StartPipelineBuilder.start(api, target.getProgramId(), target.getPipelineId(), target.getPipeline(), getQueueTimeout(), log));
+          } catch (CloudManagerApiException e) {
+            log.println(Messages.StartPipelinesBuilder_error_startFailed(target.getPipeline(), target.getProgram(), e.getLocalizedMessage()));
+            failures.add(target.getPipeline());
+          } catch (AbortException e) {
+            log.println(e.getMessage());
+            failures.add(target.getPipeline());
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(target.getPipeline());
+          } catch (RuntimeException e) {
+            log.println(Messages.StartPipelinesBuilder_error_startFailed(target.getPipeline(), target.getProgram(), e.getLocalizedMessage()));
+            failures.add(target.getPipeline());
+          }
+        }
+      }));
+    }
+    executor.shutdown();
+    InterruptedException interrupted = null;
+    try {
+      for (Future<?> worker : workers) {
+        try {
+          worker.get();
+        } catch (ExecutionException e) {
+          failures.add(e.getCause().getLocalizedMessage());
+        }
+      }
+    } catch (InterruptedException e) {
+      // Stop the remaining starts, but give those in flight a moment to return, so what did start is still recorded.
+      interrupted = e;
+      executor.shutdownNow();
+      try {
+        if (!executor.awaitTermination(STOP_TIMEOUT, TimeUnit.SECONDS)) {
+          log.println(Messages.StartPipelinesBuilder_warning_stopTimeout(STOP_TIMEOUT));
+        }
+      } catch (InterruptedException again) {
+        interrupted.addSuppressed(again);
+      }
+    }
+
+    // Record what was started, in the configured order, even if some failed, so those executions can still be followed.
+    for (int i = 0; i < targets.size(); i++) {
+      PipelineExecution execution = started.get(i);
+      if (execution != null) {
+        run.addAction(new CloudManagerBuildAction(aioProject, new CloudManagerPipelineExecution(execution.getProgramId(), execution.getPipelineId(), execution.getId())));
+        log.println(Messages.StartPipelineBuilder_started(execution.getId(), targets.get(i).getPipeline()));
+      }
+    }
+    if (interrupted != null) {
+      throw interrupted;
+    }
+    if (!failures.isEmpty()) {
+      throw new AbortException(Messages.StartPipelinesBuilder_error_failed(failures.size(), targets.size(), String.join(", ", failures)));
+    }
+  }
+
+  // Resolve each configured pipeline to ids, listing programs at most once, and the pipelines of each program at most once.
+  // The same pipeline configured more than once is only started once.
+  @Nonnull
+  List<Target> resolve(@Nonnull CloudManagerApi api) throws AbortException, CloudManagerApiException {
+    Map<String, String> programIds = null;
+    Map<String, Map<String, String>> pipelineIds = new HashMap<>();
+    Collection<Target> targets = new LinkedHashSet<>();
+    for (PipelineTarget configured : getPipelines()) {
+      String programId = toId(configured.getProgram());
+      if (programId == null) {
+        if (programIds == null) {
+          programIds = new HashMap<>();
+          for (Program p : api.listPrograms()) {
+            programIds.putIfAbsent(p.getName(), p.getId());
+          }
+        }
+        programId = programIds.get(configured.getProgram());
+        if (programId == null) {
+          throw new AbortException(Messages.CloudManagerBuilder_error_missingProgram(configured.getProgram()));
+        }
+      }
+      String pipelineId = toId(configured.getPipeline());
+      if (pipelineId == null) {
+        Map<String, String> names = pipelineIds.get(programId);
+        if (names == null) {
+          names = new HashMap<>();
+          for (Pipeline p : api.listPipelines(programId)) {
+            names.putIfAbsent(p.getName(), p.getId());
+          }
+          pipelineIds.put(programId, names);
+        }
+        pipelineId = names.get(configured.getPipeline());
+        if (pipelineId == null) {
+          throw new AbortException(Messages.CloudManagerBuilder_error_missingPipeline(configured.getPipeline()));
+        }
+      }
+      targets.add(new Target(configured.getProgram(), configured.getPipeline(), programId, pipelineId));
+    }
+    return new ArrayList<>(targets);
+  }
+
+  // Programs and Pipelines can be specified as an Id or Name.
+  @CheckForNull
+  private static String toId(@CheckForNull String value) {
+    try {
+      return String.valueOf(Integer.parseInt(value));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  // No workspace is necessary to start remote pipelines.
+  @Override
+  public boolean requiresWorkspace() {
+    return false;
+  }
+
+  /**
+   * A configured pipeline, along with its ids. Equality is by id, so the same pipeline configured by id and name is one target.
+   */
+  @Value
+  static class Target {
+    @EqualsAndHashCode.Exclude
+    String program;
+    @EqualsAndHashCode.Exclude
+    String pipeline;
+    String programId;
+    String pipelineId;
+  }
+
+  @Symbol("acmStartPipelines")
+  @Extension
+  public static class DescriptorImpl extends CloudManagerBuilder.CloudManagerBuilderDescriptor {
+
+    @Nonnull
+    @Override
+    public String getDisplayName() {
+      return Messages.StartPipelinesBuilder_displayName();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package io.jenkins.plugins.adobe.cloudmanager.metrics;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import hudson.Extension;
+import io.jenkins.plugins.adobe.cloudmanager.action.RepositorySyncAction;
+import io.jenkins.plugins.adobe.cloudmanager.action.RunEventBroadcaster;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiCircuitBreaker;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
+import jenkins.metrics.api.MetricProvider;
+
+/**
+ * Publishes Cloud Manager plugin metrics, when the Metrics plugin is installed.
+ */
+@Extension(optional = true)
+public class CloudManagerMetricProvider extends MetricProvider {
+
+  static final String PREFIX = "adobe-cloud-manager.";
+
+  private final Map<String, Metric> metrics;
+
+  public CloudManagerMetricProvider() {
+    Map<String, Metric> map = new HashMap<>();
+    map.put(PREFIX + "api.queue.depth", (Gauge<Integer>) () -> ApiRateLimiter.get().getQueueDepth());
+    for (ApiRateLimiter.Priority priority : ApiRateLimiter.Priority.values()) {
+      map.put(PREFIX + "api.queue.depth." + priority.name().toLowerCase(Locale.ROOT), (Gauge<Integer>) () -> ApiRateLimiter.get().getQueueDepth(priority));
+    }
+    map.put(PREFIX + "api.circuit.open", (Gauge<Integer>) () -> ApiCircuitBreaker.get().getOpenCount());
+    for (ApiCircuitBreaker.State state : ApiCircuitBreaker.State.values()) {
+      map.put(PREFIX + "api.circuit.transitions." + state.name().toLowerCase(Locale.ROOT), (Gauge<Long>) () -> ApiCircuitBreaker.get().getTransitionCount(state));
+    }
+    map.put(PREFIX + "api.bulkhead.inflight", (Gauge<Integer>) () -> ApiCircuitBreaker.get().getInFlight());
+    map.put(PREFIX + "api.rejected", (Gauge<Long>) () -> ApiCircuitBreaker.get().getRejectedCount());
+    map.put(PREFIX + "stream.subscribers", (Gauge<Integer>) () -> RunEventBroadcaster.get().getSubscriberCount());
+    RepositorySyncAction.Totals sync = RepositorySyncAction.getTotals();
+    map.put(PREFIX + "repoSync.pushes", (Gauge<Long>) sync::getPushes);
+    map.put(PREFIX + "repoSync.refs", (Gauge<Long>) sync::getRefs);
+    map.put(PREFIX + "repoSync.listing.millis", (Gauge<Long>) sync::getListing);
+    map.put(PREFIX + "repoSync.counting.millis", (Gauge<Long>) sync::getCounting);
+    map.put(PREFIX + "repoSync.push.millis", (Gauge<Long>) sync::getDuration);
+    map.put(PREFIX + "repoSync.objects", (Gauge<Long>) sync::getObjects);
+    map.put(PREFIX + "repoSync.bytes", (Gauge<Long>) sync::getBytes);
+    metrics = Collections.unmodifiableMap(map);
+  }
+
+  @Nonnull
+  @Override
+  public MetricSet getMetricSet() {
+    return () -> metrics;
+  }
+}
@@ -61,6 +61,8 @@ public class PipelineEndStep extends Step {
 
   private boolean mirror = true;
   private boolean empty = false;
+  private boolean tailLogs = false;
+  private boolean archiveLogs = false;
 
   @DataBoundConstructor
   public PipelineEndStep() {
@@ -84,9 +86,25 @@ public class PipelineEndStep extends Step {
   @DataBoundSetter
   public void setEmpty(boolean empty) { this.empty = empty; }
 
+  /**
+   * Flag to stream the logs of remote steps into the console while they run. <strong>Default:</strong> false.
+   */
+  public boolean isTailLogs() { return tailLogs; }
+
+  @DataBoundSetter
+  public void setTailLogs(boolean tailLogs) { this.tailLogs = tailLogs; }
+
+  /**
+   * Flag to archive the logs of remote steps, compressed, as artifacts when the pipeline ends. <strong>Default:</strong> false.
+   */
+  public boolean isArchiveLogs() { return archiveLogs; }
+
+  @DataBoundSetter
+  public void setArchiveLogs(boolean archiveLogs) { this.archiveLogs = archiveLogs; }
+
   @Override
   public StepExecution start(StepContext context) throws Exception {
-    return new PipelineEndExecution(context, mirror, empty);
+    return new PipelineEndExecution(context, mirror, empty, tailLogs, archiveLogs);
   }
 
   @Extension
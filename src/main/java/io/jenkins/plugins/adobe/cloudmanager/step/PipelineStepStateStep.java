@@ -67,6 +67,7 @@ public class PipelineStepStateStep extends Step {
   private boolean autoApprove = false;
   private boolean advance = true;
   private boolean waitingPause = true;
+  private boolean tailLogs = false;
 
   @DataBoundConstructor
   public PipelineStepStateStep() {
@@ -121,6 +122,14 @@ public class PipelineStepStateStep extends Step {
   @DataBoundSetter
   public void setWaitingPause(boolean waitingPause) { this.waitingPause = waitingPause; }
 
+  /**
+   * Flag to stream the logs of remote steps into the console while they run. <strong>Default:</strong> false.
+   */
+  public boolean isTailLogs() { return tailLogs; }
+
+  @DataBoundSetter
+  public void setTailLogs(boolean tailLogs) { this.tailLogs = tailLogs; }
+
   /**
    * List all actions for the UI generator example.
    */
@@ -134,7 +143,7 @@ public class PipelineStepStateStep extends Step {
     if (autoApprove && !waitingPause) {
       throw new AbortException(Messages.PipelineStepStateStep_failure_approveAndNoWait());
     }
-    return new PipelineStepStateExecution(context, new HashSet<>(getActions()), autoApprove, advance, waitingPause);
+    return new PipelineStepStateExecution(context, new HashSet<>(getActions()), autoApprove, advance, waitingPause, tailLogs);
   }
 
   @Extension
@@ -27,18 +27,27 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
  */
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 
 import hudson.AbortException;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.InterestRegistry;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
@@ -52,6 +61,9 @@ import org.jenkinsci.plugins.workflow.steps.StepExecution;
 public abstract class AbstractStepExecution extends StepExecution {
 
   private final String id;
+  // Remote step logs being streamed to the console, and how much of each has been written; kept to resume after a restart.
+  private Map<StepAction, Long> logOffsets;
+  private transient Map<StepAction, StepLogTailer> tailers;
 
   public AbstractStepExecution(StepContext context) {
     super(context);
@@ -106,6 +118,14 @@ public abstract class AbstractStepExecution extends StepExecution {
     return CloudManagerApiUtil.createApi().apply(getBuildData().getAioProjectName()).orElseThrow(() -> new AbortException(Messages.AbstractStepExecution_error_missingBuildData()));
   }
 
+  /**
+   * Build a Cloud Manager API which makes its calls at the specified priority.
+   */
+  @Nonnull
+  protected CloudManagerApi getApi(@Nonnull ApiRateLimiter.Priority priority) throws IOException, InterruptedException {
+    return CloudManagerApiUtil.withPriority(getApi(), priority);
+  }
+
   /**
    * Helper to get the Run from the context.
    */
@@ -149,7 +169,7 @@ public abstract class AbstractStepExecution extends StepExecution {
       validateData();
       doResume();
     } catch (IOException | InterruptedException e) {
-      getContext().onFailure(e);
+      onFailure(e);
     }
   }
 
@@ -159,6 +179,112 @@ public abstract class AbstractStepExecution extends StepExecution {
   @Override
   public final void stop(@Nonnull Throwable cause) throws Exception {
     doStop();
+    onFailure(cause);
+  }
+
+  /**
+   * Register interest in events for the Cloud Manager execution associated with this run.
+   * <p>
+   *   Interest is removed when this execution completes via {@link #onSuccess(Object)} or {@link #onFailure(Throwable)}.
+   * </p>
+   */
+  protected void registerInterest() throws IOException, InterruptedException {
+    InterestRegistry.get().register(id, getBuildData().getCmExecution());
+  }
+
+  /**
+   * Stream the remote log of the step into the console while it runs, writing the remainder once it ends.
+   * <p>
+   *   Events are processed on the CPS VM thread, so all fetches happen in the background.
+   * </p>
+   */
+  protected void followLog(@Nonnull PipelineExecutionStepState state) throws IOException, InterruptedException {
+    StepAction action;
+    try {
+      action = StepAction.valueOf(state.getAction());
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+    if (!StepLogTailer.ACTIONS.contains(action)) {
+      return;
+    }
+    if (state.getStatusState() == PipelineExecutionStepState.Status.RUNNING) {
+      startTail(action, 0);
+    } else {
+      StepLogTailer tailer = getTailers().remove(action);
+      if (tailer == null) {
+        // Ended before it was seen running.
+        tailer = newTailer(action, 0);
+      }
+      getLogOffsets().remove(action);
+      CloudManagerExecutors.get().submit(tailer::finish);
+    }
+  }
+
+  /**
+   * Continue streaming any logs which were being followed before a restart.
+   */
+  protected void resumeLogs() throws IOException, InterruptedException {
+    for (Map.Entry<StepAction, Long> entry : new HashMap<>(getLogOffsets()).entrySet()) {
+      startTail(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Stop streaming all logs.
+   */
+  protected void stopLogs() {
+    if (tailers != null) {
+      tailers.values().forEach(StepLogTailer::cancel);
+      tailers.clear();
+    }
+  }
+
+  private void startTail(StepAction action, long offset) throws IOException, InterruptedException {
+    if (!getTailers().containsKey(action)) {
+      StepLogTailer tailer = newTailer(action, offset);
+      getTailers().put(action, tailer);
+      getLogOffsets().put(action, offset);
+      tailer.start();
+    }
+  }
+
+  private StepLogTailer newTailer(StepAction action, long offset) throws IOException, InterruptedException {
+    CloudManagerPipelineExecution execution = getBuildData().getCmExecution();
+    CloudManagerApi api = getApi(ApiRateLimiter.Priority.LOW);
+    return new StepLogTailer(execution, action, api, getTaskListener().getLogger(), offset, (written) -> getLogOffsets().computeIfPresent(action, (a, o) -> written));
+  }
+
+  // Executions serialized before logs could be followed won't have these.
+  private synchronized Map<StepAction, Long> getLogOffsets() {
+    if (logOffsets == null) {
+      logOffsets = new ConcurrentHashMap<>();
+    }
+    return logOffsets;
+  }
+
+  private synchronized Map<StepAction, StepLogTailer> getTailers() {
+    if (tailers == null) {
+      tailers = new ConcurrentHashMap<>();
+    }
+    return tailers;
+  }
+
+  /**
+   * Completes this execution successfully, removing any registered event interest.
+   */
+  protected void onSuccess(Object result) {
+    stopLogs();
+    InterestRegistry.get().unregister(id);
+    getContext().onSuccess(result);
+  }
+
+  /**
+   * Completes this execution with a failure, removing any registered event interest.
+   */
+  protected void onFailure(Throwable cause) {
+    stopLogs();
+    InterestRegistry.get().unregister(id);
     getContext().onFailure(cause);
   }
 
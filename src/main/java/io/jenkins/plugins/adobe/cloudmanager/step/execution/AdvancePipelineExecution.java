@@ -26,7 +26,10 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
  * #L%
  */
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 import hudson.AbortException;
 import io.adobe.cloudmanager.CloudManagerApi;
@@ -35,16 +38,24 @@ import io.adobe.cloudmanager.PipelineExecution;
 import io.adobe.cloudmanager.PipelineExecutionStepState;
 import io.adobe.cloudmanager.StepAction;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 
 /**
  * Execution for a {@link io.jenkins.plugins.adobe.cloudmanager.step.AdvancePipelineStep}, advancing the remote Cloud Manager pipeline.
+ * <p>
+ *   API calls are composed asynchronously, no thread waits on them.
+ * </p>
  */
 public class AdvancePipelineExecution extends AbstractStepExecution {
 
   private static final long serialVersionUID = 1L;
 
   private final List<StepAction> actions;
+  // The API call in flight, cancelled if the step is stopped.
+  private transient volatile CompletableFuture<?> call;
+  private transient volatile boolean stopped;
 
   public AdvancePipelineExecution(StepContext context, List<StepAction> actions) {
     super(context);
@@ -53,27 +64,89 @@ public class AdvancePipelineExecution extends AbstractStepExecution {
 
   @Override
   public void doStart() throws Exception {
-    try {
-      CloudManagerPipelineExecution build = getBuildData().getCmExecution();
-      CloudManagerApi api = getApi();
-      PipelineExecution pe = api.getExecution(build.getProgramId(), build.getPipelineId(), build.getExecutionId());
+    advance(false);
+  }
+
+  // The calls in flight were lost with the restart, so check the pipeline again. If it's no longer at one of the
+  // actions, it was advanced before the restart.
+  @Override
+  public void doResume() throws IOException, InterruptedException {
+    getTaskListener().getLogger().println(Messages.AdvancePipelineExecution_info_resuming());
+    advance(true);
+  }
 
-      PipelineExecutionStepState step = api.getCurrentStep(pe);
-      StepAction stepAction = StepAction.valueOf(step.getAction());
-      if (actions.contains(stepAction)) {
-        getTaskListener().getLogger().println(Messages.AdvancePipelineExecution_info_advancingPipeline(stepAction));
-        api.advanceExecution(pe);
-        getContext().onSuccess(null);
-      } else {
-        throw new AbortException(Messages.AdvancePipelineExecution_error_invalidPipelineState(stepAction));
+  // Stop any further calls, the step's context has already been failed.
+  @Override
+  public void doStop() throws Exception {
+    stopped = true;
+    CompletableFuture<?> current = call;
+    if (current != null) {
+      current.cancel(true);
+    }
+  }
+
+  private void advance(boolean resumed) throws IOException, InterruptedException {
+    CloudManagerPipelineExecution build = getBuildData().getCmExecution();
+    CloudManagerApi api = getApi();
+    call(() -> api.getExecution(build.getProgramId(), build.getPipelineId(), build.getExecutionId()))
+        .thenCompose((pe) -> call(() -> api.getCurrentStep(pe)).thenCompose((step) -> advance(api, pe, step, resumed)))
+        .whenComplete((result, t) -> {
+          if (stopped) {
+            return;
+          }
+          if (t == null) {
+            onSuccess(null);
+          } else {
+            onFailure(failure(t));
+          }
+        });
+  }
+
+  // Advance the pipeline, if the current step is one of the configured actions.
+  private CompletableFuture<Void> advance(CloudManagerApi api, PipelineExecution pe, PipelineExecutionStepState step, boolean resumed) {
+    StepAction stepAction = StepAction.valueOf(step.getAction());
+    if (!actions.contains(stepAction)) {
+      if (resumed) {
+        try {
+          getTaskListener().getLogger().println(Messages.AdvancePipelineExecution_info_alreadyAdvanced(stepAction));
+        } catch (IOException | InterruptedException e) {
+          return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(null);
       }
-    } catch (CloudManagerApiException e) {
-      throw new AbortException(e.getLocalizedMessage());
+      return CompletableFuture.failedFuture(new AbortException(Messages.AdvancePipelineExecution_error_invalidPipelineState(stepAction)));
+    }
+    try {
+      getTaskListener().getLogger().println(Messages.AdvancePipelineExecution_info_advancingPipeline(stepAction));
+    } catch (IOException | InterruptedException e) {
+      return CompletableFuture.failedFuture(e);
     }
+    return call(() -> {
+      api.advanceExecution(pe);
+      return null;
+    });
   }
 
-  @Override
-  public boolean isAsync() {
-    return false;
+  // Make the call, unless stopped, tracking it so that stopping cancels it.
+  private <T> CompletableFuture<T> call(CloudManagerApiUtil.ApiCall<T> apiCall) {
+    if (stopped) {
+      return CompletableFuture.failedFuture(new CancellationException());
+    }
+    CompletableFuture<T> future = CloudManagerApiUtil.supplyAsync(apiCall);
+    call = future;
+    // Stopped while starting the call.
+    if (stopped) {
+      future.cancel(true);
+    }
+    return future;
+  }
+
+  // API failures end the step like any other abort, without a stack trace.
+  private static Throwable failure(Throwable t) {
+    Throwable cause = CloudManagerApiUtil.unwrap(t);
+    if (cause instanceof CloudManagerApiException || cause instanceof ApiUnavailableException) {
+      return new AbortException(cause.getLocalizedMessage());
+    }
+    return cause;
   }
 }
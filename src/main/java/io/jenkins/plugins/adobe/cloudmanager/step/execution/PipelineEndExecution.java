@@ -28,7 +28,10 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -36,6 +39,10 @@ import javax.annotation.Nonnull;
 import hudson.model.Result;
 import hudson.model.TaskListener;
 import io.adobe.cloudmanager.PipelineExecution;
+import io.adobe.cloudmanager.PipelineExecutionStepState;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.InterestRegistry;
 import org.jenkinsci.plugins.workflow.steps.BodyExecutionCallback;
 import org.jenkinsci.plugins.workflow.steps.FlowInterruptedException;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
@@ -52,15 +59,29 @@ public class PipelineEndExecution extends AbstractStepExecution {
 
   private final boolean mirror;
   private final boolean empty;
+  private final boolean tailLogs;
+  private final boolean archiveLogs;
   // Event status' which are associated with a remote pipeline failure.
   private final List<PipelineExecution.Status> FAILURES = Arrays.asList(FAILED, ERROR, CANCELLED);
   // Final status indicating that this execution is complete.
   private PipelineExecution.Status status;
+  // Archiving of the step logs, which must finish before this step ends.
+  private transient CompletableFuture<?> archiving;
 
   public PipelineEndExecution(StepContext context, boolean mirror, boolean empty) {
+    this(context, mirror, empty, false);
+  }
+
+  public PipelineEndExecution(StepContext context, boolean mirror, boolean empty, boolean tailLogs) {
+    this(context, mirror, empty, tailLogs, false);
+  }
+
+  public PipelineEndExecution(StepContext context, boolean mirror, boolean empty, boolean tailLogs, boolean archiveLogs) {
     super(context);
     this.mirror = mirror;
     this.empty = empty;
+    this.tailLogs = tailLogs;
+    this.archiveLogs = archiveLogs;
   }
 
   public boolean isFinished() {
@@ -69,6 +90,7 @@ public class PipelineEndExecution extends AbstractStepExecution {
 
   @Override
   public void doStart() throws Exception {
+    registerInterest();
     getTaskListener().getLogger().println(Messages.PipelineEndExecution_waiting());
     if (!empty) {
       getContext().newBodyInvoker().withCallback(new Callback(getId())).start();
@@ -78,9 +100,15 @@ public class PipelineEndExecution extends AbstractStepExecution {
   @Override
   public void doResume() {
     try {
+      registerInterest();
+      resumeLogs();
+      // Archiving isn't persisted; if the end event had already arrived, it was lost with the restart.
+      if (archiveLogs && isFinished()) {
+        getTaskListener().getLogger().println(Messages.PipelineEndExecution_archiveSkipped());
+      }
       getTaskListener().getLogger().println(Messages.PipelineEndExecution_waiting());
     } catch (IOException | InterruptedException e) {
-      getContext().onFailure(e);
+      onFailure(e);
     }
   }
 
@@ -102,13 +130,18 @@ public class PipelineEndExecution extends AbstractStepExecution {
   }
 
   /**
-   * Ends this step when receiving an associated event.
+   * Ends this step when receiving an associated event. If step logs are still being archived, ends once they are done.
    */
   public void end() {
+    CompletableFuture<?> pending = archiving;
+    if (pending != null && !pending.isDone()) {
+      pending.whenComplete((r, t) -> end());
+      return;
+    }
     if (mirror && FAILURES.contains(status)) {
-      getContext().onFailure(new FlowInterruptedException(Result.FAILURE, new RemoteStateInterruption(status)));
+      onFailure(new FlowInterruptedException(Result.FAILURE, new RemoteStateInterruption(status)));
     } else {
-      getContext().onSuccess(null);
+      onSuccess(null);
     }
   }
 
@@ -121,6 +154,15 @@ public class PipelineEndExecution extends AbstractStepExecution {
 
   // Event handling
 
+  /**
+   * Processes a step event of the pipeline, streaming its logs to the console if requested.
+   */
+  public void stepOccurred(@Nonnull PipelineExecutionStepState stepState) throws IOException, InterruptedException {
+    if (tailLogs && !isFinished()) {
+      followLog(stepState);
+    }
+  }
+
   /**
    * Processes the execution event, will quietly terminate any internal running {@link PipelineStepStateExecution} instances.
    * <p>
@@ -137,18 +179,47 @@ public class PipelineEndExecution extends AbstractStepExecution {
             ((PipelineStepStateExecution) se).doEndQuietly();
           }
         } catch (IOException | InterruptedException e) {
-          getContext().onFailure(e);
+          onFailure(e);
         }
         return null;
       });
       return sei;
     }).collect(Collectors.toList());
     getTaskListener().getLogger().println(Messages.PipelineEndExecution_occurred(pe.getId(), pe.getStatusState()));
+    if (archiveLogs) {
+      archiveLogs();
+    }
     if (empty) {
       end();
     }
   }
 
+  /**
+   * Starts archiving the logs of all steps which have them, in the background.
+   */
+  private void archiveLogs() throws IOException, InterruptedException {
+    CloudManagerBuildAction data = getBuildData();
+    // One log per step; a step may have several states with logs, but an action which comes round again is another step.
+    List<CloudManagerBuildAction.PipelineStep> steps = data.getSteps();
+    int[] occurrences = CloudManagerBuildAction.occurrences(steps);
+    Set<StepLogArchiver.Log> logs = new LinkedHashSet<>();
+    for (int i = 0; i < occurrences.length; i++) {
+      if (steps.get(i).isHasLogs()) {
+        logs.add(new StepLogArchiver.Log(steps.get(i).getAction(), occurrences[i]));
+      }
+    }
+    TaskListener listener = getTaskListener();
+    StepLogArchiver archiver = new StepLogArchiver(getRun(), data.getCmExecution(), getApi(ApiRateLimiter.Priority.LOW), listener);
+    archiving = archiver.archive(logs).handle((count, t) -> {
+      if (t != null) {
+        listener.getLogger().println(Messages.StepLogArchiver_error_archive(t.getLocalizedMessage()));
+      } else if (count > 0) {
+        listener.getLogger().println(Messages.StepLogArchiver_archived(count));
+      }
+      return null;
+    });
+  }
+
   /**
    * Callback for handling end of body block.
    */
@@ -179,6 +250,7 @@ public class PipelineEndExecution extends AbstractStepExecution {
 
     @Override
     public void onFailure(StepContext context, Throwable t) {
+      InterestRegistry.get().unregister(id);
       context.onFailure(t);
     }
   }
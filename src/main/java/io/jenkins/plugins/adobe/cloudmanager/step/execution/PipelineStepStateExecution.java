@@ -27,11 +27,13 @@ package io.jenkins.plugins.adobe.cloudmanager.step.execution;
  */
 
 import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -45,6 +47,7 @@ import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.model.User;
+import io.adobe.cloudmanager.CloudManagerApi;
 import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.PipelineExecution;
 import io.adobe.cloudmanager.PipelineExecutionStepState;
@@ -53,6 +56,9 @@ import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
 import io.jenkins.plugins.adobe.cloudmanager.action.PipelineStepDecisionAction;
 import io.jenkins.plugins.adobe.cloudmanager.action.PipelineWaitingAction;
+import io.jenkins.plugins.adobe.cloudmanager.action.RunSaver;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.steps.FlowInterruptedException;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
@@ -66,6 +72,7 @@ import org.kohsuke.stapler.interceptor.RequirePOST;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter.Priority.*;
 
 /**
  * Execution for a {@link io.jenkins.plugins.adobe.cloudmanager.step.PipelineStepStateStep}. Handles the any associated events.
@@ -86,16 +93,24 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   private final boolean autoApprove;
   private final boolean advance;
   private final boolean waitingPause;
+  private final boolean tailLogs;
 
   // Used as the reason for a waiting action. If its set - then we're waiting for user input.
   private StepAction reason;
+  // The Cloud Manager execution which is waiting.
+  private CloudManagerPipelineExecution waitingExecution;
 
   public PipelineStepStateExecution(StepContext context, Set<StepAction> actions, boolean autoApprove, boolean advance, boolean waitingPause) {
+    this(context, actions, autoApprove, advance, waitingPause, false);
+  }
+
+  public PipelineStepStateExecution(StepContext context, Set<StepAction> actions, boolean autoApprove, boolean advance, boolean waitingPause, boolean tailLogs) {
     super(context);
     this.actions = actions;
     this.autoApprove = autoApprove;
     this.advance = advance;
     this.waitingPause = waitingPause;
+    this.tailLogs = tailLogs;
   }
 
   @CheckForNull
@@ -103,14 +118,22 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
     return reason;
   }
 
+  @CheckForNull
+  public CloudManagerPipelineExecution getWaitingExecution() {
+    return waitingExecution;
+  }
+
   // Execution Logic
   @Override
   public void doStart() throws Exception {
+    registerInterest();
     getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_waiting());
   }
 
   @Override
   public void doResume() throws IOException, InterruptedException {
+    registerInterest();
+    resumeLogs();
     if (reason == null) {
       getTaskListener().getLogger().println(Messages._PipelineStepStateExecution_waiting());
     }
@@ -118,6 +141,7 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
 
   @Override
   public void doStop() throws Exception {
+    stopLogs();
     doFinish();
   }
 
@@ -149,11 +173,22 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
 
   // Event handling
   public void process(PipelineExecution pe, PipelineExecutionStepState stepState) throws IOException, InterruptedException, TimeoutException {
+    process(pe, stepState, null);
+  }
+
+  /**
+   * Process the step state, which was published by Cloud Manager at the specified time. Defaults to now if unknown.
+   */
+  public void process(PipelineExecution pe, PipelineExecutionStepState stepState, @CheckForNull OffsetDateTime published) throws IOException, InterruptedException, TimeoutException {
     if (isApplicable(pe) && isApplicable(stepState)) {
+      long time = published != null ? published.toInstant().toEpochMilli() : System.currentTimeMillis();
+      if (tailLogs) {
+        followLog(stepState);
+      }
       if (waitingPause && stepState.getStatusState() == WAITING) {
-        waiting(pe, stepState);
+        waiting(pe, stepState, time);
       } else {
-        occurred(pe, stepState);
+        occurred(pe, stepState, time);
       }
     }
   }
@@ -161,19 +196,19 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   /**
    * Process an <i>occurred</i> event. Essentially, an event that does not require user input, but that should generate some informational message.
    */
-  private void occurred(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state) throws IOException, InterruptedException {
+  private void occurred(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state, long time) throws IOException, InterruptedException {
     try {
-      PipelineExecutionStepState.Status status = logStepAction(pe, state);
+      PipelineExecutionStepState.Status status = logStepAction(pe, state, time);
       doFinish();
       if (advance && (ENDED_STATUS.contains(status) || status == WAITING)) {
         if (status == FINISHED || status == ROLLED_BACK || status == WAITING) {
-          getContext().onSuccess(null);
+          onSuccess(null);
         } else if (status == CANCELLED) {
           FlowInterruptedException e = new FlowInterruptedException(Result.ABORTED, new Cancellation());
-          getContext().onFailure(e);
+          onFailure(e);
         } else {
           FlowInterruptedException e = new FlowInterruptedException(Result.FAILURE, new io.jenkins.plugins.adobe.cloudmanager.step.execution.Failure());
-          getContext().onFailure(e);
+          onFailure(e);
         }
       }
     } catch (IllegalArgumentException e) {
@@ -184,15 +219,14 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   /**
    * Process an <i>waiting</i> event. Waiting events pause this step/pipeline/run until a user action is taken.
    */
-  private void waiting(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state) throws IOException, InterruptedException, TimeoutException {
+  private void waiting(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state, long time) throws IOException, InterruptedException, TimeoutException {
     try {
       reason = StepAction.valueOf(state.getAction());
-      logStepAction(pe, state);
+      waitingExecution = new CloudManagerPipelineExecution(pe.getProgramId(), pe.getPipelineId(), pe.getId());
+      logStepAction(pe, state, time);
       if (WAITING_ACTIONS.contains(reason)) {
         if (autoApprove) {
-          approveStep();
-          getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_autoApprove());
-          doFinish();
+          approveStep().whenComplete((result, t) -> autoApproved(t));
         } else {
           startWaiting();
         }
@@ -201,16 +235,35 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
       }
     } catch (IllegalArgumentException e) {
       getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_unknownStepAction(state.getAction()));
-    } catch (CloudManagerApiException e) {
-      getContext().onFailure(e);
     }
   }
 
-  private PipelineExecutionStepState.Status logStepAction(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state) throws IOException, InterruptedException {
+  // Completes an automatic approval, once the API call finishes.
+  private void autoApproved(Throwable t) {
+    if (t != null) {
+      onFailure(CloudManagerApiUtil.unwrap(t));
+      return;
+    }
+    doFinish();
+    try {
+      getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_autoApprove());
+    } catch (IOException | InterruptedException e) {
+      onFailure(e);
+    }
+  }
+
+  private PipelineExecutionStepState.Status logStepAction(@Nonnull PipelineExecution pe, @Nonnull PipelineExecutionStepState state, long time) throws IOException, InterruptedException {
     StepAction action = StepAction.valueOf(state.getAction());
     PipelineExecutionStepState.Status status = state.getStatusState();
     getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_occurred(pe.getId(), action, status));
-    getBuildData().addStep(new CloudManagerBuildAction.PipelineStep(action, status, isHasLogs(state, status)));
+    CloudManagerBuildAction.PipelineStep step = new CloudManagerBuildAction.PipelineStep(action, status, isHasLogs(state, status));
+    if (status == RUNNING) {
+      step.setStarted(time);
+    } else {
+      step.setEnded(time);
+    }
+    getBuildData().addStep(getRun(), step);
+    RunSaver.save(getRun());
     return status;
   }
 
@@ -262,11 +315,11 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
     try {
       preCancelCheck();
       CloudManagerPipelineExecution cmExecution = getRun().getAction(CloudManagerBuildAction.class).getCmExecution();
-      getApi().cancelExecution(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
+      getApi(HIGH).cancelExecution(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
       doFinish();
     } catch (CloudManagerApiException e) {
       doFinish();
-      getContext().onFailure(e);
+      onFailure(e);
     }
     return HttpResponses.redirectTo("../..");
   }
@@ -282,7 +335,7 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
     // This may be blocking VM threads....
     getTaskListener().getLogger().println(Messages.PipelineStepStateExecution_endQuietly());
     doFinish();
-    getContext().onSuccess(null);
+    onSuccess(null);
   }
 
   // Process the request to complete the wait event as "successful."
@@ -294,13 +347,14 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
 
     try {
       preApproveCheck();
-      approveStep();
+      // User is waiting on the response.
+      CloudManagerApiUtil.await(approveStep());
       run.addAction(new PipelineStepDecisionAction(userId, reason, PipelineStepDecisionAction.Decision.APPROVED));
       listener.getLogger().println(Messages.PipelineStepStateExecution_approvedBy(userId));
       doFinish();
-    } catch (AbortException | CloudManagerApiException e) {
+    } catch (AbortException | CloudManagerApiException | ApiUnavailableException e) {
       doFinish();
-      getContext().onFailure(e);
+      onFailure(e);
     }
     return HttpResponses.redirectTo("../..");
   }
@@ -357,9 +411,13 @@ public class PipelineStepStateExecution extends AbstractStepExecution {
   }
 
   // Advance the step.
-  private void approveStep() throws IOException, InterruptedException, CloudManagerApiException {
+  private CompletableFuture<Void> approveStep() throws IOException, InterruptedException {
     CloudManagerPipelineExecution cmExecution = getRun().getAction(CloudManagerBuildAction.class).getCmExecution();
-    getApi().advanceExecution(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
+    CloudManagerApi api = getApi(HIGH);
+    return CloudManagerApiUtil.supplyAsync(() -> {
+      api.advanceExecution(cmExecution.getProgramId(), cmExecution.getPipelineId(), cmExecution.getExecutionId());
+      return null;
+    });
   }
 
   // Clean up this when done. Regardless of result.
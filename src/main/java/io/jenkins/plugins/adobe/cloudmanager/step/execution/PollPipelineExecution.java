@@ -37,7 +37,10 @@ import io.adobe.cloudmanager.CloudManagerApi;
 import io.adobe.cloudmanager.CloudManagerApiException;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
 import jenkins.util.Timer;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 
@@ -48,10 +51,15 @@ import org.jenkinsci.plugins.workflow.steps.StepContext;
 public class PollPipelineExecution extends AbstractStepExecution {
 
   private static final long serialVersionUID = 1L;
+  // Most the period is doubled, while Cloud Manager is unavailable.
+  private static final int MAX_BACKOFF_DOUBLINGS = 3;
 
   private final long recurrencePeriod;
   private final boolean quiet;
   protected transient volatile ScheduledFuture<?> task;
+  private transient volatile boolean stopped;
+  // Consecutive checks which found Cloud Manager unavailable.
+  private transient int unavailable;
 
   public PollPipelineExecution(StepContext context, long recurrencePeriod, boolean quiet) {
     super(context);
@@ -71,6 +79,7 @@ public class PollPipelineExecution extends AbstractStepExecution {
 
   @Override
   public void doStop() throws Exception {
+    stopped = true;
     if (task != null) {
       task.cancel(true);
       task = null;
@@ -78,25 +87,53 @@ public class PollPipelineExecution extends AbstractStepExecution {
   }
 
   protected void createTask() {
-    task = Timer.get().scheduleWithFixedDelay(() -> {
+    schedule(0);
+  }
+
+  // Timer only keeps time, the check itself waits on Cloud Manager so runs on the Cloud Manager executor.
+  // Each check schedules the next, so they never overlap.
+  private void schedule(long delay) {
+    if (!stopped) {
+      task = Timer.get().schedule(() -> CloudManagerExecutors.get().execute(this::check), delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void check() {
+    if (stopped) {
+      return;
+    }
+    try {
+      AdobeIOProjectConfig aioProject = getAioProject();
+      boolean complete = checkExecution(aioProject.getName());
+      unavailable = 0;
+      if (complete) {
+        task = null;
+        onSuccess(null);
+      } else {
+        schedule(recurrencePeriod);
+      }
+    } catch (ApiUnavailableException e) {
+      // Try again later, backing off while it stays unavailable.
+      long delay = recurrencePeriod << Math.min(unavailable++, MAX_BACKOFF_DOUBLINGS);
       try {
-        AdobeIOProjectConfig aioProject = getAioProject();
-        if (checkExecution(aioProject.getName())) {
-          task.cancel(true);
-          task = null;
-          getContext().onSuccess(null);
-        }
-      } catch (IOException | InterruptedException e) {
-        task.cancel(true);
+        getContext().get(TaskListener.class).getLogger().println(Messages.PollPipelineExecution_unavailable(e.getLocalizedMessage(), Util.getTimeSpanString(delay)));
+      } catch (IOException | InterruptedException ex) {
         task = null;
-        getContext().onFailure(e);
+        onFailure(ex);
+        return;
       }
-    }, 0, recurrencePeriod, TimeUnit.MILLISECONDS);
+      schedule(delay);
+    } catch (IOException | InterruptedException e) {
+      task = null;
+      onFailure(e);
+    }
   }
 
   private boolean checkExecution(String aioProjectName) throws AbortException {
     try {
       CloudManagerApi api = CloudManagerApiUtil.createApi().apply(aioProjectName).orElseThrow(() -> new AbortException(Messages.AbstractStepExecution_error_missingBuildData()));
+      // Polling is the least urgent caller, it simply checks again later.
+      api = CloudManagerApiUtil.withPriority(api, ApiRateLimiter.Priority.LOW);
       CloudManagerPipelineExecution execution = getBuildData().getCmExecution();
       if (api.isExecutionRunning(execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId())) {
         if (!quiet) {
@@ -105,7 +142,7 @@ public class PollPipelineExecution extends AbstractStepExecution {
         return false;
       }
       getContext().get(TaskListener.class).getLogger().println(Messages.PollPipelineExecution_complete());
-    } catch (AbortException e) {
+    } catch (AbortException | ApiUnavailableException e) {
       throw e;
     } catch (CloudManagerApiException e) {
       throw new AbortException(Messages.PollPipelineExecution_error_CloudManagerApiException(e.getLocalizedMessage()));
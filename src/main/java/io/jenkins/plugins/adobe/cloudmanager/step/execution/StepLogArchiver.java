@@ -0,0 +1,220 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.StreamBuildListener;
+import hudson.model.TaskListener;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiCircuitBreaker;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
+import io.jenkins.plugins.adobe.cloudmanager.util.StepLogDownloads;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Archives the logs of a Cloud Manager execution's steps as artifacts of the run.
+ * <p>
+ *   A fixed number of workers share the list of logs, so concurrency is bounded regardless of how many there are.
+ *   Each download is compressed to disk as it arrives, then all are attached through the run's artifact manager.
+ * </p>
+ */
+final class StepLogArchiver {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StepLogArchiver.class);
+
+  // Maximum number of logs downloaded at once.
+  static final int CONCURRENCY = Math.max(1, SystemProperties.getInteger(StepLogArchiver.class.getName() + ".concurrency", 4));
+  static final String ARTIFACT_DIR = "cloud-manager-logs";
+  private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+  private final Run<?, ?> run;
+  private final CloudManagerPipelineExecution execution;
+  private final CloudManagerApi api;
+  private final TaskListener listener;
+
+  StepLogArchiver(@Nonnull Run<?, ?> run, @Nonnull CloudManagerPipelineExecution execution, @Nonnull CloudManagerApi api, @Nonnull TaskListener listener) {
+    this.run = run;
+    this.execution = execution;
+    this.api = api;
+    this.listener = listener;
+  }
+
+  /**
+   * Relative path of the artifact for the step's log. An action's later steps, such as production's deploy after
+   * stage's, are numbered.
+   */
+  @Nonnull
+  static String artifactPath(@Nonnull String executionId, @Nonnull Log log) {
+    String name = log.getOccurrence() == 0 ? log.getAction().name() : log.getAction().name() + "-" + (log.getOccurrence() + 1);
+    return String.format("%s/%s/%s.log.gz", ARTIFACT_DIR, executionId, name);
+  }
+
+  /**
+   * Download and archive the logs of the steps. Completes with the number of logs archived; failure of an individual
+   * download is reported to the console but does not fail the others.
+   */
+  @Nonnull
+  CompletableFuture<Integer> archive(@Nonnull Collection<Log> logs) {
+    if (logs.isEmpty()) {
+      return CompletableFuture.completedFuture(0);
+    }
+    Path dir;
+    try {
+      dir = Files.createTempDirectory("cloud-manager-logs");
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    Queue<Log> pending = new ConcurrentLinkedQueue<>(logs);
+    Map<String, String> artifacts = new ConcurrentHashMap<>();
+    CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(CONCURRENCY, logs.size())];
+    long deadline = System.currentTimeMillis() + ApiCircuitBreaker.get().getMaxWait();
+    for (int i = 0; i < workers.length; i++) {
+      CompletableFuture<Void> worker = new CompletableFuture<>();
+      workers[i] = worker;
+      CloudManagerExecutors.get().execute(() -> drain(pending, dir, artifacts, worker, 0, deadline));
+    }
+    return CompletableFuture.allOf(workers).thenApply((v) -> {
+      attach(dir, artifacts);
+      return artifacts.size();
+    }).whenComplete((count, t) -> FileUtils.deleteQuietly(dir.toFile()));
+  }
+
+  // While Cloud Manager is unavailable, the worker puts the log back and continues after a backoff, rather than waiting
+  // on the executor.
+  private void drain(Queue<Log> pending, Path dir, Map<String, String> artifacts, CompletableFuture<Void> worker, int attempts, long deadline) {
+    try {
+      Log log;
+      while ((log = pending.poll()) != null) {
+        String path = artifactPath(execution.getExecutionId(), log);
+        StepAction action = log.getAction();
+        try {
+          if (download(action, dir.resolve(path))) {
+            artifacts.put(path, path);
+          }
+        } catch (ApiUnavailableException e) {
+          long delay = ApiCircuitBreaker.backoff(attempts + 1);
+          if (System.currentTimeMillis() + delay <= deadline) {
+            pending.add(log);
+            Timer.get().schedule(() -> CloudManagerExecutors.get().execute(() -> drain(pending, dir, artifacts, worker, attempts + 1, deadline)),
+                delay, TimeUnit.MILLISECONDS);
+            return;
+          }
+          LOGGER.debug(Messages.StepLogArchiver_error_download(action, e.getLocalizedMessage()), e);
+          listener.getLogger().println(Messages.StepLogArchiver_error_download(action, e.getLocalizedMessage()));
+        } catch (CloudManagerApiException | IOException e) {
+          LOGGER.debug(Messages.StepLogArchiver_error_download(action, e.getLocalizedMessage()), e);
+          listener.getLogger().println(Messages.StepLogArchiver_error_download(action, e.getLocalizedMessage()));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      worker.complete(null);
+    } catch (Throwable t) {
+      worker.completeExceptionally(t);
+    }
+  }
+
+  private boolean download(StepAction action, Path file) throws CloudManagerApiException, IOException, InterruptedException {
+    String url = StepLogs.url(execution, action, api);
+    if (url == null) {
+      listener.getLogger().println(Messages.StepLogArchiver_error_download(action, Messages.StepLogArchiver_error_noUrl()));
+      return false;
+    }
+    HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT).GET().build();
+    HttpResponse<InputStream> response = StepLogDownloads.client().send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream in = response.body()) {
+      if (response.statusCode() != 200) {
+        listener.getLogger().println(Messages.StepLogArchiver_error_download(action, Messages.StepLogArchiver_error_status(response.statusCode())));
+        return false;
+      }
+      Files.createDirectories(file.getParent());
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+        IOUtils.copyLarge(in, out);
+      }
+    }
+    return true;
+  }
+
+  private void attach(Path dir, Map<String, String> artifacts) {
+    if (artifacts.isEmpty()) {
+      return;
+    }
+    try {
+      run.pickArtifactManager().archive(new FilePath(dir.toFile()), new Launcher.LocalLauncher(listener),
+          new StreamBuildListener(listener.getLogger(), StandardCharsets.UTF_8), artifacts);
+    } catch (IOException e) {
+      throw new CompletionException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    }
+  }
+
+  /**
+   * A step's log: its action, and which time round that action is.
+   */
+  @Value
+  static class Log {
+    StepAction action;
+    int occurrence;
+  }
+}
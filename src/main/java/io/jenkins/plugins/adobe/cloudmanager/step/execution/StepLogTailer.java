@@ -0,0 +1,224 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.IOUtils;
+
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
+import io.jenkins.plugins.adobe.cloudmanager.util.StepLogDownloads;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams a running Cloud Manager step's log into the console.
+ * <p>
+ *   The log is fetched periodically, requesting only the bytes after those already written. Content is copied straight
+ *   to the console, a buffer at a time, so logs are never held in memory. Each line is prefixed with the step's action.
+ * </p>
+ */
+final class StepLogTailer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StepLogTailer.class);
+
+  // The steps which have logs.
+  static final Set<StepAction> ACTIONS = Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(StepAction.build, StepAction.codeQuality, StepAction.deploy)));
+  // Time between fetches of the log.
+  static final long INTERVAL = SystemProperties.getLong(StepLogTailer.class.getName() + ".interval", TimeUnit.SECONDS.toMillis(15));
+  private static final Duration TIMEOUT = Duration.ofMinutes(1);
+  private static final int BUFFER_SIZE = 8192;
+
+  private final CloudManagerPipelineExecution execution;
+  private final StepAction action;
+  private final CloudManagerApi api;
+  private final PrintStream out;
+  private final LongConsumer progress;
+  private final byte[] prefix;
+  // Only one fetch at a time; not synchronized, as fetches block on I/O.
+  private final ReentrantLock lock = new ReentrantLock();
+  private volatile long offset;
+  private volatile boolean done;
+  private volatile ScheduledFuture<?> next;
+  // Whether the next byte written starts a line; kept between fetches, guarded by the lock.
+  private boolean lineStart = true;
+
+  StepLogTailer(@Nonnull CloudManagerPipelineExecution execution, @Nonnull StepAction action, @Nonnull CloudManagerApi api,
+                @Nonnull PrintStream out, long offset, @Nonnull LongConsumer progress) {
+    this.execution = execution;
+    this.action = action;
+    this.api = api;
+    this.out = out;
+    this.offset = offset;
+    this.progress = progress;
+    this.prefix = String.format("[%s] ", action).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Start periodically fetching the log.
+   */
+  void start() {
+    schedule();
+  }
+
+  /**
+   * The step has ended: write the rest of the log, and stop. Blocks until the log is written, so never call on the CPS VM thread.
+   */
+  void finish() {
+    cancel();
+    fetch();
+    lock.lock();
+    try {
+      // Only now is a last line without a newline complete.
+      if (!lineStart) {
+        out.write('\n');
+        lineStart = true;
+        out.flush();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stop fetching the log, without writing any more.
+   */
+  void cancel() {
+    done = true;
+    ScheduledFuture<?> scheduled = next;
+    if (scheduled != null) {
+      scheduled.cancel(false);
+    }
+  }
+
+  private void schedule() {
+    if (!done) {
+      next = Timer.get().schedule(() -> CloudManagerExecutors.get().submit(this::poll), INTERVAL, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void poll() {
+    if (done) {
+      return;
+    }
+    fetch();
+    schedule();
+  }
+
+  // Fetch everything after what's already been written; failures are retried on the next fetch.
+  void fetch() {
+    lock.lock();
+    try {
+      String url = StepLogs.url(execution, action, api);
+      if (url == null) {
+        return;
+      }
+      HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+          .header("Range", "bytes=" + offset + "-")
+          .timeout(TIMEOUT)
+          .GET()
+          .build();
+      HttpResponse<InputStream> response = StepLogDownloads.client().send(request, HttpResponse.BodyHandlers.ofInputStream());
+      try (InputStream in = response.body()) {
+        switch (response.statusCode()) {
+          case 206:
+            copy(in);
+            break;
+          case 200:
+            // Range not supported, skip what's already been written.
+            if (IOUtils.skip(in, offset) == offset) {
+              copy(in);
+            }
+            break;
+          default:
+            // Nothing new yet, or the log isn't available yet.
+            LOGGER.debug(Messages.StepLogTailer_debug_status(action, response.statusCode()));
+        }
+      }
+    } catch (CloudManagerApiException | IOException | ApiUnavailableException e) {
+      LOGGER.debug(Messages.StepLogTailer_debug_fetch(action, e.getLocalizedMessage()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void copy(InputStream in) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      write(buffer, read);
+      offset += read;
+    }
+    // A fetch may end part way through a line; the next one carries on with it, unprefixed.
+    out.flush();
+    progress.accept(offset);
+  }
+
+  // Write the bytes, prefixing each line.
+  private void write(byte[] buffer, int length) {
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      if (lineStart) {
+        out.write(prefix, 0, prefix.length);
+        lineStart = false;
+      }
+      if (buffer[i] == '\n') {
+        out.write(buffer, start, i - start + 1);
+        start = i + 1;
+        lineStart = true;
+      }
+    }
+    if (start < length) {
+      out.write(buffer, start, length - start);
+    }
+  }
+}
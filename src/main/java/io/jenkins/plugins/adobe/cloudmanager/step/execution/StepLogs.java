@@ -0,0 +1,64 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.StepLogDownloads;
+
+/**
+ * Helpers for downloading the logs of Cloud Manager steps.
+ */
+final class StepLogs {
+
+  // Code quality's log is in a separate file; the default file is its results.
+  private static final String SONAR_LOG = "sonarLogFile";
+
+  private StepLogs() {
+  }
+
+  /**
+   * The name of the step's log file, or null for the default.
+   */
+  @CheckForNull
+  static String fileName(@Nonnull StepAction action) {
+    return action == StepAction.codeQuality ? SONAR_LOG : null;
+  }
+
+  /**
+   * Get the signed download URL of the step's log, from the cache if possible.
+   */
+  @CheckForNull
+  static String url(@Nonnull CloudManagerPipelineExecution execution, @Nonnull StepAction action, @Nonnull CloudManagerApi api) throws CloudManagerApiException, InterruptedException {
+    return StepLogDownloads.url(execution, action.name(), fileName(action), api);
+  }
+}
@@ -26,24 +26,26 @@ package io.jenkins.plugins.adobe.cloudmanager.trigger;
  * #L%
  */
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 import org.apache.commons.lang3.StringUtils;
 
-import hudson.AbortException;
 import hudson.Extension;
+import hudson.model.Action;
 import hudson.model.CauseAction;
 import hudson.model.Item;
 import hudson.model.Job;
 import hudson.triggers.Trigger;
 import hudson.triggers.TriggerDescriptor;
 import hudson.util.ListBoxModel;
-import io.adobe.cloudmanager.CloudManagerApi;
 import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
-import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import io.jenkins.plugins.adobe.cloudmanager.util.DescriptorHelper;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.InterestRegistry;
 import jenkins.model.ParameterizedJobMixIn;
 import lombok.Getter;
 import org.jenkinsci.Symbol;
@@ -63,13 +65,21 @@ public class PipelineStartTrigger extends Trigger<Job<?, ?>> {
   @Getter
   private final String pipeline;
 
-  @DataBoundConstructor
-  public PipelineStartTrigger(String aioProject, String program, String pipeline) throws AbortException {
+  // Ids of a program or pipeline configured by name, resolved in the background by the TriggerIdResolver.
+  private transient volatile String programId;
+  private transient volatile String pipelineId;
+  private transient volatile String failure;
+  private transient volatile boolean stopped;
 
-    CloudManagerApi api = createApi(aioProject);
+  /**
+   * Create the trigger. Programs and Pipelines can be specified as an Id or Name; names are resolved once the trigger is
+   * started, without holding up the job's load or configuration.
+   */
+  @DataBoundConstructor
+  public PipelineStartTrigger(String aioProject, String program, String pipeline) {
     this.aioProject = aioProject;
-    this.program = getProgramId(api, program);
-    this.pipeline = getPipelineId(api, this.program, pipeline);
+    this.program = program;
+    this.pipeline = pipeline;
   }
 
   /**
@@ -82,42 +92,91 @@ public class PipelineStartTrigger extends Trigger<Job<?, ?>> {
         StringUtils.equals(trigger.getPipelineId(), event.getPipelineId());
   }
 
+  public String getAioProject() {
+    return aioProject;
+  }
 
-  @Nonnull
-  private static CloudManagerApi createApi(String aioProject) throws AbortException {
-    return CloudManagerApiUtil.createApi().apply(aioProject).orElseThrow(() -> new AbortException(Messages.PipelineStartTrigger_error_missingAioProject(aioProject)));
+  /**
+   * The Program Id, or {@code null} if the Program was configured by name which hasn't been resolved yet.
+   */
+  @CheckForNull
+  public String getProgramId() {
+    String id = programId;
+    return id != null ? id : TriggerIdResolver.toId(program);
   }
 
+  /**
+   * The Pipeline Id, or {@code null} if the Pipeline was configured by name which hasn't been resolved yet.
+   */
+  @CheckForNull
+  public String getPipelineId() {
+    String id = pipelineId;
+    return id != null ? id : TriggerIdResolver.toId(pipeline);
+  }
+
+  /**
+   * Whether the trigger is ready to start its job, or still waiting on its Program and Pipeline to be resolved.
+   */
   @Nonnull
-  private static String getProgramId(CloudManagerApi api, String program) throws AbortException {
-    try {
-      return String.valueOf(Integer.parseInt(program));
-    } catch (NumberFormatException e) {
-      LOGGER.debug(Messages.PipelineStartTrigger_debug_lookupProgramId(program));
-      return CloudManagerApiUtil.getProgramId(api, program).orElseThrow(() -> new AbortException(Messages.PipelineStartTrigger_error_missingProgram(program)));
+  public Status getStatus() {
+    if (getProgramId() != null && getPipelineId() != null) {
+      return Status.READY;
     }
+    return failure == null ? Status.PENDING : Status.FAILED;
   }
 
-  @Nonnull
-  private static String getPipelineId(CloudManagerApi api, String programId, String pipeline) throws AbortException {
-    try {
-      return String.valueOf(Integer.parseInt(pipeline));
-    } catch (NumberFormatException e) {
-      LOGGER.debug(Messages.PipelineStartTrigger_debug_lookupPipelineId(programId));
-      return CloudManagerApiUtil.getPipelineId(api, programId, pipeline).orElseThrow(() -> new AbortException(Messages.PipelineStartTrigger_error_missingPipeline(pipeline)));
+  /**
+   * Why the Program or Pipeline could not be resolved, the last time it was tried.
+   */
+  @CheckForNull
+  public String getFailure() {
+    return failure;
+  }
+
+  /**
+   * Registers interest in start events for the configured pipeline, once its ids are known.
+   */
+  @Override
+  public void start(Job<?, ?> project, boolean newInstance) {
+    super.start(project, newInstance);
+    stopped = false;
+    if (getStatus() == Status.READY) {
+      InterestRegistry.get().registerPipeline(project.getFullName(), getProgramId(), getPipelineId());
+    } else {
+      TriggerIdResolver.get().request(this);
     }
   }
 
-  public String getAioProject() {
-    return aioProject;
+  @Override
+  public void stop() {
+    stopped = true;
+    TriggerIdResolver.get().cancel(this);
+    if (job != null && getStatus() == Status.READY) {
+      InterestRegistry.get().unregisterPipeline(job.getFullName(), getProgramId(), getPipelineId());
+    }
+    super.stop();
   }
 
-  public String getProgramId() {
-    return program;
+  @Nonnull
+  @Override
+  public Collection<? extends Action> getProjectActions() {
+    return Collections.singletonList(new PipelineStartTriggerAction(this));
   }
 
-  public String getPipelineId() {
-    return pipeline;
+  // Called by the resolver when the names have been resolved.
+  void resolved(@Nonnull String programId, @Nonnull String pipelineId) {
+    this.programId = programId;
+    this.pipelineId = pipelineId;
+    this.failure = null;
+    Job<?, ?> project = job;
+    if (project != null && !stopped) {
+      InterestRegistry.get().registerPipeline(project.getFullName(), programId, pipelineId);
+    }
+  }
+
+  // Called by the resolver when the names could not be resolved; they'll be tried again.
+  void failed(@Nonnull String failure) {
+    this.failure = failure;
   }
 
   public void onEvent(PipelineStartEvent event) {
@@ -135,6 +194,13 @@ public class PipelineStartTrigger extends Trigger<Job<?, ?>> {
     ((ParameterizedJobMixIn.ParameterizedJob) job).scheduleBuild2(0, ca, buildAction);
   }
 
+  /**
+   * Readiness of a trigger.
+   */
+  public enum Status {
+    PENDING, READY, FAILED
+  }
+
   @Extension
   @Symbol("acmPipelineStart")
   public static final class DescriptorImpl extends TriggerDescriptor {
@@ -0,0 +1,281 @@
+package io.jenkins.plugins.adobe.cloudmanager.trigger;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.AbortException;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.Pipeline;
+import io.adobe.cloudmanager.Program;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the program and pipeline names of {@link PipelineStartTrigger}s to ids, in the background.
+ * <p>
+ *   Triggers which are started close together, such as when Jenkins loads its jobs or configuration is reloaded, are resolved
+ *   in one pass: each Adobe IO Project's programs are listed once, and each program's pipelines once. Listings are cached,
+ *   so reloads don't call Cloud Manager again. Triggers which can't be resolved are retried by later passes, which list again
+ *   the programs or pipelines a name was missing from.
+ * </p>
+ */
+final class TriggerIdResolver {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TriggerIdResolver.class);
+
+  // How long to wait for more triggers to start before resolving them.
+  static final long DELAY = SystemProperties.getLong(TriggerIdResolver.class.getName() + ".delay", TimeUnit.SECONDS.toMillis(5));
+  // How long to wait before retrying triggers which couldn't be resolved.
+  static final long RETRY = SystemProperties.getLong(TriggerIdResolver.class.getName() + ".retry", TimeUnit.MINUTES.toMillis(5));
+  // How long listings of programs and pipelines are used before they're listed again.
+  static final long TTL = SystemProperties.getLong(TriggerIdResolver.class.getName() + ".ttl", TimeUnit.HOURS.toMillis(1));
+
+  private static final TriggerIdResolver INSTANCE = new TriggerIdResolver(System::currentTimeMillis);
+
+  // AIO Project -> Program names, and AIO Project/Program Id -> Pipeline names.
+  private final Map<String, Names> programs = new ConcurrentHashMap<>();
+  private final Map<String, Names> pipelines = new ConcurrentHashMap<>();
+  private final LongSupplier clock;
+  // Guarded by this.
+  private final Set<PipelineStartTrigger> pending = new LinkedHashSet<>();
+  private ScheduledFuture<?> pass;
+
+  TriggerIdResolver(@Nonnull LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Nonnull
+  static TriggerIdResolver get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Queue the trigger to be resolved by the next pass.
+   */
+  synchronized void request(@Nonnull PipelineStartTrigger trigger) {
+    pending.add(trigger);
+    schedule(DELAY);
+  }
+
+  /**
+   * Remove the trigger from the queue, as it has been stopped.
+   */
+  synchronized void cancel(@Nonnull PipelineStartTrigger trigger) {
+    pending.remove(trigger);
+  }
+
+  /**
+   * Forget all listings, so the next pass lists programs and pipelines again.
+   */
+  void invalidate() {
+    programs.clear();
+    pipelines.clear();
+  }
+
+  // Timer only keeps time, the pass itself waits on Cloud Manager so runs on the Cloud Manager executor.
+  // Newly started triggers bring forward a pass which is only waiting to retry.
+  private synchronized void schedule(long delay) {
+    if (pass != null) {
+      if (pass.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+        return;
+      }
+      pass.cancel(false);
+    }
+    pass = Timer.get().schedule(() -> CloudManagerExecutors.get().execute(this::run), delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void run() {
+    List<PipelineStartTrigger> triggers;
+    synchronized (this) {
+      triggers = new ArrayList<>(pending);
+      pending.clear();
+      pass = null;
+    }
+    List<PipelineStartTrigger> failed = resolve(triggers);
+    if (!failed.isEmpty()) {
+      synchronized (this) {
+        pending.addAll(failed);
+        schedule(RETRY);
+      }
+    }
+  }
+
+  /**
+   * Resolve the triggers, returning those which could not be.
+   */
+  @Nonnull
+  List<PipelineStartTrigger> resolve(@Nonnull Collection<PipelineStartTrigger> triggers) {
+    Map<String, List<PipelineStartTrigger>> byProject = new LinkedHashMap<>();
+    for (PipelineStartTrigger trigger : triggers) {
+      byProject.computeIfAbsent(trigger.getAioProject(), k -> new ArrayList<>()).add(trigger);
+    }
+    List<PipelineStartTrigger> failed = new ArrayList<>();
+    for (Map.Entry<String, List<PipelineStartTrigger>> entry : byProject.entrySet()) {
+      Lookup lookup = new Lookup(entry.getKey());
+      for (PipelineStartTrigger trigger : entry.getValue()) {
+        try {
+          String programId = lookup.programId(trigger.getProgram());
+          trigger.resolved(programId, lookup.pipelineId(programId, trigger.getPipeline()));
+        } catch (AbortException | CloudManagerApiException | RuntimeException e) {
+          // Runtime exceptions include the API being unavailable, which should be retried like any other failure.
+          LOGGER.warn(Messages.TriggerIdResolver_warning_failed(trigger.getProgram(), trigger.getPipeline(), e.getLocalizedMessage()));
+          trigger.failed(e.getLocalizedMessage());
+          failed.add(trigger);
+        }
+      }
+    }
+    return failed;
+  }
+
+  // Programs and Pipelines can be specified as an Id or Name.
+  @CheckForNull
+  static String toId(@CheckForNull String value) {
+    try {
+      return String.valueOf(Integer.parseInt(value));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  @CheckForNull
+  private Names cached(Map<String, Names> cache, String key) {
+    Names names = cache.get(key);
+    return names == null || names.expires <= clock.getAsLong() ? null : names;
+  }
+
+  // Resolves the names of one AIO Project, creating its API only if something isn't cached, and failing the same way for every
+  // trigger of the project if it can't be created.
+  private final class Lookup {
+
+    private final String aioProject;
+    // Listings used by this pass, which stay in use for its other triggers once evicted from the cache.
+    private Names programList;
+    private final Map<String, Names> pipelineLists = new HashMap<>();
+    private CloudManagerApi api;
+    private AbortException unavailable;
+
+    private Lookup(String aioProject) {
+      this.aioProject = aioProject;
+    }
+
+    private CloudManagerApi api() throws AbortException {
+      if (unavailable != null) {
+        throw unavailable;
+      }
+      if (api == null) {
+        api = CloudManagerApiUtil.createApi().apply(aioProject)
+            .map(a -> CloudManagerApiUtil.withPriority(a, ApiRateLimiter.Priority.LOW))
+            .orElse(null);
+        if (api == null) {
+          unavailable = new AbortException(Messages.PipelineStartTrigger_error_missingAioProject(aioProject));
+          throw unavailable;
+        }
+      }
+      return api;
+    }
+
+    private String programId(String program) throws AbortException, CloudManagerApiException {
+      String id = toId(program);
+      if (id != null) {
+        return id;
+      }
+      if (programList == null) {
+        programList = cached(programs, aioProject);
+      }
+      if (programList == null) {
+        LOGGER.debug(Messages.PipelineStartTrigger_debug_lookupProgramId(program));
+        Map<String, String> ids = new HashMap<>();
+        for (Program p : api().listPrograms()) {
+          ids.putIfAbsent(p.getName(), p.getId());
+        }
+        programList = new Names(Collections.unmodifiableMap(ids), clock.getAsLong() + TTL);
+        programs.put(aioProject, programList);
+      }
+      id = programList.ids.get(program);
+      if (id == null) {
+        // The program may have been created since it was listed, the retry lists them again.
+        programs.remove(aioProject, programList);
+        throw new AbortException(Messages.PipelineStartTrigger_error_missingProgram(program));
+      }
+      return id;
+    }
+
+    private String pipelineId(String programId, String pipeline) throws AbortException, CloudManagerApiException {
+      String id = toId(pipeline);
+      if (id != null) {
+        return id;
+      }
+      String key = aioProject + "/" + programId;
+      Names names = pipelineLists.computeIfAbsent(key, k -> cached(pipelines, k));
+      if (names == null) {
+        LOGGER.debug(Messages.PipelineStartTrigger_debug_lookupPipelineId(pipeline));
+        Map<String, String> ids = new HashMap<>();
+        for (Pipeline p : api().listPipelines(programId)) {
+          ids.putIfAbsent(p.getName(), p.getId());
+        }
+        names = new Names(Collections.unmodifiableMap(ids), clock.getAsLong() + TTL);
+        pipelineLists.put(key, names);
+        pipelines.put(key, names);
+      }
+      id = names.ids.get(pipeline);
+      if (id == null) {
+        // The pipeline may have been created since it was listed, the retry lists them again.
+        pipelines.remove(key, names);
+        throw new AbortException(Messages.PipelineStartTrigger_error_missingPipeline(pipeline));
+      }
+      return id;
+    }
+  }
+
+  @Value
+  private static class Names {
+    Map<String, String> ids;
+    long expires;
+  }
+}
@@ -0,0 +1,284 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker and bulkhead for Cloud Manager API calls, one of each per IMS Organization.
+ * <p>
+ *   After enough consecutive failures the circuit opens and calls are not attempted until it has been open for a while.
+ *   A single probe call is then let through: if it succeeds the circuit closes, otherwise it opens again. Independently,
+ *   the bulkhead caps the number of calls in flight so a slow API cannot tie up every controller thread.
+ * </p>
+ * <p>
+ *   Callers which can't wait (e.g. UI requests) are rejected immediately; others back off until they are admitted.
+ *   Work on the {@link CloudManagerExecutors#isShared() shared executor} is always rejected immediately, so it doesn't
+ *   hold threads others are queued for; it reschedules itself after a {@link #backoff(int) backoff} instead.
+ * </p>
+ */
+public final class ApiCircuitBreaker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ApiCircuitBreaker.class);
+
+  // Consecutive failures which will open the circuit.
+  static final int FAILURE_THRESHOLD = SystemProperties.getInteger(ApiCircuitBreaker.class.getName() + ".failureThreshold", 5);
+  // How long the circuit stays open before a probe call is attempted.
+  static final long OPEN_DURATION = SystemProperties.getLong(ApiCircuitBreaker.class.getName() + ".openDuration", TimeUnit.SECONDS.toMillis(30));
+  // Maximum calls in flight to each organization.
+  static final int MAX_CONCURRENT = SystemProperties.getInteger(ApiCircuitBreaker.class.getName() + ".maxConcurrent", 8);
+  // Longest a waiting caller will back off, before giving up.
+  static final long MAX_WAIT = SystemProperties.getLong(ApiCircuitBreaker.class.getName() + ".maxWait", TimeUnit.MINUTES.toMillis(5));
+
+  private static final long INITIAL_BACKOFF = 500;
+  private static final long MAX_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+
+  private static final ApiCircuitBreaker INSTANCE = new ApiCircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION, MAX_CONCURRENT, MAX_WAIT);
+
+  private final int failureThreshold;
+  private final long openDuration;
+  private final int maxConcurrent;
+  private final long maxWait;
+  private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+  private final Map<State, AtomicLong> transitions = new EnumMap<>(State.class);
+  private final AtomicLong rejected = new AtomicLong();
+
+  ApiCircuitBreaker(int failureThreshold, long openDuration, int maxConcurrent, long maxWait) {
+    this.failureThreshold = Math.max(failureThreshold, 1);
+    this.openDuration = openDuration;
+    this.maxConcurrent = Math.max(maxConcurrent, 1);
+    this.maxWait = maxWait;
+    for (State state : State.values()) {
+      transitions.put(state, new AtomicLong());
+    }
+  }
+
+  /**
+   * Get the circuit breaker shared by all API clients.
+   */
+  @Nonnull
+  public static ApiCircuitBreaker get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Admit a call to the specified organization. The returned permit must be completed when the call finishes.
+   *
+   * @param failFast reject the call if it can't be made right away, rather than backing off until it can
+   * @throws ApiUnavailableException if the call was not admitted
+   */
+  @Nonnull
+  public Permit admit(@Nonnull String imsOrg, boolean failFast) throws InterruptedException {
+    Circuit circuit = circuits.computeIfAbsent(imsOrg, (k) -> new Circuit(imsOrg));
+    long deadline = System.currentTimeMillis() + maxWait;
+    long backoff = INITIAL_BACKOFF;
+    while (true) {
+      if (circuit.tryEnter()) {
+        if (circuit.bulkhead.tryAcquire(failFast ? 0 : backoff, TimeUnit.MILLISECONDS)) {
+          return new Permit(circuit);
+        }
+        circuit.abandon();
+      } else if (!failFast) {
+        Thread.sleep(Math.min(backoff, Math.max(deadline - System.currentTimeMillis(), 0)));
+      }
+      if (failFast || System.currentTimeMillis() >= deadline) {
+        rejected.incrementAndGet();
+        throw new ApiUnavailableException(Messages.ApiCircuitBreaker_error_unavailable(imsOrg, circuit.getState()));
+      }
+      LOGGER.debug(Messages.ApiCircuitBreaker_debug_backoff(imsOrg, circuit.getState(), backoff));
+      backoff = Math.min(backoff * 2, MAX_BACKOFF);
+    }
+  }
+
+  /**
+   * How long to wait before the specified attempt (starting at 1) at a call which was not admitted, when rescheduling
+   * rather than waiting in {@link #admit}.
+   */
+  public static long backoff(int attempt) {
+    return Math.min(INITIAL_BACKOFF << Math.min(Math.max(attempt - 1, 0), 16), MAX_BACKOFF);
+  }
+
+  /**
+   * Longest a caller backs off for, before giving up.
+   */
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  /**
+   * Current state of the circuit for the organization.
+   */
+  @Nonnull
+  public State getState(@Nonnull String imsOrg) {
+    Circuit circuit = circuits.get(imsOrg);
+    return circuit == null ? State.CLOSED : circuit.getState();
+  }
+
+  /**
+   * Number of circuits which are not closed.
+   */
+  public int getOpenCount() {
+    return (int) circuits.values().stream().filter((c) -> c.getState() != State.CLOSED).count();
+  }
+
+  /**
+   * Number of transitions into the specified state, across all organizations.
+   */
+  public long getTransitionCount(@Nonnull State state) {
+    return transitions.get(state).get();
+  }
+
+  /**
+   * Number of calls currently in flight, across all organizations.
+   */
+  public int getInFlight() {
+    return circuits.values().stream().mapToInt((c) -> maxConcurrent - c.bulkhead.availablePermits()).sum();
+  }
+
+  /**
+   * Number of calls which were rejected, across all organizations.
+   */
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /**
+   * An admitted call.
+   */
+  public static final class Permit {
+    private final Circuit circuit;
+    private boolean completed;
+
+    private Permit(Circuit circuit) {
+      this.circuit = circuit;
+    }
+
+    /**
+     * Record the outcome of the call and release its place in the bulkhead.
+     */
+    public synchronized void complete(boolean success) {
+      if (!completed) {
+        completed = true;
+        circuit.bulkhead.release();
+        circuit.record(success);
+      }
+    }
+
+    /**
+     * Release the place in the bulkhead without recording an outcome, the call was never made.
+     */
+    public synchronized void release() {
+      if (!completed) {
+        completed = true;
+        circuit.bulkhead.release();
+        circuit.abandon();
+      }
+    }
+  }
+
+  private final class Circuit {
+    private final String imsOrg;
+    private final Semaphore bulkhead = new Semaphore(maxConcurrent, true);
+    private State state = State.CLOSED;
+    private int failures;
+    private long openUntil;
+    private boolean probing;
+
+    Circuit(String imsOrg) {
+      this.imsOrg = imsOrg;
+    }
+
+    synchronized State getState() {
+      return state;
+    }
+
+    synchronized boolean tryEnter() {
+      switch (state) {
+        case OPEN:
+          if (System.currentTimeMillis() < openUntil) {
+            return false;
+          }
+          transition(State.HALF_OPEN);
+          probing = true;
+          return true;
+        case HALF_OPEN:
+          // Only one probe at a time.
+          if (probing) {
+            return false;
+          }
+          probing = true;
+          return true;
+        default:
+          return true;
+      }
+    }
+
+    synchronized void abandon() {
+      if (state == State.HALF_OPEN) {
+        probing = false;
+      }
+    }
+
+    synchronized void record(boolean success) {
+      if (success) {
+        failures = 0;
+        if (state != State.CLOSED) {
+          transition(State.CLOSED);
+        }
+      } else {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+          openUntil = System.currentTimeMillis() + openDuration;
+          transition(State.OPEN);
+        }
+      }
+      probing = false;
+    }
+
+    private void transition(State next) {
+      LOGGER.info(Messages.ApiCircuitBreaker_info_transition(imsOrg, state, next));
+      state = next;
+      transitions.get(next).incrementAndGet();
+    }
+  }
+}
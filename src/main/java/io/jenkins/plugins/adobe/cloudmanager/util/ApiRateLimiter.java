@@ -0,0 +1,205 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Token bucket rate limiter for Cloud Manager API calls, one bucket per IMS Organization.
+ * <p>
+ *   Callers which cannot get a token queue until one is available. Queued callers are served by {@link Priority}, so
+ *   user interactions are not stuck behind background work when the quota is exhausted.
+ * </p>
+ */
+public final class ApiRateLimiter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ApiRateLimiter.class);
+
+  // Sustained calls per second allowed for each organization.
+  static final int RATE = SystemProperties.getInteger(ApiRateLimiter.class.getName() + ".rate", 10);
+  // Number of calls which may be made in a burst, before being limited to the rate.
+  static final int BURST = SystemProperties.getInteger(ApiRateLimiter.class.getName() + ".burst", 20);
+
+  private static final ApiRateLimiter INSTANCE = new ApiRateLimiter(RATE, BURST);
+
+  private final double rate;
+  private final double burst;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  ApiRateLimiter(double rate, double burst) {
+    this.rate = Math.max(rate, 1);
+    this.burst = Math.max(burst, 1);
+  }
+
+  /**
+   * Get the limiter shared by all API clients.
+   */
+  @Nonnull
+  public static ApiRateLimiter get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Wait for, then take, a token for a call to the specified organization.
+   */
+  public void acquire(@Nonnull String imsOrg, @Nonnull Priority priority) throws InterruptedException {
+    buckets.computeIfAbsent(imsOrg, (k) -> new Bucket(rate, burst)).acquire(imsOrg, priority);
+  }
+
+  /**
+   * Number of callers waiting for a token, across all organizations.
+   */
+  public int getQueueDepth() {
+    return buckets.values().stream().mapToInt(Bucket::waiting).sum();
+  }
+
+  /**
+   * Number of callers of the specified priority waiting for a token, across all organizations.
+   */
+  public int getQueueDepth(@Nonnull Priority priority) {
+    return buckets.values().stream().mapToInt((b) -> b.waiting(priority)).sum();
+  }
+
+  /**
+   * Number of callers waiting for a token for the specified organization.
+   */
+  public int getQueueDepth(@Nonnull String imsOrg) {
+    Bucket bucket = buckets.get(imsOrg);
+    return bucket == null ? 0 : bucket.waiting();
+  }
+
+  /**
+   * Relative importance of API calls, in order from highest to lowest.
+   */
+  public enum Priority {
+    /**
+     * Calls made on behalf of a user waiting on the result, such as approving or cancelling a step.
+     */
+    HIGH,
+    /**
+     * Event processing, UI list fills and build steps.
+     */
+    NORMAL,
+    /**
+     * Background work such as polling, which can tolerate delay.
+     */
+    LOW
+  }
+
+  // Uses a lock rather than monitors, so virtual threads waiting on a token don't pin their carrier.
+  private static final class Bucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private final int[] waiting = new int[Priority.values().length];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private double tokens;
+    private long refilled;
+
+    Bucket(double rate, double capacity) {
+      this.tokensPerNano = rate / TimeUnit.SECONDS.toNanos(1);
+      this.capacity = capacity;
+      this.tokens = capacity;
+      this.refilled = System.nanoTime();
+    }
+
+    void acquire(String imsOrg, Priority priority) throws InterruptedException {
+      lock.lockInterruptibly();
+      try {
+        waiting[priority.ordinal()]++;
+        try {
+          boolean queued = false;
+          while (true) {
+            refill();
+            if (tokens >= 1 && !isPreempted(priority)) {
+              tokens--;
+              return;
+            }
+            if (!queued) {
+              queued = true;
+              LOGGER.debug(Messages.ApiRateLimiter_debug_queued(imsOrg, priority, waiting()));
+            }
+            // Wait for the next token; higher priority callers wake us up when they leave.
+            long nanos = tokens >= 1 ? TimeUnit.SECONDS.toNanos(1) : (long) Math.ceil((1 - tokens) / tokensPerNano);
+            changed.awaitNanos(Math.max(nanos, TimeUnit.MILLISECONDS.toNanos(1)));
+          }
+        } finally {
+          waiting[priority.ordinal()]--;
+          changed.signalAll();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int waiting() {
+      lock.lock();
+      try {
+        int total = 0;
+        for (int count : waiting) {
+          total += count;
+        }
+        return total;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int waiting(Priority priority) {
+      lock.lock();
+      try {
+        return waiting[priority.ordinal()];
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean isPreempted(Priority priority) {
+      for (int i = 0; i < priority.ordinal(); i++) {
+        if (waiting[i] > 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void refill() {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity, tokens + (now - refilled) * tokensPerNano);
+      refilled = now;
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Consumer;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.util.AtomicFileWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A file of records which is only appended to, until it's rewritten with just the records which are still current.
+ * <p>
+ *   Each record is a line of tab separated, URL encoded fields. Readers keep their own state, built by applying the
+ *   records in order, and only read what has been appended since they last read. Not thread safe, callers must hold
+ *   their own lock.
+ * </p>
+ */
+public final class AppendLog {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AppendLog.class);
+  private static final String SEPARATOR = "\t";
+
+  private final File file;
+  // Bytes of the file already read.
+  private long read;
+  // Records in the file, including superseded ones.
+  private int records;
+  // Bytes of the file whose records have been counted, whether read or appended.
+  private long counted;
+
+  public AppendLog(@Nonnull File file) {
+    this.file = file;
+  }
+
+  @Nonnull
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Number of records known to be in the file, read or appended.
+   */
+  public int getRecords() {
+    return records;
+  }
+
+  /**
+   * Indicates the file was replaced since it was last read, so readers must reset their state before reading it again.
+   */
+  public boolean isReplaced() {
+    return file.length() < read;
+  }
+
+  /**
+   * Apply the fields of each record appended since the last read, in order.
+   * <p>
+   *   Unreadable records, such as one partially written during an unclean shutdown, are skipped; the rest of the log is
+   *   still good.
+   * </p>
+   */
+  public void read(@Nonnull Consumer<String[]> apply) throws IOException {
+    if (!file.exists() || file.length() == read) {
+      return;
+    }
+    if (isReplaced()) {
+      read = 0;
+      records = 0;
+      counted = 0;
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      channel.position(read);
+      BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (read >= counted) {
+          records++;
+        }
+        // Records are URL encoded, so one character per byte.
+        read += line.length() + 1;
+        try {
+          apply.accept(line.split(SEPARATOR, -1));
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+          LOGGER.debug(Messages.AppendLog_debug_badRecord(file, line));
+        }
+      }
+    }
+    counted = Math.max(counted, read);
+  }
+
+  /**
+   * Append the record.
+   */
+  public void append(@Nonnull String record) throws IOException {
+    append(Collections.singletonList(record));
+  }
+
+  /**
+   * Append the records, in order.
+   * <p>
+   *   If others' records haven't been read yet, these are only counted once they're read along with them.
+   * </p>
+   */
+  public void append(@Nonnull Collection<String> records) throws IOException {
+    if (records.isEmpty()) {
+      return;
+    }
+    boolean count = counted == file.length();
+    StringBuilder lines = new StringBuilder();
+    for (String record : records) {
+      lines.append(record).append('\n');
+    }
+    try (OutputStream out = Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    if (count) {
+      this.records += records.size();
+      this.counted = file.length();
+    }
+  }
+
+  /**
+   * Replace the file with only the records, which must be the readers' current state.
+   */
+  public void rewrite(@Nonnull Collection<String> records) throws IOException {
+    AtomicFileWriter writer = new AtomicFileWriter(file.toPath(), StandardCharsets.UTF_8);
+    try {
+      for (String record : records) {
+        writer.write(record);
+        writer.write("\n");
+      }
+      writer.commit();
+    } finally {
+      writer.abort();
+    }
+    this.records = records.size();
+    this.read = file.length();
+    this.counted = read;
+  }
+
+  /**
+   * Join the fields into a record, they must already be encoded.
+   */
+  @Nonnull
+  public static String record(@Nonnull String... fields) {
+    return String.join(SEPARATOR, fields);
+  }
+
+  @Nonnull
+  public static String encode(@CheckForNull String value) {
+    return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  @Nonnull
+  public static String decode(@Nonnull String value) {
+    return URLDecoder.decode(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decode the field, if it's present and not empty.
+   */
+  @CheckForNull
+  public static String optional(@Nonnull String[] fields, int index) {
+    return fields.length > index && !fields[index].isEmpty() ? decode(fields[index]) : null;
+  }
+}
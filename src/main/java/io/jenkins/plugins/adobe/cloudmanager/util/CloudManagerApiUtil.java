@@ -27,6 +27,12 @@ package io.jenkins.plugins.adobe.cloudmanager.util;
  */
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 
@@ -36,6 +42,8 @@ import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.Pipeline;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +51,13 @@ public class CloudManagerApiUtil {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerApiUtil.class);
 
+  // Default time an async API call has to complete, including any time spent waiting on rate limits.
+  static final long TIMEOUT = SystemProperties.getLong(CloudManagerApiUtil.class.getName() + ".timeout", TimeUnit.MINUTES.toMillis(10));
+
+  /**
+   * Create an API for the named Adobe IO Project. Calls made with the API are guarded by a circuit breaker and rate limited per IMS Organization,
+   * at {@link ApiRateLimiter.Priority#NORMAL} priority unless changed using {@link #withPriority(CloudManagerApi, ApiRateLimiter.Priority)}.
+   */
   @Nonnull
   public static Function<String, Optional<CloudManagerApi>> createApi() {
     return (projectName) -> {
@@ -50,7 +65,8 @@ public class CloudManagerApiUtil {
       if (aioProject != null) {
         Secret token = aioProject.authenticate();
         if (token != null) {
-          return Optional.of(CloudManagerApi.create(aioProject.getImsOrganizationId(), aioProject.getClientId(), token.getPlainText()));
+          CloudManagerApi api = CloudManagerApi.create(aioProject.getImsOrganizationId(), aioProject.getClientId(), token.getPlainText());
+          return Optional.of(GuardedCloudManagerApi.wrap(api, aioProject.getImsOrganizationId(), ApiRateLimiter.Priority.NORMAL, false));
         }
       } else {
         LOGGER.error(Messages.CloudManagerApiUtil_error_missingAioProject(projectName));
@@ -59,6 +75,25 @@ public class CloudManagerApiUtil {
     };
   }
 
+  /**
+   * Get a view of the API which queues its calls at the specified priority.
+   */
+  @Nonnull
+  public static CloudManagerApi withPriority(@Nonnull CloudManagerApi api, @Nonnull ApiRateLimiter.Priority priority) {
+    return GuardedCloudManagerApi.withPriority(api, priority);
+  }
+
+  /**
+   * Get a view of the API which throws {@link ApiUnavailableException} instead of waiting when Cloud Manager is unavailable or busy.
+   * <p>
+   *   Intended for UI requests, where a user is waiting on the response.
+   * </p>
+   */
+  @Nonnull
+  public static CloudManagerApi failFast(@Nonnull CloudManagerApi api) {
+    return GuardedCloudManagerApi.failFast(api);
+  }
+
   /**
    * Get the Program Id for the program by name its name.
    */
@@ -91,4 +126,118 @@ public class CloudManagerApiUtil {
       return Optional.empty();
     }
   }
+
+  /**
+   * Make an API call asynchronously on the {@link CloudManagerExecutors Cloud Manager executor}, with the default timeout.
+   */
+  @Nonnull
+  public static <T> CompletableFuture<T> supplyAsync(@Nonnull ApiCall<T> call) {
+    return supplyAsync(call, TIMEOUT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Make an API call asynchronously on the {@link CloudManagerExecutors Cloud Manager executor}.
+   * <p>
+   *   If the call does not complete within the timeout, the future fails with an {@link ApiUnavailableException}.
+   *   Calls which aren't admitted because Cloud Manager is unavailable are retried after a backoff, until the timeout.
+   *   Cancelling the future, or timing out, interrupts the call if it is still running or waiting to be made.
+   * </p>
+   */
+  @Nonnull
+  public static <T> CompletableFuture<T> supplyAsync(@Nonnull ApiCall<T> call, long timeout, @Nonnull TimeUnit unit) {
+    AsyncCall<T> async = new AsyncCall<>(call);
+    async.submit();
+    ScheduledFuture<?> timer = Timer.get().schedule(() -> {
+      ApiUnavailableException last = async.unavailable;
+      async.result.completeExceptionally(last != null ? last : new ApiUnavailableException(Messages.CloudManagerApiUtil_error_timeout(unit.toMillis(timeout))));
+    }, timeout, unit);
+    // Don't leave the timeout pending once the call's done.
+    async.result.whenComplete((r, t) -> {
+      timer.cancel(false);
+      if (t != null) {
+        async.cancel();
+      }
+    });
+    return async.result;
+  }
+
+  // Attempts of an async call; those not admitted are rescheduled on the timer rather than waiting on the executor.
+  private static final class AsyncCall<T> implements Runnable {
+    private final ApiCall<T> call;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private volatile Future<?> task;
+    private volatile ApiUnavailableException unavailable;
+    private int attempts;
+
+    AsyncCall(ApiCall<T> call) {
+      this.call = call;
+    }
+
+    void submit() {
+      task = CloudManagerExecutors.get().submit(this);
+      // Cancelled while being rescheduled.
+      if (result.isDone()) {
+        task.cancel(true);
+      }
+    }
+
+    void cancel() {
+      Future<?> current = task;
+      if (current != null) {
+        current.cancel(true);
+      }
+    }
+
+    @Override
+    public void run() {
+      if (result.isDone()) {
+        return;
+      }
+      try {
+        result.complete(call.call());
+      } catch (ApiUnavailableException e) {
+        unavailable = e;
+        task = Timer.get().schedule(this::submit, ApiCircuitBreaker.backoff(++attempts), TimeUnit.MILLISECONDS);
+      } catch (Exception e) {
+        result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Wait for an async API call, rethrowing its failure as it would have been thrown by a blocking call.
+   */
+  public static <T> T await(@Nonnull CompletableFuture<T> future) throws CloudManagerApiException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof CloudManagerApiException) {
+        throw (CloudManagerApiException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Get the underlying failure of an async API call.
+   */
+  @Nonnull
+  public static Throwable unwrap(@Nonnull Throwable t) {
+    Throwable cause = t;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  /**
+   * A blocking Cloud Manager API call.
+   */
+  @FunctionalInterface
+  public interface ApiCall<T> {
+    T call() throws CloudManagerApiException;
+  }
 }
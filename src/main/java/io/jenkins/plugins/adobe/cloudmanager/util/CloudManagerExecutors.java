@@ -0,0 +1,145 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import jenkins.security.ImpersonatingExecutorService;
+import jenkins.util.ClassLoaderSanityThreadFactory;
+import jenkins.util.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor for work which spends most of its time waiting on Cloud Manager: webhook event processing, polling and API calls.
+ * <p>
+ *   On JDK 21+ each task gets its own virtual thread, so waiting tasks don't hold on to platform threads.
+ *   Older JDKs use a bounded pool of platform threads. Tasks run as {@link ACL#SYSTEM2}, as they would on {@link jenkins.util.Timer}.
+ * </p>
+ */
+public final class CloudManagerExecutors {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerExecutors.class);
+
+  private static final String THREAD_NAME = "CloudManager";
+  // Marks the shared executor's threads.
+  private static final ThreadLocal<Boolean> SHARED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+  // Use virtual threads when the JDK supports them.
+  static final boolean VIRTUAL_THREADS = SystemProperties.getBoolean(CloudManagerExecutors.class.getName() + ".virtualThreads", true);
+  // Size of the platform thread pool, when virtual threads are not used; further tasks queue.
+  static final int THREADS = SystemProperties.getInteger(CloudManagerExecutors.class.getName() + ".threads", 16);
+
+  private CloudManagerExecutors() {
+  }
+
+  /**
+   * Get the shared executor.
+   */
+  @Nonnull
+  public static ExecutorService get() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Indicates if the shared executor runs tasks on virtual threads.
+   */
+  public static boolean isVirtual() {
+    return Holder.VIRTUAL;
+  }
+
+  /**
+   * Indicates if the current thread belongs to the shared executor. Work on these threads must not wait for long, as
+   * others are queued behind it; it should reschedule itself instead.
+   */
+  public static boolean isShared() {
+    return SHARED.get();
+  }
+
+  /**
+   * Create an executor with its own bounded pool of platform threads, for work which must block without holding on to
+   * the shared executor's threads - such as waiting for something which itself runs on the shared executor.
+   * Tasks run as the creating thread's authentication. The caller must shut it down.
+   */
+  @Nonnull
+  public static ExecutorService newBounded(@Nonnull String name, int threads) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        new ClassLoaderSanityThreadFactory(new NamingThreadFactory(new DaemonThreadFactory(), THREAD_NAME + "-" + name)));
+    executor.allowCoreThreadTimeOut(true);
+    return new ImpersonatingExecutorService(executor, Jenkins.getAuthentication2());
+  }
+
+  // Lazily created, so nothing is started until it is needed.
+  private static final class Holder {
+    private static final ExecutorService VIRTUAL_EXECUTOR = VIRTUAL_THREADS ? createVirtual() : null;
+    static final boolean VIRTUAL = VIRTUAL_EXECUTOR != null;
+    static final ExecutorService INSTANCE = new ImpersonatingExecutorService(VIRTUAL ? VIRTUAL_EXECUTOR : createPlatform(), ACL.SYSTEM2);
+  }
+
+  // Thread.ofVirtual() and Executors.newThreadPerTaskExecutor() are JDK 21 APIs, so must be found reflectively.
+  @CheckForNull
+  private static ExecutorService createVirtual() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME + "-", 0L);
+      ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      ExecutorService executor = (ExecutorService) perTask.invoke(null, shared(factory));
+      LOGGER.info(Messages.CloudManagerExecutors_info_virtual());
+      return executor;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOGGER.debug(Messages.CloudManagerExecutors_debug_noVirtual(e.toString()));
+      return null;
+    }
+  }
+
+  private static ExecutorService createPlatform() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        shared(new ClassLoaderSanityThreadFactory(new NamingThreadFactory(new DaemonThreadFactory(), THREAD_NAME))));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static ThreadFactory shared(ThreadFactory factory) {
+    return (r) -> factory.newThread(() -> {
+      SHARED.set(Boolean.TRUE);
+      r.run();
+    });
+  }
+}
@@ -70,7 +70,7 @@ public class DescriptorHelper {
     lbm.add(Messages.DescriptorHelper_defaultListItem(), "");
     try {
       if (StringUtils.isNotBlank(aioProject)) {
-        Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(aioProject);
+        Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(aioProject).map(CloudManagerApiUtil::failFast);
         Collection<Program> programs = api.isPresent() ? api.get().listPrograms() : Collections.emptyList();
         for (Program p : programs) {
           lbm.add(p.getName(), p.getId());
@@ -78,6 +78,8 @@ public class DescriptorHelper {
       }
     } catch (CloudManagerApiException e) {
       LOGGER.error(Messages.DescriptorHelper_error_CloudManagerApiException(e.getLocalizedMessage()));
+    } catch (ApiUnavailableException e) {
+      LOGGER.warn(e.getLocalizedMessage());
     }
     return lbm;
   }
@@ -88,7 +90,7 @@ public class DescriptorHelper {
     lbm.add(Messages.DescriptorHelper_defaultListItem(), "");
 
     if (StringUtils.isNotBlank(aioProject) && StringUtils.isNotBlank(program)) {
-      Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(aioProject);
+      Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(aioProject).map(CloudManagerApiUtil::failFast);
       try {
         Collection<Pipeline> pipelines = api.isPresent() ? api.get().listPipelines(program) : Collections.emptyList();
         for (Pipeline p : pipelines) {
@@ -96,6 +98,8 @@ public class DescriptorHelper {
         }
       } catch (CloudManagerApiException e) {
         LOGGER.error(Messages.DescriptorHelper_error_CloudManagerApiException(e.getLocalizedMessage()));
+      } catch (ApiUnavailableException e) {
+        LOGGER.warn(e.getLocalizedMessage());
       }
     }
     return lbm;
@@ -0,0 +1,163 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CancellationException;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.swagger.invoker.ApiException;
+
+/**
+ * Wraps a {@link CloudManagerApi} so that every remote call first takes a token from the {@link ApiRateLimiter},
+ * then is admitted by the {@link ApiCircuitBreaker}.
+ */
+final class GuardedCloudManagerApi implements InvocationHandler {
+
+  private final CloudManagerApi delegate;
+  private final String imsOrg;
+  private final ApiRateLimiter.Priority priority;
+  private final boolean failFast;
+
+  private GuardedCloudManagerApi(CloudManagerApi delegate, String imsOrg, ApiRateLimiter.Priority priority, boolean failFast) {
+    this.delegate = delegate;
+    this.imsOrg = imsOrg;
+    this.priority = priority;
+    this.failFast = failFast;
+  }
+
+  @Nonnull
+  static CloudManagerApi wrap(@Nonnull CloudManagerApi delegate, @Nonnull String imsOrg, @Nonnull ApiRateLimiter.Priority priority, boolean failFast) {
+    return (CloudManagerApi) Proxy.newProxyInstance(
+        GuardedCloudManagerApi.class.getClassLoader(),
+        new Class<?>[] { CloudManagerApi.class },
+        new GuardedCloudManagerApi(delegate, imsOrg, priority, failFast)
+    );
+  }
+
+  /**
+   * Get a view of the API which makes calls at the specified priority. APIs which aren't guarded are returned as is.
+   */
+  @Nonnull
+  static CloudManagerApi withPriority(@Nonnull CloudManagerApi api, @Nonnull ApiRateLimiter.Priority priority) {
+    GuardedCloudManagerApi handler = handlerFor(api);
+    if (handler == null || handler.priority == priority) {
+      return api;
+    }
+    return wrap(handler.delegate, handler.imsOrg, priority, handler.failFast);
+  }
+
+  /**
+   * Get a view of the API which rejects calls when the circuit is open or the bulkhead full, rather than waiting. APIs which aren't guarded are returned as is.
+   */
+  @Nonnull
+  static CloudManagerApi failFast(@Nonnull CloudManagerApi api) {
+    GuardedCloudManagerApi handler = handlerFor(api);
+    if (handler == null || handler.failFast) {
+      return api;
+    }
+    return wrap(handler.delegate, handler.imsOrg, handler.priority, true);
+  }
+
+  private static GuardedCloudManagerApi handlerFor(CloudManagerApi api) {
+    if (Proxy.isProxyClass(api.getClass()) && Proxy.getInvocationHandler(api) instanceof GuardedCloudManagerApi) {
+      return (GuardedCloudManagerApi) Proxy.getInvocationHandler(api);
+    }
+    return null;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return invoke(method, args);
+    }
+    // Wait for a rate limit token before taking a place in the bulkhead, so callers queued by priority don't hold places
+    // needed by higher priority calls; the place is only held for the remote call itself.
+    try {
+      ApiRateLimiter.get().acquire(imsOrg, priority);
+    } catch (InterruptedException e) {
+      throw interrupted(method);
+    }
+    ApiCircuitBreaker.Permit permit;
+    try {
+      // The shared executor's threads don't wait to be admitted, their work reschedules itself instead.
+      permit = ApiCircuitBreaker.get().admit(imsOrg, failFast || CloudManagerExecutors.isShared());
+    } catch (InterruptedException e) {
+      throw interrupted(method);
+    }
+    boolean success = true;
+    try {
+      return invoke(method, args);
+    } catch (Throwable t) {
+      success = !isFailure(t);
+      throw t;
+    } finally {
+      permit.complete(success);
+    }
+  }
+
+  /**
+   * Determines if a call's exception means Cloud Manager is unhealthy: a transport error, or a server error response.
+   * Errors reported by Cloud Manager about the request itself - not found, invalid, pipeline busy - are not failures.
+   * <p>
+   * The library reports responses from its generated client as an {@link ApiException}; one without a status code never got a response.
+   */
+  static boolean isFailure(@Nonnull Throwable t) {
+    if (!(t instanceof CloudManagerApiException)) {
+      return true;
+    }
+    for (Throwable cause = t.getCause(); cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+      if (cause instanceof IOException) {
+        return true;
+      }
+      if (cause instanceof ApiException) {
+        int code = ((ApiException) cause).getCode();
+        return code == 0 || code >= 500;
+      }
+    }
+    return false;
+  }
+
+  private Object invoke(Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(delegate, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static CancellationException interrupted(Method method) {
+    Thread.currentThread().interrupt();
+    return new CancellationException(Messages.GuardedCloudManagerApi_error_interrupted(method.getName()));
+  }
+}
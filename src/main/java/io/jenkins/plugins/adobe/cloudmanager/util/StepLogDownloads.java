@@ -0,0 +1,68 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.net.http.HttpClient;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.ProxyConfiguration;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+
+/**
+ * Helpers for downloading the files of Cloud Manager steps, such as their logs or results.
+ */
+public final class StepLogDownloads {
+
+  private StepLogDownloads() {
+  }
+
+  /**
+   * Get the signed download URL of the step's file, from the cache if possible.
+   */
+  @CheckForNull
+  public static String url(@Nonnull CloudManagerPipelineExecution execution, @Nonnull String action, @CheckForNull String fileName,
+                           @Nonnull CloudManagerApi api) throws CloudManagerApiException, InterruptedException {
+    return StepLogUrlCache.get().getUrl(execution, action, fileName, () ->
+        api.getExecutionStepLogDownloadUrl(execution.getProgramId(), execution.getPipelineId(), execution.getExecutionId(), action, fileName));
+  }
+
+  /**
+   * Client for downloading the files, using Jenkins' proxy configuration.
+   */
+  @Nonnull
+  public static HttpClient client() {
+    return Holder.CLIENT;
+  }
+
+  // Created on first use.
+  private static final class Holder {
+    private static final HttpClient CLIENT = ProxyConfiguration.newHttpClient();
+  }
+}
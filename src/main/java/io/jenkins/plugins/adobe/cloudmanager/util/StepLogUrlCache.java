@@ -0,0 +1,195 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of signed step log download URLs.
+ * <p>
+ *   URLs are kept until shortly before they expire, using the expiry in the signature when it can be read. Concurrent
+ *   requests for a URL which isn't cached share a single API call.
+ * </p>
+ */
+public final class StepLogUrlCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StepLogUrlCache.class);
+
+  // How long to keep URLs whose expiry can't be read from the signature.
+  static final long TTL = SystemProperties.getLong(StepLogUrlCache.class.getName() + ".ttl", TimeUnit.SECONDS.toMillis(60));
+  // Stop using URLs this long before they expire, so users have time to follow the redirect.
+  static final long MARGIN = SystemProperties.getLong(StepLogUrlCache.class.getName() + ".margin", TimeUnit.SECONDS.toMillis(15));
+  // Size at which expired URLs are removed.
+  private static final int SWEEP_SIZE = 1000;
+
+  private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+  private static final StepLogUrlCache INSTANCE = new StepLogUrlCache(System::currentTimeMillis);
+
+  private final Map<Key, CompletableFuture<Signed>> urls = new ConcurrentHashMap<>();
+  private final LongSupplier clock;
+
+  StepLogUrlCache(@Nonnull LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Get the cache.
+   */
+  @Nonnull
+  public static StepLogUrlCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the signed URL for the step's log file, calling {@code fetch} only if there isn't a usable one cached.
+   * <p>
+   *   {@code fetch} may return null if the URL can't be retrieved; this is not cached.
+   * </p>
+   */
+  @CheckForNull
+  public String getUrl(@Nonnull CloudManagerPipelineExecution execution, @Nonnull String action, @CheckForNull String fileName,
+                       @Nonnull CloudManagerApiUtil.ApiCall<String> fetch) throws CloudManagerApiException, InterruptedException {
+    Key key = new Key(execution, action, fileName);
+    while (true) {
+      CompletableFuture<Signed> cached = urls.get(key);
+      if (cached != null) {
+        if (!cached.isDone()) {
+          Signed signed = CloudManagerApiUtil.await(cached);
+          return signed == null ? null : signed.url;
+        }
+        Signed signed = cached.getNow(null);
+        if (signed != null && signed.usableUntil > clock.getAsLong()) {
+          return signed.url;
+        }
+        urls.remove(key, cached);
+        continue;
+      }
+      CompletableFuture<Signed> mine = new CompletableFuture<>();
+      if (urls.putIfAbsent(key, mine) != null) {
+        continue; // Someone else is fetching it.
+      }
+      sweep();
+      try {
+        String url = fetch.call();
+        Signed signed = url == null ? null : new Signed(url, usableUntil(url, clock.getAsLong()));
+        if (signed == null) {
+          urls.remove(key, mine);
+        }
+        mine.complete(signed);
+        return url;
+      } catch (Throwable t) {
+        // Whatever the fetch failed with - even an Error - waiting requests must be released and the entry not kept.
+        urls.remove(key, mine);
+        mine.completeExceptionally(t);
+        throw t;
+      }
+    }
+  }
+
+  /**
+   * Number of URLs currently cached.
+   */
+  public int size() {
+    return urls.size();
+  }
+
+  // Don't let URLs which are never requested again accumulate.
+  private void sweep() {
+    if (urls.size() < SWEEP_SIZE) {
+      return;
+    }
+    long now = clock.getAsLong();
+    urls.values().removeIf(f -> f.isDone() && (f.isCompletedExceptionally() || f.getNow(null) == null || f.getNow(null).usableUntil <= now));
+  }
+
+  // Read the expiry from S3 or Azure style signatures, otherwise fall back to the default.
+  static long usableUntil(@Nonnull String url, long now) {
+    long expires = now + TTL + MARGIN;
+    try {
+      Map<String, String> query = parseQuery(URI.create(url).getRawQuery());
+      if (query.containsKey("X-Amz-Date") && query.containsKey("X-Amz-Expires")) {
+        long signed = LocalDateTime.parse(query.get("X-Amz-Date"), AMZ_DATE).toInstant(ZoneOffset.UTC).toEpochMilli();
+        expires = signed + TimeUnit.SECONDS.toMillis(Long.parseLong(query.get("X-Amz-Expires")));
+      } else if (query.containsKey("se")) {
+        expires = Instant.parse(query.get("se")).toEpochMilli();
+      }
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      LOGGER.debug(Messages.StepLogUrlCache_debug_unknownExpiry(e.getLocalizedMessage()));
+    }
+    return expires - MARGIN;
+  }
+
+  private static Map<String, String> parseQuery(@CheckForNull String query) {
+    Map<String, String> params = new HashMap<>();
+    if (query == null) {
+      return params;
+    }
+    for (String param : query.split("&")) {
+      int eq = param.indexOf('=');
+      if (eq > 0) {
+        params.put(URLDecoder.decode(param.substring(0, eq), StandardCharsets.UTF_8), URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return params;
+  }
+
+  @Value
+  private static class Key {
+    CloudManagerPipelineExecution execution;
+    String action;
+    String fileName;
+  }
+
+  @Value
+  private static class Signed {
+    String url;
+    long usableUntil;
+  }
+}
@@ -26,15 +26,37 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
  * #L%
  */
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.Value;
 
 /**
  * A Cloud Manager Event received from a WebHook call. Helper for validation essentially.
+ * <p>
+ *   Keeps the raw request body for signature validation, and the event parsed while reading it, so neither has to be recreated.
+ * </p>
  */
 @Value
+@AllArgsConstructor
+@SuppressFBWarnings(value = { "EI_EXPOSE_REP", "EI_EXPOSE_REP2" }, justification = "Body is read once and never modified.")
 public class CMEvent {
   CloudManagerEvent.EventType eventType;
   String imsOrg;
   String payload;
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  ByteBuffer body;
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  Object event;
+
+  public CMEvent(CloudManagerEvent.EventType eventType, String imsOrg, String payload) {
+    this(eventType, imsOrg, payload, ByteBuffer.wrap(payload == null ? new byte[0] : payload.getBytes(StandardCharsets.UTF_8)), null);
+  }
 }
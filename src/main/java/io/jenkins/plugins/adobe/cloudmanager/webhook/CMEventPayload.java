@@ -32,11 +32,14 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
 import javax.servlet.ServletException;
 
 import org.apache.commons.io.IOUtils;
@@ -99,7 +102,7 @@ public @interface CMEventPayload {
         return null;
       }
       CMEvent event = PROCESSORS.get(contentType).apply(request);
-      if (event != null) {
+      if (event != null && LOGGER.isTraceEnabled()) {
         LOGGER.trace(Messages.CMEventPayload_PayloadHandler_trace_payload(event.getPayload()));
       }
       return event;
@@ -124,42 +127,67 @@ public @interface CMEventPayload {
     protected static Function<StaplerRequest, CMEvent> fromBody() {
       return (request) -> {
         try {
-          String body = IOUtils.toString(request.getInputStream(), StandardCharsets.UTF_8);
-
-          EventType type = EventType.from(body);
-          String imsOrg = null;
-          try {
-            switch (type) {
-              case PIPELINE_STARTED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStartEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case PIPELINE_ENDED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionEndEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case STEP_STARTED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepStartEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case STEP_WAITING:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepWaitingEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-              case STEP_ENDED:
-                imsOrg = CloudManagerEvent.parseEvent(body, PipelineExecutionStepEndEvent.class).getEvent().getActivitystreamsto().getXdmImsOrgid();
-                break;
-            }
-          } catch (NullPointerException e) {
-            // Protect against poorly formatted or incomplete JSON
-            // Any of the method chains above could return null - this is easier than checking each
-            LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(body));
-            return null;
-          }
-          return new CMEvent(type, imsOrg, body);
+          return fromBody(ByteBuffer.wrap(IOUtils.toByteArray(request.getInputStream())));
         } catch (IOException e) {
           LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_io(e.getLocalizedMessage()));
-        } catch (CloudManagerApiException e) {
-          LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(e.getLocalizedMessage()));
         }
         return null;
       };
     }
+
+    /**
+     * Processes the payload from an already read JSON body. A {@code null} value is returned if the body can't be parsed.
+     * <p>
+     *   The body is decoded once, as the library parses Strings, and the parsed event is kept on the result so subscribers
+     *   don't have to parse it again. The bytes are kept as they are for validating the signature.
+     * </p>
+     */
+    @CheckForNull
+    protected static CMEvent fromBody(@Nonnull ByteBuffer bytes) {
+      String body = new String(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining(), StandardCharsets.UTF_8);
+      try {
+        EventType type = EventType.from(body);
+        Object event = null;
+        String imsOrg = null;
+        try {
+          switch (type) {
+            case PIPELINE_STARTED:
+              PipelineExecutionStartEvent startEvent = CloudManagerEvent.parseEvent(body, PipelineExecutionStartEvent.class);
+              event = startEvent;
+              imsOrg = startEvent.getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case PIPELINE_ENDED:
+              PipelineExecutionEndEvent endEvent = CloudManagerEvent.parseEvent(body, PipelineExecutionEndEvent.class);
+              event = endEvent;
+              imsOrg = endEvent.getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case STEP_STARTED:
+              PipelineExecutionStepStartEvent stepStartEvent = CloudManagerEvent.parseEvent(body, PipelineExecutionStepStartEvent.class);
+              event = stepStartEvent;
+              imsOrg = stepStartEvent.getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case STEP_WAITING:
+              PipelineExecutionStepWaitingEvent stepWaitingEvent = CloudManagerEvent.parseEvent(body, PipelineExecutionStepWaitingEvent.class);
+              event = stepWaitingEvent;
+              imsOrg = stepWaitingEvent.getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+            case STEP_ENDED:
+              PipelineExecutionStepEndEvent stepEndEvent = CloudManagerEvent.parseEvent(body, PipelineExecutionStepEndEvent.class);
+              event = stepEndEvent;
+              imsOrg = stepEndEvent.getEvent().getActivitystreamsto().getXdmImsOrgid();
+              break;
+          }
+        } catch (NullPointerException e) {
+          // Protect against poorly formatted or incomplete JSON
+          // Any of the method chains above could return null - this is easier than checking each
+          LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(body));
+          return null;
+        }
+        return new CMEvent(type, imsOrg, body, bytes, event);
+      } catch (CloudManagerApiException e) {
+        LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_eventParse(e.getLocalizedMessage()));
+      }
+      return null;
+    }
   }
 }
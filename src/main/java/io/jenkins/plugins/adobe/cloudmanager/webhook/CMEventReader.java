@@ -0,0 +1,182 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+
+import jenkins.util.SystemProperties;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import static javax.servlet.http.HttpServletResponse.*;
+
+/**
+ * Reads a WebHook request body using non-blocking Servlet I/O.
+ * <p>
+ *   The container only calls this reader when data is available, so no request thread is held waiting on a slow client.
+ *   Once the whole body is read, it is passed to the handler and the handler's response is written to complete the request.
+ * </p>
+ * <p>
+ *   The body is read straight into a single array, which grows as data arrives, and the handler is given a view of
+ *   the part read rather than a trimmed copy. The request's content length only bounds the initial size, as it is
+ *   supplied by the unauthenticated client. Bodies larger than the maximum size are rejected, without reading the rest.
+ * </p>
+ */
+class CMEventReader implements ReadListener, AsyncListener {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CMEventReader.class);
+  private static final int INITIAL_SIZE = 4096;
+  // Largest initial buffer, however much the client claims it will send.
+  private static final int MAX_INITIAL_SIZE = 64 * 1024;
+  // Largest body accepted; Cloud Manager events are a few KiB.
+  static final int MAX_SIZE = SystemProperties.getInteger(CMEventReader.class.getName() + ".maxSize", 1024 * 1024);
+
+  private final AsyncContext context;
+  private final StaplerRequest request;
+  private final StaplerResponse response;
+  private final ServletInputStream input;
+  private final Function<ByteBuffer, HttpResponse> handler;
+  private final AtomicBoolean completed = new AtomicBoolean(false);
+  private byte[] body;
+  private int count;
+
+  private CMEventReader(@Nonnull AsyncContext context, @Nonnull StaplerRequest request, @Nonnull StaplerResponse response, @Nonnull Function<ByteBuffer, HttpResponse> handler) throws IOException {
+    this.context = context;
+    this.request = request;
+    this.response = response;
+    this.input = request.getInputStream();
+    this.handler = handler;
+    long length = request.getContentLengthLong();
+    this.body = new byte[length >= 0 ? (int) Math.min(length, MAX_INITIAL_SIZE) : INITIAL_SIZE];
+  }
+
+  /**
+   * Puts the request into async mode and starts reading the body. Returns as soon as the read is registered.
+   */
+  static void read(@Nonnull StaplerRequest request, @Nonnull StaplerResponse response, long timeout, @Nonnull Function<ByteBuffer, HttpResponse> handler) throws IOException {
+    AsyncContext context = request.startAsync(request, response);
+    context.setTimeout(timeout);
+    CMEventReader reader = new CMEventReader(context, request, response, handler);
+    context.addListener(reader);
+    if (request.getContentLengthLong() > MAX_SIZE) {
+      reader.tooLarge();
+      return;
+    }
+    reader.input.setReadListener(reader);
+  }
+
+  @Override
+  public void onDataAvailable() throws IOException {
+    int len;
+    while (!completed.get() && input.isReady()) {
+      if (count == body.length) {
+        body = Arrays.copyOf(body, Math.min(MAX_SIZE + 1, Math.max(INITIAL_SIZE, body.length * 2)));
+      }
+      if ((len = input.read(body, count, body.length - count)) == -1) {
+        return;
+      }
+      count += len;
+      if (count > MAX_SIZE) {
+        tooLarge();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void onAllDataRead() {
+    if (completed.get()) {
+      return;
+    }
+    HttpResponse rsp;
+    try {
+      rsp = handler.apply(ByteBuffer.wrap(body, 0, count));
+    } catch (RuntimeException e) {
+      LOGGER.error(Messages.CMEventReader_error_handler(e.getLocalizedMessage()), e);
+      rsp = HttpResponses.error(SC_INTERNAL_SERVER_ERROR, e.getLocalizedMessage());
+    }
+    complete(rsp);
+  }
+
+  @Override
+  public void onError(Throwable t) {
+    LOGGER.warn(Messages.CMEventPayload_PayloadHandler_warn_io(t.getLocalizedMessage()));
+    complete(HttpResponses.error(SC_BAD_REQUEST, Messages.RequireCMEventPayload_Processor_error_missingBody()));
+  }
+
+  @Override
+  public void onTimeout(AsyncEvent event) {
+    LOGGER.warn(Messages.CMEventReader_warn_timeout());
+    complete(HttpResponses.status(SC_REQUEST_TIMEOUT));
+  }
+
+  @Override
+  public void onError(AsyncEvent event) {
+    onError(event.getThrowable());
+  }
+
+  @Override
+  public void onComplete(AsyncEvent event) {
+  }
+
+  @Override
+  public void onStartAsync(AsyncEvent event) {
+  }
+
+  private void tooLarge() {
+    LOGGER.warn(Messages.CMEventReader_warn_tooLarge(MAX_SIZE));
+    complete(HttpResponses.status(SC_REQUEST_ENTITY_TOO_LARGE));
+  }
+
+  // Only the first outcome is written, a timeout may race with the end of the body.
+  private void complete(@Nonnull HttpResponse rsp) {
+    if (!completed.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      rsp.generateResponse(request, response, null);
+    } catch (IOException | ServletException e) {
+      LOGGER.warn(Messages.CMEventReader_warn_response(e.getLocalizedMessage()));
+    } finally {
+      context.complete();
+    }
+  }
+}
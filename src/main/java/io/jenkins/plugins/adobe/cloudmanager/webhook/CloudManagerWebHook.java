@@ -27,7 +27,9 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
  */
 
 import java.io.IOException;
-import java.util.stream.Collectors;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -36,11 +38,18 @@ import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.HttpMethod;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.ContentType;
 
 import hudson.Extension;
+import hudson.model.Run;
 import hudson.model.UnprotectedRootAction;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.action.ExecutionIndex;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiCircuitBreaker;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
+import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerExecutors;
 import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerEventSubscriber;
 import io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber.CloudManagerSubscriberEvent;
 import jenkins.model.Jenkins;
@@ -48,6 +57,7 @@ import jenkins.util.Timer;
 import org.kohsuke.stapler.HttpResponse;
 import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +70,12 @@ public class CloudManagerWebHook implements UnprotectedRootAction {
   public static final String URL_NAME = "aio-cloud-manager-webhook";
   private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerWebHook.class);
 
+  // Maximum time a client has to send the event body.
+  private static final long READ_TIMEOUT = 30000; // 30 seconds
+  private static final String EVENT_PARAM = "event";
+  private static final CMEventPayload.PayloadHandler PAYLOAD_HANDLER = new CMEventPayload.PayloadHandler();
+  private static final RequireCMEventPayload.Processor VALIDATOR = new RequireCMEventPayload.Processor();
+
   @Override
   public String getIconFileName() {
     return null;
@@ -78,19 +94,53 @@ public class CloudManagerWebHook implements UnprotectedRootAction {
   /**
    * Process a AIO WebHook Event.
    * <p>
-   *   Calls any {@link CloudManagerEventSubscriber} extensions with the payload information.
+   *   JSON event bodies are read using non-blocking Servlet I/O, so the request thread is released as soon as the read is registered.
+   *   Once read, the event is validated and any {@link CloudManagerEventSubscriber} extensions are called with the payload information.
    *   These calls are performed asynchronously, as we don't want to block the calling request.
    * </p>
+   * <p>
+   *   Challenge requests, or containers which do not support async requests, are processed on the request thread.
+   * </p>
    */
-  @RequireCMEventPayload
-  public HttpResponse doIndex(StaplerRequest request, final @Nonnull @CMEventPayload CMEvent event) {
-    LOGGER.trace(String.format("Payload: %s", event.getPayload()));
+  public void doIndex(StaplerRequest request, StaplerResponse response) throws IOException, ServletException {
+    if (isAsyncEvent(request)) {
+      CMEventReader.read(request, response, READ_TIMEOUT, (body) -> handle(request, CMEventPayload.PayloadHandler.fromBody(body)));
+      return;
+    }
+    CMEvent event = (CMEvent) PAYLOAD_HANDLER.parse(request, null, CMEvent.class, EVENT_PARAM);
+    handle(request, event).generateResponse(request, response, this);
+  }
+
+  // Only JSON event posts are read async, and only if the webhook is enabled - let validation deal with the rest.
+  private boolean isAsyncEvent(StaplerRequest request) {
+    if (!request.isAsyncSupported() || !StringUtils.equals(HttpMethod.POST, request.getMethod()) || StringUtils.isBlank(request.getContentType())) {
+      return false;
+    }
+    return AdobeIOConfig.configuration().isWebhookEnabled() &&
+        StringUtils.equals(ContentType.APPLICATION_JSON.getMimeType(), ContentType.parse(request.getContentType()).getMimeType());
+  }
+
+  // Validate the event, then either respond to the challenge or notify the subscribers.
+  @Nonnull
+  private HttpResponse handle(StaplerRequest request, @CheckForNull CMEvent event) {
+    try {
+      VALIDATOR.validate(new Object[]{ request, event });
+    } catch (InvocationTargetException e) {
+      return (HttpResponse) e.getTargetException();
+    }
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace(String.format("Payload: %s", event.getPayload()));
+    }
     if (StringUtils.equals(HttpMethod.GET, request.getMethod())) {
       return doGet(event.getPayload());
     }
+    dispatch(event);
+    return HttpResponses.ok();
+  }
 
-    // Do the notifications async - Don't block the Request thread.
-    Timer.get().submit(() -> {
+  // Do the notifications async - Don't block the Request thread.
+  private void dispatch(@Nonnull CMEvent event) {
+    CloudManagerExecutors.get().submit(() -> {
       String aioProjectName = AdobeIOConfig.configuration().getProjectConfigs()
           .stream()
           .filter(cfg -> {
@@ -104,12 +154,45 @@ public class CloudManagerWebHook implements UnprotectedRootAction {
         LOGGER.error(Messages.CloudManagerWebHook_error_missingAIOProject(event.getImsOrg()));
         return;
       }
+      CloudManagerSubscriberEvent subscriberEvent = new CloudManagerSubscriberEvent(aioProjectName, event.getEventType(), event.getPayload(), event.getEvent());
+      long deadline = System.currentTimeMillis() + ApiCircuitBreaker.get().getMaxWait();
       Jenkins.get().getExtensionList(CloudManagerEventSubscriber.class).stream()
           .filter(CloudManagerEventSubscriber.interested(event.getEventType()))
-          .map(CloudManagerEventSubscriber.process(new CloudManagerSubscriberEvent(aioProjectName, event.getEventType(), event.getPayload())))
-          .collect(Collectors.toList());
+          .forEach((subscriber) -> deliver(subscriber, subscriberEvent, 0, deadline));
     });
-    return HttpResponses.ok();
+  }
+
+  // If Cloud Manager is unavailable, give the subscriber the event again after a backoff, rather than losing it.
+  private static void deliver(CloudManagerEventSubscriber subscriber, CloudManagerSubscriberEvent event, int attempts, long deadline) {
+    try {
+      CloudManagerEventSubscriber.process(event).apply(subscriber);
+    } catch (ApiUnavailableException e) {
+      long delay = ApiCircuitBreaker.backoff(attempts + 1);
+      if (System.currentTimeMillis() + delay > deadline) {
+        LOGGER.error(Messages.CloudManagerWebHook_error_unavailable(event.getType(), e.getLocalizedMessage()));
+        return;
+      }
+      LOGGER.debug(Messages.CloudManagerWebHook_debug_retry(event.getType(), subscriber.getClass().getSimpleName(), delay));
+      Timer.get().schedule(() -> CloudManagerExecutors.get().execute(() -> deliver(subscriber, event, attempts + 1, deadline)), delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Resolves a Cloud Manager execution to its run, by redirecting to the run's build action: {@code /aio-cloud-manager-webhook/execution/{id}}.
+   */
+  public HttpResponse doExecution(StaplerRequest request) {
+    String id = StringUtils.strip(request.getRestOfPath(), "/");
+    ExecutionIndex.Entry entry = StringUtils.isBlank(id) ? null : ExecutionIndex.get().lookup(id);
+    Run<?, ?> run = entry == null ? null : entry.getRun();
+    if (run == null) {
+      return HttpResponses.notFound();
+    }
+    String url = run.getActions(CloudManagerBuildAction.class).stream()
+        .filter(a -> a.getCmExecution().equals(entry.getExecution()))
+        .findFirst()
+        .map(a -> run.getUrl() + a.getUrlName())
+        .orElse(run.getUrl());
+    return HttpResponses.redirectViaContextPath(url);
   }
 
   // Helper for processing the challenge request.
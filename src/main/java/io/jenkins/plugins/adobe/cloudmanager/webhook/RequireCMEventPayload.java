@@ -31,18 +31,24 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.servlet.ServletException;
 import javax.ws.rs.HttpMethod;
 
 import org.apache.commons.lang3.StringUtils;
 
 import hudson.util.Secret;
-import io.adobe.cloudmanager.CloudManagerApiException;
-import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
 import io.jenkins.plugins.adobe.cloudmanager.util.CredentialsUtil;
@@ -70,6 +76,7 @@ public @interface RequireCMEventPayload {
   class Processor extends Interceptor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Processor.class);
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
 
     // Helper for generating a standard response to caller.
     private static void isTrue(boolean condition, String message) throws InvocationTargetException {
@@ -83,11 +90,20 @@ public @interface RequireCMEventPayload {
      */
     @Override
     public Object invoke(StaplerRequest request, StaplerResponse response, Object instance, Object[] arguments) throws IllegalAccessException, InvocationTargetException, ServletException {
+      validate(arguments);
+      return target.invoke(request, response, instance, arguments);
+    }
+
+    /**
+     * Runs all of the validation logic against the provided arguments, expected to be the request and the parsed event.
+     * <p>
+     *   Used directly by callers which can not be intercepted, such as async request processing.
+     * </p>
+     */
+    protected void validate(@Nonnull Object[] arguments) throws InvocationTargetException {
       requiresWebhookEnabled();
       requiresValidPayload(arguments);
       requiresValidSignature(arguments);
-
-      return target.invoke(request, response, instance, arguments);
     }
 
     /**
@@ -135,19 +151,32 @@ public @interface RequireCMEventPayload {
           .collect(Collectors.toList());
       isTrue(!secrets.isEmpty(), Messages.RequireCMEventPayload_Processor_error_missingAIOProject());
 
-      final String digest = header.get();
+      final byte[] digest;
+      try {
+        digest = Base64.getDecoder().decode(header.get());
+      } catch (IllegalArgumentException e) {
+        LOGGER.warn(Messages.RequireCMEventPayload_Processor_warn_signatureValidationError(e.getLocalizedMessage()));
+        throw new InvocationTargetException(HttpResponses.error(SC_BAD_REQUEST, Messages.RequireCMEventPayload_Processor_error_missingSignature()));
+      }
       isTrue(
-          secrets.stream().anyMatch(s -> {
-            try {
-              return CloudManagerEvent.isValidSignature(event.getPayload(), digest, s.getPlainText());
-            } catch (CloudManagerApiException e) {
-              LOGGER.warn(Messages.RequireCMEventPayload_Processor_warn_signatureValidationError(e.getLocalizedMessage()));
-              return false;
-            }
-          }),
+          secrets.stream().anyMatch(s -> isValidSignature(event.getBody(), digest, s)),
           Messages.RequireCMEventPayload_Processor_error_missingSignature()
       );
     }
+
+    // Sign the raw body bytes directly, rather than round-tripping the payload through a String.
+    private static boolean isValidSignature(@Nonnull ByteBuffer body, @Nonnull byte[] digest, @Nonnull Secret secret) {
+      try {
+        Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+        mac.init(new SecretKeySpec(secret.getPlainText().getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+        // A duplicate, so the body's position is left for the other secrets.
+        mac.update(body.duplicate());
+        return MessageDigest.isEqual(mac.doFinal(), digest);
+      } catch (NoSuchAlgorithmException | InvalidKeyException | IllegalArgumentException e) {
+        LOGGER.warn(Messages.RequireCMEventPayload_Processor_warn_signatureValidationError(e.getLocalizedMessage()));
+        return false;
+      }
+    }
   }
 
 }
@@ -43,6 +43,8 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class CloudManagerEventSubscriber implements ExtensionPoint {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(CloudManagerEventSubscriber.class);
+
   /**
    * Lists of all Cloud Manager Event Subscribers
    */
@@ -63,7 +65,11 @@ public abstract class CloudManagerEventSubscriber implements ExtensionPoint {
    */
   public static Function<CloudManagerEventSubscriber, CloudManagerSubscriberEvent> process(final CloudManagerSubscriberEvent event) {
     return (subscriber) -> {
-      subscriber.onEvent(event);
+      if (subscriber.isInterested(event)) {
+        subscriber.onEvent(event);
+      } else {
+        LOGGER.debug(Messages.CloudManagerEventSubscriber_debug_notInterested(event.getType(), subscriber.getClass().getSimpleName()));
+      }
       return event;
     };
   }
@@ -74,6 +80,13 @@ public abstract class CloudManagerEventSubscriber implements ExtensionPoint {
   @Nonnull
   protected abstract Set<CloudManagerEvent.EventType> types();
 
+  /**
+   * Determines if anything is waiting on this event, before any remote calls are made to process it. Default is {@code true}
+   */
+  protected boolean isInterested(final CloudManagerSubscriberEvent event) {
+    return true;
+  }
+
   /**
    * Processes the event.
    */
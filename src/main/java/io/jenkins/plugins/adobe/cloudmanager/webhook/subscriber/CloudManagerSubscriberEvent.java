@@ -26,22 +26,75 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
  * #L%
  */
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 
 /**
  * An event which Subscribers can process.
+ * <p>
+ *   The payload is parsed at most once, regardless of how many subscribers request the event.
+ * </p>
  */
 @Value
+@AllArgsConstructor
 @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE", justification = "Generated code.")
 public class CloudManagerSubscriberEvent {
+  // Events reference their object by link, which contains the execution identifiers.
+  private static final Pattern EXECUTION_LINK = Pattern.compile("/program/(\\w+)/pipeline/(\\w+)/execution/(\\w+)");
+
   @Nonnull
   String aioProjectName;
   @Nonnull
   CloudManagerEvent.EventType type;
   @Nonnull
   String payload;
+  @CheckForNull
+  @NonFinal
+  @Getter(AccessLevel.NONE)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  volatile Object event;
+
+  public CloudManagerSubscriberEvent(@Nonnull String aioProjectName, @Nonnull CloudManagerEvent.EventType type, @Nonnull String payload) {
+    this(aioProjectName, type, payload, null);
+  }
+
+  /**
+   * Get the payload as the specified event type, parsing it only if it hasn't already been parsed as that type.
+   */
+  @Nonnull
+  public <T> T getEvent(@Nonnull Class<T> eventClass) throws CloudManagerApiException {
+    Object parsed = event;
+    if (!eventClass.isInstance(parsed)) {
+      parsed = CloudManagerEvent.parseEvent(payload, eventClass);
+      event = parsed;
+    }
+    return eventClass.cast(parsed);
+  }
+
+  /**
+   * Get the execution this event references, determined from the object link without parsing the full event.
+   */
+  @CheckForNull
+  public CloudManagerPipelineExecution getCmExecution() {
+    Matcher matcher = EXECUTION_LINK.matcher(payload);
+    if (!matcher.find()) {
+      return null;
+    }
+    return new CloudManagerPipelineExecution(matcher.group(1), matcher.group(2), matcher.group(3));
+  }
 }
@@ -0,0 +1,173 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Item;
+import hudson.model.listeners.ItemListener;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+
+/**
+ * Registry of the Cloud Manager pipelines and executions which something in Jenkins is currently waiting on.
+ * <p>
+ *   Subscribers check this before making any Cloud Manager API calls, so events no one cares about are dropped for free.
+ * </p>
+ * <p>
+ *   Registrations are not persisted: triggers register when started, and step executions when started or resumed.
+ * </p>
+ */
+@Extension
+public class InterestRegistry {
+
+  // Execution -> ids of the registered listeners.
+  private final Map<CloudManagerPipelineExecution, Set<String>> executions = new ConcurrentHashMap<>();
+  // Listener id -> registered execution, for removal without needing to know the execution.
+  private final Map<String, CloudManagerPipelineExecution> registrations = new ConcurrentHashMap<>();
+  // Program/Pipeline -> ids of the registered listeners.
+  private final Map<String, Set<String>> pipelines = new ConcurrentHashMap<>();
+
+  /**
+   * Get the registry instance.
+   */
+  @Nonnull
+  public static InterestRegistry get() {
+    return ExtensionList.lookupSingleton(InterestRegistry.class);
+  }
+
+  /**
+   * Register interest in events for a specific execution. Registering the same id more than once has no further effect.
+   */
+  public void register(@Nonnull String id, @Nonnull CloudManagerPipelineExecution execution) {
+    CloudManagerPipelineExecution previous = registrations.put(id, execution);
+    if (previous != null && !previous.equals(execution)) {
+      remove(executions, previous, id);
+    }
+    executions.computeIfAbsent(execution, k -> ConcurrentHashMap.newKeySet()).add(id);
+  }
+
+  /**
+   * Remove interest in the execution previously registered with this id.
+   */
+  public void unregister(@Nonnull String id) {
+    CloudManagerPipelineExecution execution = registrations.remove(id);
+    if (execution != null) {
+      remove(executions, execution, id);
+    }
+  }
+
+  /**
+   * Register interest in events for any execution of the specified pipeline.
+   */
+  public void registerPipeline(@Nonnull String id, @Nonnull String programId, @Nonnull String pipelineId) {
+    pipelines.computeIfAbsent(key(programId, pipelineId), k -> ConcurrentHashMap.newKeySet()).add(id);
+  }
+
+  /**
+   * Remove interest in the pipeline previously registered with this id.
+   */
+  public void unregisterPipeline(@Nonnull String id, @Nonnull String programId, @Nonnull String pipelineId) {
+    remove(pipelines, key(programId, pipelineId), id);
+  }
+
+  /**
+   * Determines if anything is waiting on events for the specified execution.
+   */
+  public boolean isInterested(@CheckForNull CloudManagerPipelineExecution execution) {
+    return execution != null && executions.containsKey(execution);
+  }
+
+  /**
+   * Determines if anything is waiting on events for any execution of the specified pipeline.
+   */
+  public boolean isInterestedInPipeline(@CheckForNull CloudManagerPipelineExecution execution) {
+    return execution != null && pipelines.containsKey(key(execution.getProgramId(), execution.getPipelineId()));
+  }
+
+  /**
+   * Move the pipeline registrations of an item, and any items within it, to its new full name.
+   */
+  public void movePipelines(@Nonnull String oldFullName, @Nonnull String newFullName) {
+    for (Set<String> ids : pipelines.values()) {
+      for (String id : ids) {
+        if (isWithin(id, oldFullName) && ids.remove(id)) {
+          ids.add(newFullName + id.substring(oldFullName.length()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove the pipeline registrations of an item, and any items within it.
+   */
+  public void removePipelines(@Nonnull String fullName) {
+    for (String key : pipelines.keySet()) {
+      pipelines.computeIfPresent(key, (k, ids) -> {
+        ids.removeIf(id -> isWithin(id, fullName));
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+  }
+
+  private static boolean isWithin(String id, String fullName) {
+    return id.equals(fullName) || id.startsWith(fullName + "/");
+  }
+
+  private static String key(String programId, String pipelineId) {
+    return programId + "/" + pipelineId;
+  }
+
+  private static <K> void remove(Map<K, Set<String>> map, K key, String id) {
+    map.computeIfPresent(key, (k, ids) -> {
+      ids.remove(id);
+      return ids.isEmpty() ? null : ids;
+    });
+  }
+
+  /**
+   * Pipeline registrations are by the job's full name, so keep them in step with renames, moves and deletes.
+   */
+  @Extension
+  public static class Items extends ItemListener {
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+      get().movePipelines(oldFullName, newFullName);
+    }
+
+    @Override
+    public void onDeleted(Item item) {
+      get().removePipelines(item.getFullName());
+    }
+  }
+}
@@ -38,6 +38,8 @@ import io.adobe.cloudmanager.CloudManagerApiException;
 import io.adobe.cloudmanager.PipelineExecution;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionEndEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.builder.PipelineStartQueue;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineEndExecution;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
@@ -61,17 +63,36 @@ public class PipelineEndEventSubscriber extends CloudManagerEventSubscriber {
   }
 
   /**
-   * Calls all {@link io.jenkins.plugins.adobe.cloudmanager.step.PipelineEndStep} instances waiting for an event.
+   * Only process the event if any step is waiting on the execution, or a start of the pipeline is queued.
+   */
+  @Override
+  protected boolean isInterested(CloudManagerSubscriberEvent event) {
+    CloudManagerPipelineExecution execution = event.getCmExecution();
+    return InterestRegistry.get().isInterested(execution) ||
+        (execution != null && PipelineStartQueue.get().isWaiting(execution.getProgramId(), execution.getPipelineId()));
+  }
+
+  /**
+   * Wakes any queued starts of the pipeline, then calls all {@link io.jenkins.plugins.adobe.cloudmanager.step.PipelineEndStep} instances waiting for an event.
    */
   @Override
   protected void onEvent(CloudManagerSubscriberEvent event) {
+    CloudManagerPipelineExecution execution = event.getCmExecution();
+    boolean queued = execution != null && PipelineStartQueue.get().isWaiting(execution.getProgramId(), execution.getPipelineId());
+    if (queued) {
+      PipelineStartQueue.get().ended(execution.getProgramId(), execution.getPipelineId());
+      // The queue only needs the identifiers, so don't fetch the execution unless a step is also waiting on it.
+      if (!InterestRegistry.get().isInterested(execution)) {
+        return;
+      }
+    }
     Optional<CloudManagerApi> api = CloudManagerApiUtil.createApi().apply(event.getAioProjectName());
     if (!api.isPresent()) {
       LOGGER.error(Messages.CloudManagerEventSubscriber_error_createApi());
       return;
     }
     try {
-      final PipelineExecution pe = api.get().getExecution(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionEndEvent.class));
+      final PipelineExecution pe = api.get().getExecution(event.getEvent(PipelineExecutionEndEvent.class));
       StepExecution.applyAll(PipelineEndExecution.class, (execution) -> {
         try {
           if (execution.isApplicable(pe) && !execution.isFinished()) {
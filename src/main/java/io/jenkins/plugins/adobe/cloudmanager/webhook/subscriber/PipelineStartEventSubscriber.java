@@ -101,6 +101,14 @@ public class PipelineStartEventSubscriber extends CloudManagerEventSubscriber {
     return EVENTS;
   }
 
+  /**
+   * Only process the event if any trigger is listening for starts of the pipeline.
+   */
+  @Override
+  protected boolean isInterested(CloudManagerSubscriberEvent event) {
+    return InterestRegistry.get().isInterestedInPipeline(event.getCmExecution());
+  }
+
   /**
    * Calls all {@link io.jenkins.plugins.adobe.cloudmanager.step.PipelineEndStep} instances waiting for an event.
    */
@@ -133,7 +141,7 @@ public class PipelineStartEventSubscriber extends CloudManagerEventSubscriber {
 
   @Nonnull
   private PipelineExecutionStartEvent getPipelineExecutionStartEvent(CloudManagerSubscriberEvent subscriberEvent) throws CloudManagerApiException {
-    return CloudManagerEvent.parseEvent(subscriberEvent.getPayload(), PipelineExecutionStartEvent.class);
+    return subscriberEvent.getEvent(PipelineExecutionStartEvent.class);
   }
 
   @Nonnull
@@ -27,6 +27,7 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
  */
 
 import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Optional;
@@ -43,6 +44,7 @@ import io.adobe.cloudmanager.event.CloudManagerEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepEndEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepStartEvent;
 import io.adobe.cloudmanager.event.PipelineExecutionStepWaitingEvent;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineEndExecution;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineStepStateExecution;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
@@ -65,6 +67,14 @@ public class PipelineStepEventSubscriber extends CloudManagerEventSubscriber {
     return EVENTS;
   }
 
+  /**
+   * Only process the event if any step is waiting on the execution.
+   */
+  @Override
+  protected boolean isInterested(CloudManagerSubscriberEvent event) {
+    return InterestRegistry.get().isInterested(event.getCmExecution());
+  }
+
   /**
    * Calls all {@link io.jenkins.plugins.adobe.cloudmanager.step.PipelineStepStateStep} instances waiting for an event.
    */
@@ -78,15 +88,23 @@ public class PipelineStepEventSubscriber extends CloudManagerEventSubscriber {
     try {
 
       final PipelineExecutionStepState stepState;
+      // When Cloud Manager published the event, for step timing.
+      final OffsetDateTime published;
       switch (event.getType()) {
         case STEP_STARTED:
-          stepState = api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepStartEvent.class));
+          PipelineExecutionStepStartEvent startEvent = event.getEvent(PipelineExecutionStepStartEvent.class);
+          stepState = api.get().getExecutionStepState(startEvent);
+          published = startEvent.getEvent().getActivitystreamspublished();
           break;
         case STEP_WAITING:
-          stepState = api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepWaitingEvent.class));
+          PipelineExecutionStepWaitingEvent waitingEvent = event.getEvent(PipelineExecutionStepWaitingEvent.class);
+          stepState = api.get().getExecutionStepState(waitingEvent);
+          published = waitingEvent.getEvent().getActivitystreamspublished();
           break;
         case STEP_ENDED:
-          stepState = api.get().getExecutionStepState(CloudManagerEvent.parseEvent(event.getPayload(), PipelineExecutionStepEndEvent.class));
+          PipelineExecutionStepEndEvent endEvent = event.getEvent(PipelineExecutionStepEndEvent.class);
+          stepState = api.get().getExecutionStepState(endEvent);
+          published = endEvent.getEvent().getActivitystreamspublished();
           break;
         default:
           LOGGER.warn(Messages.PipelineStepEventSubscriber_warn_invalidStepState(event.getType()));
@@ -96,12 +114,22 @@ public class PipelineStepEventSubscriber extends CloudManagerEventSubscriber {
       final PipelineExecution pipelineExecution = stepState.getExecution();
       StepExecution.applyAll(PipelineStepStateExecution.class, (execution) -> {
         try {
-          execution.process(pipelineExecution, stepState);
+          execution.process(pipelineExecution, stepState, published);
         } catch (IOException | InterruptedException | TimeoutException ex) {
           LOGGER.error(Messages.CloudManagerEventSubscriber_error_notifyExecution(ex.getLocalizedMessage()));
         }
         return null;
       });
+      StepExecution.applyAll(PipelineEndExecution.class, (execution) -> {
+        try {
+          if (execution.isApplicable(pipelineExecution)) {
+            execution.stepOccurred(stepState);
+          }
+        } catch (IOException | InterruptedException ex) {
+          LOGGER.error(Messages.CloudManagerEventSubscriber_error_notifyExecution(ex.getLocalizedMessage()));
+        }
+        return null;
+      });
     } catch (CloudManagerApiException e) {
       LOGGER.error(Messages.CloudManagerEventSubscriber_error_api(e.getLocalizedMessage()));
     }
@@ -0,0 +1,64 @@
+/*
+ * Appends Cloud Manager steps to the build action page as they are recorded, rather than needing a refresh.
+ * Steps recorded before the stream connected are fetched from the incremental steps endpoint.
+ */
+(function () {
+  var list = document.getElementById("cloud-manager-steps");
+  if (!list || !window.EventSource) {
+    return;
+  }
+  var next = parseInt(list.getAttribute("data-next"), 10);
+  var execution = list.getAttribute("data-execution");
+
+  function link(href, text) {
+    var li = document.createElement("li");
+    var a = document.createElement("a");
+    a.href = href;
+    a.textContent = text;
+    li.appendChild(a);
+    return li;
+  }
+
+  function append(step) {
+    if (step.index < next) {
+      return;
+    }
+    var li = document.createElement("li");
+    li.appendChild(document.createTextNode(step.text));
+    if (step.hasLogs || step.hasQualityData) {
+      var links = document.createElement("ul");
+      if (step.hasLogs) {
+        links.appendChild(link("getLog?step=" + step.index, list.getAttribute("data-logs-text")));
+      }
+      if (step.hasQualityData) {
+        links.appendChild(link("getQualityData?step=" + step.index, list.getAttribute("data-quality-text")));
+      }
+      li.appendChild(links);
+    }
+    list.appendChild(li);
+    next = step.index + 1;
+  }
+
+  function catchUp() {
+    fetch("steps?since=" + next, { credentials: "same-origin" })
+      .then(function (rsp) { return rsp.ok ? rsp.json() : { steps: [] }; })
+      .then(function (json) { json.steps.forEach(append); });
+  }
+
+  var source = new EventSource("stream");
+  source.addEventListener("open", catchUp);
+  source.addEventListener("step", function (e) {
+    var step = JSON.parse(e.data);
+    if (step.execution !== execution) {
+      return;
+    }
+    if (step.index > next) {
+      catchUp();
+    } else {
+      append(step);
+    }
+  });
+  source.addEventListener("end", function () {
+    source.close();
+  });
+})();
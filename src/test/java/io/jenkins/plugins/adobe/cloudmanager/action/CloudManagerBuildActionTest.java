@@ -0,0 +1,168 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.Page;
+import org.htmlunit.WebRequest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static org.junit.Assert.*;
+
+public class CloudManagerBuildActionTest {
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Test
+  public void incrementalSteps() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    CloudManagerBuildAction action = new CloudManagerBuildAction("AIO Project", new CloudManagerPipelineExecution("1", "1", "1"));
+    action.addStep(new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true));
+    action.addStep(new CloudManagerBuildAction.PipelineStep(StepAction.codeQuality, WAITING, true));
+    build.addAction(action);
+
+    JenkinsRule.WebClient client = rule.createWebClient();
+    Page page = client.goTo(build.getUrl() + action.getUrlName() + "/steps?since=1", "application/json");
+    JSONObject json = JSONObject.fromObject(page.getWebResponse().getContentAsString());
+    assertEquals(1, json.getInt("since"));
+    assertEquals(2, json.getInt("next"));
+    JSONArray steps = json.getJSONArray("steps");
+    assertEquals(1, steps.size());
+    assertEquals(1, steps.getJSONObject(0).getInt("index"));
+    assertEquals("codeQuality", steps.getJSONObject(0).getString("action"));
+    assertEquals("WAITING", steps.getJSONObject(0).getString("status"));
+    assertTrue(steps.getJSONObject(0).getBoolean("hasQualityData"));
+
+    String etag = page.getWebResponse().getResponseHeaderValue("ETag");
+    WebRequest request = new WebRequest(client.createCrumbedUrl(build.getUrl() + action.getUrlName() + "/steps?since=1"), HttpMethod.GET);
+    request.setAdditionalHeader("If-None-Match", etag);
+    assertEquals(304, client.loadWebResponse(request).getStatusCode());
+    // The same steps from another index are different content.
+    WebRequest all = new WebRequest(client.createCrumbedUrl(build.getUrl() + action.getUrlName() + "/steps?since=0"), HttpMethod.GET);
+    all.setAdditionalHeader("If-None-Match", etag);
+    page = client.getPage(all);
+    assertEquals(200, page.getWebResponse().getStatusCode());
+    assertEquals(2, JSONObject.fromObject(page.getWebResponse().getContentAsString()).getJSONArray("steps").size());
+
+    action.addStep(new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false));
+    page = client.getPage(request);
+    json = JSONObject.fromObject(page.getWebResponse().getContentAsString());
+    assertEquals(3, json.getInt("next"));
+    assertEquals(2, json.getJSONArray("steps").size());
+    assertNotEquals(etag, page.getWebResponse().getResponseHeaderValue("ETag"));
+  }
+
+  @Test
+  public void stepDurations() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    CloudManagerBuildAction action = new CloudManagerBuildAction("AIO Project", new CloudManagerPipelineExecution("1", "1", "1"));
+    build.addAction(action);
+
+    CloudManagerBuildAction.PipelineStep running = new CloudManagerBuildAction.PipelineStep(StepAction.build, RUNNING, false);
+    running.setStarted(1000);
+    action.addStep(build, running);
+    CloudManagerBuildAction.PipelineStep finished = new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true);
+    finished.setEnded(61000);
+    action.addStep(build, finished);
+
+    assertEquals(-1, action.getSteps().get(0).getDuration());
+    assertEquals(60000, action.getSteps().get(1).getDuration());
+    assertEquals(new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true), action.getSteps().get(1));
+
+    StepDurationTrendAction trend = project.getAction(StepDurationTrendAction.class);
+    assertNotNull(trend);
+    List<StepDurationTrendAction.BuildDurations> builds = trend.getBuilds();
+    assertEquals(1, builds.size());
+    StepDurationTrendAction.Step step = new StepDurationTrendAction.Step(StepAction.build, 0);
+    assertEquals(Long.valueOf(60000), builds.get(0).getDuration(step));
+    assertEquals(Collections.singleton(step), trend.getSteps(builds));
+    assertEquals(100, trend.getPercent(trend.getMax(builds), 60000L));
+  }
+
+  @Test
+  public void repeatedStepDurations() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    CloudManagerBuildAction action = new CloudManagerBuildAction("AIO Project", new CloudManagerPipelineExecution("1", "1", "1"));
+    build.addAction(action);
+
+    // Stage deploy, then production deploy, whose end has no start of its own.
+    CloudManagerBuildAction.PipelineStep stage = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false);
+    stage.setStarted(1000);
+    action.addStep(build, stage);
+    CloudManagerBuildAction.PipelineStep staged = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, FINISHED, true);
+    staged.setEnded(61000);
+    action.addStep(build, staged);
+    CloudManagerBuildAction.PipelineStep approval = new CloudManagerBuildAction.PipelineStep(StepAction.approval, WAITING, false);
+    approval.setStarted(62000);
+    action.addStep(build, approval);
+    CloudManagerBuildAction.PipelineStep approved = new CloudManagerBuildAction.PipelineStep(StepAction.approval, FINISHED, false);
+    approved.setEnded(72000);
+    action.addStep(build, approved);
+    CloudManagerBuildAction.PipelineStep prod = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false);
+    prod.setStarted(80000);
+    action.addStep(build, prod);
+    CloudManagerBuildAction.PipelineStep deployed = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, FINISHED, true);
+    deployed.setEnded(110000);
+    action.addStep(build, deployed);
+    CloudManagerBuildAction.PipelineStep unknownStart = new CloudManagerBuildAction.PipelineStep(StepAction.deploy, FINISHED, true);
+    unknownStart.setEnded(120000);
+    action.addStep(build, unknownStart);
+
+    assertEquals(60000, action.getSteps().get(1).getDuration());
+    assertEquals(30000, action.getSteps().get(5).getDuration());
+    assertEquals(-1, action.getSteps().get(6).getDuration());
+
+    StepDurationTrendAction.Step stageDeploy = new StepDurationTrendAction.Step(StepAction.deploy, 0);
+    StepDurationTrendAction.Step prodDeploy = new StepDurationTrendAction.Step(StepAction.deploy, 1);
+    StepDurationTrendAction.Step approvalStep = new StepDurationTrendAction.Step(StepAction.approval, 0);
+    List<StepDurationTrendAction.BuildDurations> builds = project.getAction(StepDurationTrendAction.class).getBuilds();
+    assertEquals(1, builds.size());
+    assertEquals(Long.valueOf(60000), builds.get(0).getDuration(stageDeploy));
+    assertEquals(Long.valueOf(30000), builds.get(0).getDuration(prodDeploy));
+    assertEquals(Long.valueOf(10000), builds.get(0).getDuration(approvalStep));
+    List<StepDurationTrendAction.Step> steps = new ArrayList<>(project.getAction(StepDurationTrendAction.class).getSteps(builds));
+    assertEquals(3, steps.size());
+    assertEquals(prodDeploy, steps.get(2));
+    assertEquals("deploy (2)", prodDeploy.getLabel());
+  }
+}
@@ -0,0 +1,123 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.RootAction;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.webhook.CloudManagerWebHook;
+import org.htmlunit.FailingHttpStatusCodeException;
+import org.htmlunit.Page;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static org.junit.Assert.*;
+
+public class ExecutionIndexTest {
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  private final CloudManagerPipelineExecution execution = new CloudManagerPipelineExecution("1", "2", "3");
+
+  @Test
+  public void indexesAttachedActions() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject("test");
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    build.addAction(new CloudManagerBuildAction("AIO Project", execution));
+
+    ExecutionIndex.Entry entry = ExecutionIndex.get().lookup("3");
+    assertNotNull(entry);
+    assertEquals(execution, entry.getExecution());
+    assertEquals("test", entry.getJob());
+    assertEquals(build.getNumber(), entry.getNumber());
+    assertSame(build, entry.getRun());
+    assertEquals(entry, ExecutionIndex.get().lookup(execution));
+
+    // Read back from disk.
+    assertEquals(entry, new ExecutionIndex().lookup("3"));
+  }
+
+  @Test
+  public void tracksRenamesAndDeletes() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject("test");
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    build.addAction(new CloudManagerBuildAction("AIO Project", execution));
+
+    project.renameTo("renamed");
+    assertEquals("renamed", ExecutionIndex.get().lookup("3").getJob());
+    assertEquals("renamed", new ExecutionIndex().lookup("3").getJob());
+
+    build.delete();
+    assertNull(ExecutionIndex.get().lookup("3"));
+    assertNull(new ExecutionIndex().lookup("3"));
+  }
+
+  @Test
+  public void resolvesRoute() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject("test");
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    CloudManagerBuildAction action = new CloudManagerBuildAction("AIO Project", execution);
+    build.addAction(action);
+
+    JenkinsRule.WebClient client = rule.createWebClient();
+    Page page = client.goTo(CloudManagerWebHook.URL_NAME + "/execution/3");
+    assertTrue(page.getUrl().toString().endsWith(build.getUrl() + action.getUrlName()));
+
+    FailingHttpStatusCodeException e = assertThrows(FailingHttpStatusCodeException.class, () -> client.goTo(CloudManagerWebHook.URL_NAME + "/execution/4"));
+    assertEquals(404, e.getStatusCode());
+  }
+
+  @Test
+  public void tracksProgress() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject("test");
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    CloudManagerBuildAction action = new CloudManagerBuildAction("AIO Project", execution);
+    build.addAction(action);
+
+    ExecutionIndex.Entry entry = ExecutionIndex.get().lookup("3");
+    assertEquals("AIO Project", entry.getAioProject());
+    assertNull(entry.getStep());
+    assertFalse(entry.isInFlight());
+    assertEquals("SUCCESS", entry.getResult());
+
+    action.addStep(build, new CloudManagerBuildAction.PipelineStep(StepAction.deploy, RUNNING, false));
+    entry = ExecutionIndex.get().lookup("3");
+    assertEquals("deploy", entry.getStep());
+    assertEquals("RUNNING", entry.getStepStatus());
+    assertEquals(entry, new ExecutionIndex().lookup("3"));
+
+    ExecutionsDashboardAction dashboard = rule.jenkins.getExtensionList(RootAction.class).get(ExecutionsDashboardAction.class);
+    assertEquals(1, dashboard.getExecutions("AIO Project", "1", null).size());
+    assertEquals(1, dashboard.getExecutions(null, null, "2").size());
+    assertTrue(dashboard.getExecutions("Other Project", null, null).isEmpty());
+    assertTrue(dashboard.getExecutions(null, "2", null).isEmpty());
+  }
+}
@@ -0,0 +1,163 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.Collections;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.Run;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.step.execution.PipelineStepStateExecution;
+import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.BuildWatcher;
+import org.jvnet.hudson.test.JenkinsRule;
+import static org.junit.Assert.*;
+
+public class PipelineWaitingActionTest {
+
+  @ClassRule
+  public static BuildWatcher watcher = new BuildWatcher();
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Mocked
+  private PipelineStepStateExecution step;
+
+  // An action as it would be read back from disk, waiting on the step.
+  private PipelineWaitingAction restore(Run<?, ?> run) throws Exception {
+    new Expectations() {{
+      step.getId();
+      result = "1";
+      minTimes = 0;
+    }};
+    PipelineWaitingAction action = new PipelineWaitingAction();
+    action.onAttached(run);
+    action.add(step);
+    PipelineWaitingAction restored = (PipelineWaitingAction) Run.XSTREAM2.fromXML(Run.XSTREAM2.toXML(action));
+    restored.onLoad(run);
+    return restored;
+  }
+
+  private WorkflowRun startRun() throws Exception {
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    job.setDefinition(new CpsFlowDefinition("semaphore 'wait'", true));
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    SemaphoreStep.waitForStart("wait/1", run);
+    return run;
+  }
+
+  private void finishRun(WorkflowRun run) throws Exception {
+    SemaphoreStep.success("wait/1", null);
+    rule.assertBuildStatusSuccess(rule.waitForCompletion(run));
+  }
+
+  @Test
+  public void loadsFromRunExecution() throws Exception {
+    WorkflowRun run = startRun();
+    PipelineWaitingAction action = restore(run);
+    // The step isn't one of the run's current executions any more.
+    assertNull(action.getExecution("1"));
+    assertFalse(action.isLoading());
+    assertEquals(Collections.emptyList(), action.getExecutions());
+
+    action.add(step);
+    assertEquals(Collections.singletonList(step), action.getExecutions());
+    finishRun(run);
+  }
+
+  @Test
+  public void loadsFromExecutionList() throws Exception {
+    WorkflowRun run = startRun();
+    MockUp<WorkflowRun> noOwner = new MockUp<WorkflowRun>() {
+      @Mock
+      public FlowExecutionOwner asFlowExecutionOwner() {
+        return null;
+      }
+    };
+    PipelineWaitingAction action;
+    try {
+      action = restore(run);
+      assertNull(action.getExecution("1"));
+    } finally {
+      noOwner.tearDown();
+    }
+    assertFalse(action.isLoading());
+    action.add(step);
+    assertEquals(Collections.singletonList(step), action.getExecutions());
+    finishRun(run);
+  }
+
+  @Test
+  public void missingExecution() throws Exception {
+    FreeStyleBuild build = rule.buildAndAssertSuccess(rule.createFreeStyleProject());
+    PipelineWaitingAction action = restore(build);
+    assertEquals(Collections.emptyList(), action.getExecutions());
+    assertFalse(action.isLoading());
+    assertThrows(IOException.class, () -> action.add(step));
+  }
+
+  @Test
+  public void indexesWaitingStepsExecution() throws Exception {
+    WorkflowRun run = startRun();
+    CloudManagerPipelineExecution first = new CloudManagerPipelineExecution("1", "2", "3");
+    CloudManagerPipelineExecution second = new CloudManagerPipelineExecution("1", "2", "4");
+    run.addAction(new CloudManagerBuildAction("AIO Project", first));
+    run.addAction(new CloudManagerBuildAction("AIO Project", second));
+    new Expectations() {{
+      step.getId();
+      result = "1";
+      step.getWaitingExecution();
+      result = second;
+      step.getReason();
+      result = StepAction.approval;
+    }};
+
+    PipelineWaitingAction action = new PipelineWaitingAction();
+    run.addAction(action);
+    action.add(step);
+    assertNull(ExecutionIndex.get().lookup(first).getWaiting());
+    assertEquals("approval", ExecutionIndex.get().lookup(second).getWaiting());
+
+    action.remove(step);
+    assertNull(ExecutionIndex.get().lookup(second).getWaiting());
+    finishRun(run);
+  }
+}
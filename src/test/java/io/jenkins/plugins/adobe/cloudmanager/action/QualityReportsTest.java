@@ -0,0 +1,120 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import static org.junit.Assert.*;
+
+public class QualityReportsTest {
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  private final QualityReports.Metric coverage = new QualityReports.Metric("coverage", "55.0", "50.0", true);
+  private final QualityReports.Metric bugs = new QualityReports.Metric("reliability_rating", "C", "B", false);
+
+  @Test
+  public void parsesResults() throws Exception {
+    String results = "Metric,Severity,Passed,Comparator,Expected Value,Actual Value\n"
+        + "coverage,critical,true,LT,50.0,55.0\n"
+        + "\"reliability_rating\",critical,false,GT,B,C\n"
+        + ",important,true,GT,1,1\n";
+    assertEquals(Arrays.asList(coverage, bugs), QualityReports.parse(new StringReader(results)));
+    assertTrue(QualityReports.parse(new StringReader("Severity,Value\ncritical,1\n")).isEmpty());
+    assertTrue(QualityReports.parse(new StringReader("")).isEmpty());
+  }
+
+  @Test
+  public void recordsSummaries() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    QualityReports reports = QualityReports.get();
+
+    reports.record(build, "3", Arrays.asList(coverage, bugs));
+    reports.record(build, "4", Arrays.asList(bugs));
+    assertEquals(Arrays.asList(coverage, bugs), reports.getMetrics(build, "3"));
+    assertEquals(Arrays.asList(bugs), reports.getMetrics(build, "4"));
+    assertTrue(reports.getMetrics(build, "5").isEmpty());
+  }
+
+  @Test
+  public void trendReadsIncrementally() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild first = rule.buildAndAssertSuccess(project);
+    FreeStyleBuild second = rule.buildAndAssertSuccess(project);
+    FreeStyleBuild third = rule.buildAndAssertSuccess(project);
+    QualityReports reports = QualityReports.get();
+
+    reports.record(first, "3", Arrays.asList(coverage));
+    NavigableMap<Integer, List<QualityReports.Metric>> trend = reports.getTrend(project, 10);
+    assertEquals(Arrays.asList(1), Arrays.asList(trend.keySet().toArray()));
+
+    reports.record(second, "4", Arrays.asList(coverage, bugs));
+    reports.record(third, "5", Arrays.asList(bugs));
+    trend = reports.getTrend(project, 10);
+    assertEquals(Arrays.asList(3, 2, 1), Arrays.asList(trend.keySet().toArray()));
+    assertEquals(Arrays.asList(coverage, bugs), trend.get(2));
+    assertEquals(Arrays.asList(3, 2), Arrays.asList(reports.getTrend(project, 2).keySet().toArray()));
+
+    second.delete();
+    assertEquals(Arrays.asList(3, 1), Arrays.asList(reports.getTrend(project, 10).keySet().toArray()));
+
+    // A later execution in the same build replaces its metrics.
+    reports.record(third, "6", Arrays.asList(coverage));
+    assertEquals(Arrays.asList(coverage), reports.getTrend(project, 10).get(3));
+  }
+
+  @Test
+  public void trendIsCompacted() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    QualityReports reports = QualityReports.get();
+
+    // Each execution supersedes the last one's metrics.
+    for (int i = 0; i <= QualityReports.COMPACT_SLACK + 1; i++) {
+      reports.record(build, String.valueOf(i), Arrays.asList(coverage));
+    }
+    File file = new File(project.getRootDir(), QualityReports.JOB_FILE);
+    assertTrue(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size() < QualityReports.COMPACT_SLACK);
+    assertEquals(Arrays.asList(coverage), reports.getTrend(project, 10).get(1));
+
+    reports.record(build, "latest", Arrays.asList(bugs));
+    assertEquals(Arrays.asList(bugs), reports.getTrend(project, 10).get(1));
+  }
+}
@@ -0,0 +1,94 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.jenkinsci.plugins.workflow.test.steps.SemaphoreStep;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import static io.adobe.cloudmanager.PipelineExecutionStepState.Status.*;
+import static org.junit.Assert.*;
+
+public class RunEventBroadcasterTest {
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Test
+  public void streamsSteps() throws Exception {
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    job.setDefinition(new CpsFlowDefinition("semaphore 'wait'", true));
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    SemaphoreStep.waitForStart("wait/1", run);
+
+    CloudManagerBuildAction action = new CloudManagerBuildAction("AIO Project", new CloudManagerPipelineExecution("1", "1", "1"));
+    run.addAction(action);
+
+    HttpURLConnection conn = (HttpURLConnection) new URL(rule.getURL(), run.getUrl() + action.getUrlName() + "/stream").openConnection();
+    assertEquals(200, conn.getResponseCode());
+    assertTrue(conn.getContentType().startsWith("text/event-stream"));
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
+      assertEquals(":", reader.readLine());
+      assertEquals("", reader.readLine());
+      assertEquals(1, RunEventBroadcaster.get().getSubscriberCount());
+
+      action.addStep(run, new CloudManagerBuildAction.PipelineStep(StepAction.build, FINISHED, true));
+      assertEquals("event: step", reader.readLine());
+      String data = reader.readLine();
+      assertTrue(data.startsWith("data: "));
+      JSONObject json = JSONObject.fromObject(data.substring("data: ".length()));
+      assertEquals(0, json.getInt("index"));
+      assertEquals("build", json.getString("action"));
+      assertEquals(action.getUrlName(), json.getString("execution"));
+      assertEquals("", reader.readLine());
+
+      SemaphoreStep.success("wait/1", null);
+      rule.assertBuildStatusSuccess(rule.waitForCompletion(run));
+      String line;
+      do {
+        line = reader.readLine();
+      } while (":".equals(line) || "".equals(line));
+      assertEquals("event: end", line);
+      assertEquals("data: {}", reader.readLine());
+      assertEquals("", reader.readLine());
+      assertNull(reader.readLine());
+    }
+    assertEquals(0, RunEventBroadcaster.get().getSubscriberCount());
+  }
+}
@@ -0,0 +1,109 @@
+package io.jenkins.plugins.adobe.cloudmanager.action;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hudson.XmlFile;
+import hudson.model.FreeStyleBuild;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import static org.junit.Assert.*;
+
+public class RunSaverTest {
+
+  private static final AtomicInteger saves = new AtomicInteger();
+  private static volatile Saveable watched;
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  private FreeStyleBuild build;
+
+  @Before
+  public void before() throws Exception {
+    build = rule.buildAndAssertSuccess(rule.createFreeStyleProject());
+    watched = build;
+    saves.set(0);
+  }
+
+  @Test
+  public void coalescesSaves() throws Exception {
+    RunSaver.save(build);
+    RunSaver.save(build);
+    RunSaver.save(build);
+    assertEquals(0, saves.get());
+    waitForSaves(1);
+    Thread.sleep(RunSaver.DELAY + 1000);
+    assertEquals(1, saves.get());
+
+    // Changes after the save was written schedule another.
+    RunSaver.save(build);
+    waitForSaves(2);
+  }
+
+  @Test
+  public void flushSavesImmediately() throws Exception {
+    RunSaver.save(build);
+    RunSaver.flushAll();
+    assertEquals(1, saves.get());
+    Thread.sleep(RunSaver.DELAY + 1000);
+    assertEquals(1, saves.get());
+  }
+
+  @Test
+  public void deleteCancelsSave() throws Exception {
+    RunSaver.save(build);
+    build.delete();
+    Thread.sleep(RunSaver.DELAY + 1000);
+    assertEquals(0, saves.get());
+  }
+
+  private static void waitForSaves(int expected) throws InterruptedException {
+    long end = System.currentTimeMillis() + RunSaver.DELAY + TimeUnit.SECONDS.toMillis(10);
+    while (saves.get() < expected && System.currentTimeMillis() < end) {
+      Thread.sleep(100);
+    }
+    assertEquals(expected, saves.get());
+  }
+
+  @TestExtension
+  public static final class SaveCounter extends SaveableListener {
+    @Override
+    public void onChange(Saveable o, XmlFile file) {
+      if (o == watched) {
+        saves.incrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PipelineStartQueueTest {
+
+  private static final String PROGRAM_ID = "1";
+  private static final String PIPELINE_ID = "2";
+  private static final long WAIT = TimeUnit.SECONDS.toMillis(30);
+
+  // Polling never happens during a test, so only end events wake the queue.
+  private final PipelineStartQueue queue = new PipelineStartQueue(TimeUnit.HOURS.toMillis(1));
+  private final AtomicBoolean busy = new AtomicBoolean();
+  private final AtomicInteger started = new AtomicInteger();
+  private final ExecutorService threads = Executors.newCachedThreadPool();
+
+  @Mocked
+  private PipelineExecution execution;
+
+  @After
+  public void after() {
+    threads.shutdownNow();
+  }
+
+  private PipelineStartQueue.Starter starter() {
+    return new PipelineStartQueue.Starter() {
+      @Override
+      public boolean isBusy() {
+        return busy.get();
+      }
+
+      @Nonnull
+      @Override
+      public PipelineExecution start() {
+        started.incrementAndGet();
+        return execution;
+      }
+    };
+  }
+
+  @Test
+  public void startsIdlePipeline() throws Exception {
+    assertSame(execution, queue.start(PROGRAM_ID, PIPELINE_ID, starter(), null, WAIT));
+    assertEquals(1, started.get());
+    assertFalse(queue.isWaiting(PROGRAM_ID, PIPELINE_ID));
+  }
+
+  @Test
+  public void coalescesUntilEnded() throws Exception {
+    busy.set(true);
+    CountDownLatch firstBusy = new CountDownLatch(1);
+    CountDownLatch secondBusy = new CountDownLatch(1);
+    Future<PipelineExecution> first = threads.submit(() -> queue.start(PROGRAM_ID, PIPELINE_ID, starter(), firstBusy::countDown, WAIT));
+    assertTrue(firstBusy.await(WAIT, TimeUnit.MILLISECONDS));
+    assertTrue(queue.isWaiting(PROGRAM_ID, PIPELINE_ID));
+
+    Future<PipelineExecution> second = threads.submit(() -> queue.start(PROGRAM_ID, PIPELINE_ID, starter(), secondBusy::countDown, WAIT));
+    // Still busy, so each end event is just another check, which tells the second request once it has joined.
+    do {
+      queue.ended(PROGRAM_ID, PIPELINE_ID);
+    } while (!secondBusy.await(100, TimeUnit.MILLISECONDS));
+    assertEquals(0, started.get());
+
+    busy.set(false);
+    queue.ended(PROGRAM_ID, PIPELINE_ID);
+    assertSame(execution, first.get(WAIT, TimeUnit.MILLISECONDS));
+    assertSame(execution, second.get(WAIT, TimeUnit.MILLISECONDS));
+    assertEquals(1, started.get());
+    assertFalse(queue.isWaiting(PROGRAM_ID, PIPELINE_ID));
+  }
+
+  @Test
+  public void timesOut() throws Exception {
+    busy.set(true);
+    try {
+      queue.start(PROGRAM_ID, PIPELINE_ID, starter(), null, 200);
+      fail("Start should have timed out.");
+    } catch (TimeoutException e) {
+      // expected
+    }
+    assertFalse(queue.isWaiting(PROGRAM_ID, PIPELINE_ID));
+    busy.set(false);
+    queue.ended(PROGRAM_ID, PIPELINE_ID);
+    assertEquals(0, started.get());
+  }
+
+  @Test
+  public void startFails() throws Exception {
+    PipelineStartQueue.Starter failing = new PipelineStartQueue.Starter() {
+      @Override
+      public boolean isBusy() {
+        return false;
+      }
+
+      @Nonnull
+      @Override
+      public PipelineExecution start() throws CloudManagerApiException {
+        throw new CloudManagerApiException(CloudManagerApiException.ErrorType.PIPELINE_START, "Error");
+      }
+    };
+    try {
+      queue.start(PROGRAM_ID, PIPELINE_ID, failing, null, WAIT);
+      fail("Start should have failed.");
+    } catch (CloudManagerApiException e) {
+      assertTrue(e.getMessage().contains("Error"));
+    }
+    assertFalse(queue.isWaiting(PROGRAM_ID, PIPELINE_ID));
+  }
+
+  @Test
+  public void checkFailureKeepsWaiting() throws Exception {
+    AtomicInteger checks = new AtomicInteger();
+    PipelineStartQueue.Starter unavailable = new PipelineStartQueue.Starter() {
+      @Override
+      public boolean isBusy() {
+        if (checks.incrementAndGet() == 1) {
+          throw new ApiUnavailableException("Unavailable");
+        }
+        return false;
+      }
+
+      @Nonnull
+      @Override
+      public PipelineExecution start() {
+        started.incrementAndGet();
+        return execution;
+      }
+    };
+    Future<PipelineExecution> waiting = threads.submit(() -> queue.start(PROGRAM_ID, PIPELINE_ID, unavailable, null, WAIT));
+    while (checks.get() == 0) {
+      Thread.sleep(10);
+    }
+    queue.ended(PROGRAM_ID, PIPELINE_ID);
+    assertSame(execution, waiting.get(WAIT, TimeUnit.MILLISECONDS));
+    assertEquals(1, started.get());
+  }
+
+  @Test
+  public void endDuringCheckChecksAgain() throws Exception {
+    CountDownLatch checking = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    PipelineStartQueue.Starter slow = new PipelineStartQueue.Starter() {
+      @Override
+      public boolean isBusy() throws CloudManagerApiException {
+        if (checking.getCount() > 0) {
+          checking.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return true;
+        }
+        return false;
+      }
+
+      @Nonnull
+      @Override
+      public PipelineExecution start() {
+        started.incrementAndGet();
+        return execution;
+      }
+    };
+    Future<PipelineExecution> waiting = threads.submit(() -> queue.start(PROGRAM_ID, PIPELINE_ID, slow, null, WAIT));
+    assertTrue(checking.await(WAIT, TimeUnit.MILLISECONDS));
+
+    // Doesn't wait for the check in flight, which checks again once it's done rather than waiting for the next poll.
+    Future<?> ended = threads.submit(() -> queue.ended(PROGRAM_ID, PIPELINE_ID));
+    ended.get(WAIT, TimeUnit.MILLISECONDS);
+    assertEquals(0, started.get());
+    release.countDown();
+    assertSame(execution, waiting.get(WAIT, TimeUnit.MILLISECONDS));
+    assertEquals(1, started.get());
+  }
+}
@@ -0,0 +1,91 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RemoteHeadsCacheTest {
+
+  private static final String URL = "https://git.cloudmanager.adobe.com/org/repo.git";
+  private static final String CREDENTIALS = "credentials-id";
+  private static final String REF = "refs/heads/main";
+  private final ObjectId first = ObjectId.fromString("0123456789012345678901234567890123456789");
+  private final ObjectId second = ObjectId.fromString("9876543210987654321098765432109876543210");
+
+  private final AtomicLong now = new AtomicLong(1000);
+  private final AtomicInteger listed = new AtomicInteger();
+  private final RemoteHeadsCache cache = new RemoteHeadsCache(now::get);
+
+  private RemoteHeadsCache.Lister lister(ObjectId id) {
+    return () -> {
+      listed.incrementAndGet();
+      return Collections.singletonMap(REF, id);
+    };
+  }
+
+  @Test
+  public void listsOncePerTtl() throws Exception {
+    assertEquals(first, cache.getHead(URL, CREDENTIALS, REF, lister(first)));
+    assertEquals(first, cache.getHead(URL, CREDENTIALS, REF, lister(second)));
+    assertNull(cache.getHead(URL, CREDENTIALS, "refs/heads/other", lister(second)));
+    assertEquals(1, listed.get());
+
+    now.addAndGet(RemoteHeadsCache.TTL);
+    assertEquals(second, cache.getHead(URL, CREDENTIALS, REF, lister(second)));
+    assertEquals(2, listed.get());
+  }
+
+  @Test
+  public void tracksPushes() throws Exception {
+    assertEquals(first, cache.getHead(URL, CREDENTIALS, REF, lister(first)));
+    cache.pushed(URL, CREDENTIALS, REF, second);
+    assertEquals(second, cache.getHead(URL, CREDENTIALS, REF, lister(first)));
+    assertEquals(1, listed.get());
+
+    cache.invalidate(URL, CREDENTIALS);
+    assertEquals(first, cache.getHead(URL, CREDENTIALS, REF, lister(first)));
+    assertEquals(2, listed.get());
+  }
+
+  @Test
+  public void separatesCredentials() throws Exception {
+    assertEquals(first, cache.getHead(URL, CREDENTIALS, REF, lister(first)));
+    assertEquals(second, cache.getHead(URL, "other-credentials", REF, lister(second)));
+    assertEquals(2, listed.get());
+
+    cache.pushed(URL, "other-credentials", REF, first);
+    assertEquals(first, cache.getHead(URL, CREDENTIALS, REF, lister(second)));
+    assertEquals(first, cache.getHead(URL, "other-credentials", REF, lister(second)));
+    assertEquals(2, listed.get());
+  }
+}
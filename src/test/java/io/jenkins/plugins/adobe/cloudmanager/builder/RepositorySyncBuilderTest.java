@@ -26,6 +26,9 @@ package io.jenkins.plugins.adobe.cloudmanager.builder;
  * #L%
  */
 
+import java.io.File;
+import javax.annotation.Nonnull;
+
 import org.apache.commons.lang3.StringUtils;
 
 import com.cloudbees.plugins.credentials.Credentials;
@@ -34,15 +37,23 @@ import com.cloudbees.plugins.credentials.CredentialsScope;
 import com.cloudbees.plugins.credentials.CredentialsStore;
 import com.cloudbees.plugins.credentials.domains.Domain;
 import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import hudson.model.Computer;
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
 import hudson.model.Label;
+import hudson.model.Node;
 import hudson.model.Result;
+import hudson.model.User;
 import hudson.plugins.git.GitSCM;
 import hudson.scm.SCM;
+import hudson.security.ACL;
+import hudson.slaves.DumbSlave;
 import hudson.tasks.Builder;
+import io.jenkins.plugins.adobe.cloudmanager.action.RepositorySyncAction;
+import jenkins.model.Jenkins;
 import jenkins.plugins.git.CliGitCommand;
 import jenkins.plugins.git.GitSampleRepoRule;
+import jenkins.security.QueueItemAuthenticatorConfiguration;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.DefaultServlet;
@@ -59,6 +70,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.BuildWatcher;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockQueueItemAuthenticator;
 import static org.junit.Assert.*;
 
 public class RepositorySyncBuilderTest {
@@ -86,6 +99,9 @@ public class RepositorySyncBuilderTest {
   @Rule
   public GitSampleRepoRule updatedDestRepo = new GitSampleRepoRule();
 
+  @Rule
+  public GitSampleRepoRule secondBareDestRepo = new GitSampleRepoRule();
+
   @BeforeClass
   public static void beforeClass() throws Exception {
     CliGitCommand cmd = new CliGitCommand(null);
@@ -306,6 +322,141 @@ public class RepositorySyncBuilderTest {
     assertEquals(srcRepo.head(), destRepo.head());
   }
 
+  @Test
+  public void skipsUpToDateRemote() throws Exception {
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    rule.createOnlineSlave(Label.get("runner"));
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node('runner') {\n" +
+            "  ws {\n" +
+            "    git(url: $/" + srcRepo + "/$, branch: '" + defaultBranch + "')\n" +
+            "    acmRepoSync(url: $/" + bareDestRepo + "/$, credentialsId: 'credentials')\n" +
+            "  }\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+
+    WorkflowRun first = rule.buildAndAssertSuccess(job);
+    assertTrue(StringUtils.contains(first.getLog(), Messages.RepositorySyncBuilder_pushMessage(bareDestRepo.toString())));
+    WorkflowRun second = rule.buildAndAssertSuccess(job);
+    assertTrue(StringUtils.contains(second.getLog(), Messages.RepositorySyncBuilder_upToDate(bareDestRepo.toString(), "refs/heads/" + defaultBranch)));
+    assertFalse(StringUtils.contains(second.getLog(), Messages.RepositorySyncBuilder_pushMessage(bareDestRepo.toString())));
+    assertEquals(0, second.getAction(RepositorySyncAction.class).getPushes().get(0).getRefs());
+  }
+
+  @Test
+  public void multipleRefsAndRemotes() throws Exception {
+    srcRepo.git("checkout", "-b", "other");
+    srcRepo.write("otherfile", "othercontents");
+    srcRepo.git("add", "otherfile");
+    srcRepo.git("commit", "--message=other");
+    String other = srcRepo.head();
+    srcRepo.git("checkout", defaultBranch);
+    String main = srcRepo.head();
+    secondBareDestRepo.git("init", "--bare");
+    secondBareDestRepo.git("symbolic-ref", "HEAD", "refs/heads/" + defaultBranch);
+
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    rule.createOnlineSlave(Label.get("runner"));
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node('runner') {\n" +
+            "  ws {\n" +
+            "    git(url: $/" + srcRepo + "/$, branch: '" + defaultBranch + "')\n" +
+            "    acmRepoSync(url: $/" + bareDestRepo + "/$, credentialsId: 'credentials', refspecs: '" + defaultBranch + " other:refs/heads/copy',\n" +
+            "      targets: [[url: $/" + secondBareDestRepo + "/$, credentialsId: 'credentials']], countObjects: true)\n" +
+            "  }\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+
+    WorkflowRun run = rule.buildAndAssertSuccess(job);
+    assertTrue(StringUtils.contains(run.getLog(), "pushed 2 of 2 ref(s)"));
+    RepositorySyncAction action = run.getAction(RepositorySyncAction.class);
+    assertNotNull(action);
+    assertEquals(2, action.getPushes().size());
+    for (RepositorySyncAction.Push push : action.getPushes()) {
+      assertEquals(2, push.getRefs());
+      assertTrue(push.getObjects() > 0);
+      assertTrue(push.getBytes() > 0);
+    }
+
+    destRepo.git("clone", bareDestRepo.toString(), ".");
+    assertEquals(main, destRepo.head());
+    destRepo.git("checkout", "copy");
+    assertEquals(other, destRepo.head());
+    updatedDestRepo.git("clone", secondBareDestRepo.toString(), ".");
+    assertEquals(main, updatedDestRepo.head());
+    updatedDestRepo.git("checkout", "copy");
+    assertEquals(other, updatedDestRepo.head());
+  }
+
+  @Test
+  public void mirrorWithoutWorkspace() throws Exception {
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    rule.createOnlineSlave(Label.get("runner"));
+    DumbSlave mirrors = rule.createOnlineSlave();
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node('runner') {\n" +
+            "  git(url: $/" + srcRepo + "/$, branch: '" + defaultBranch + "')\n" +
+            "}\n" +
+            "acmRepoSync(url: $/" + bareDestRepo + "/$, credentialsId: 'credentials', mirror: true, mirrorNode: '" + mirrors.getNodeName() + "')\n",
+        true);
+    job.setDefinition(flow);
+
+    WorkflowRun run = rule.buildAndAssertSuccess(job);
+    assertTrue(StringUtils.contains(run.getLog(), "Creating mirror of Cloud Manager remote"));
+    assertTrue(mirrors.getRootPath().child(RepositoryMirror.DIR).isDirectory());
+    assertFalse(new File(rule.jenkins.getRootDir(), RepositoryMirror.DIR).exists());
+    destRepo.git("clone", bareDestRepo.toString(), ".");
+    assertEquals(srcRepo.head(), destRepo.head());
+
+    srcRepo.write("newfile", "filecontents");
+    srcRepo.git("add", "newfile");
+    srcRepo.git("commit", "--message=file");
+    run = rule.buildAndAssertSuccess(job);
+    assertFalse(StringUtils.contains(run.getLog(), "Creating mirror of Cloud Manager remote"));
+    destRepo.git("pull", "origin", defaultBranch);
+    assertEquals(srcRepo.head(), destRepo.head());
+  }
+
+  @Test
+  public void mirrorRequiresAgent() throws Exception {
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    rule.createOnlineSlave(Label.get("runner"));
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node('runner') {\n" +
+            "  git(url: $/" + srcRepo + "/$, branch: '" + defaultBranch + "')\n" +
+            "}\n" +
+            "acmRepoSync(url: $/" + bareDestRepo + "/$, credentialsId: 'credentials', mirror: true)\n",
+        true);
+    job.setDefinition(flow);
+
+    WorkflowRun run = rule.assertBuildStatus(Result.FAILURE, job.scheduleBuild2(0));
+    rule.assertLogContains(Messages.RepositoryMirror_error_noNode(), run);
+    assertFalse(new File(rule.jenkins.getRootDir(), RepositoryMirror.DIR).exists());
+  }
+
+  @Test
+  public void mirrorRequiresBuildPermission() throws Exception {
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    rule.createOnlineSlave(Label.get("runner"));
+    DumbSlave mirrors = rule.createOnlineSlave();
+    rule.jenkins.setSecurityRealm(rule.createDummySecurityRealm());
+    rule.jenkins.setAuthorizationStrategy(new NodeAuthorizationStrategy(mirrors.getNodeName()));
+    QueueItemAuthenticatorConfiguration.get().getAuthenticators().add(new MockQueueItemAuthenticator().authenticate(job.getFullName(), User.getById("dev", true).impersonate2()));
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node('runner') {\n" +
+            "  git(url: $/" + srcRepo + "/$, branch: '" + defaultBranch + "')\n" +
+            "}\n" +
+            "acmRepoSync(url: $/" + bareDestRepo + "/$, credentialsId: 'credentials', mirror: true, mirrorNode: '" + mirrors.getNodeName() + "')\n",
+        true);
+    job.setDefinition(flow);
+
+    WorkflowRun run = rule.assertBuildStatus(Result.FAILURE, job.scheduleBuild2(0));
+    rule.assertLogContains(Messages.RepositoryMirror_error_permission("dev", mirrors.getNodeName()), run);
+    assertFalse(mirrors.getRootPath().child(RepositoryMirror.DIR).exists());
+  }
+
   @Test
   public void pipelineSuccess() throws Exception {
 
@@ -393,4 +544,24 @@ public class RepositorySyncBuilderTest {
     rule.waitForCompletion(run);
     rule.assertBuildStatus(Result.SUCCESS, run);
   }
+
+  // Everything is allowed, except building on the named node.
+  public static class NodeAuthorizationStrategy extends MockAuthorizationStrategy {
+    private final String denied;
+
+    NodeAuthorizationStrategy(String denied) {
+      this.denied = denied;
+      grant(Jenkins.ADMINISTER).everywhere().toEveryone();
+    }
+
+    @Nonnull
+    @Override
+    public ACL getACL(@Nonnull Node node) {
+      ACL acl = super.getACL(node);
+      if (!denied.equals(node.getNodeName())) {
+        return acl;
+      }
+      return ACL.lambda2((a, p) -> p != Computer.BUILD && acl.hasPermission2(a, p));
+    }
+  }
 }
@@ -0,0 +1,200 @@
+package io.jenkins.plugins.adobe.cloudmanager.builder;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import hudson.model.Label;
+import hudson.model.Result;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.PipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.DescriptorHelperTest;
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Injectable;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
+
+public class StartPipelinesBuilderTest {
+
+  public static final String programId = "1101";
+  public static final String pipelineId = "2202";
+  public static final String otherProgramId = "1102";
+  public static final String otherPipelineId = "2203";
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Mocked
+  private CloudManagerApi api;
+
+  @Before
+  public void before() {
+    new MockUp<StartPipelinesBuilder>() {
+      @Mock
+      public CloudManagerApi createApi() {
+        return api;
+      }
+    };
+  }
+
+  private WorkflowRun run(String pipelines) throws Exception {
+    rule.createOnlineSlave(Label.get("runner"));
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node('runner') {\n" +
+            "    acmStartPipelines(aioProject: '" + AIO_PROJECT_NAME + "', pipelines: [" + pipelines + "])\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    rule.waitForCompletion(run);
+    return run;
+  }
+
+  @Test
+  public void startsAll(@Injectable PipelineExecution first, @Injectable PipelineExecution second) throws Exception {
+
+    new Expectations() {{
+      api.listPrograms();
+      result = Collections.singletonList(new DescriptorHelperTest.ProgramImpl(otherProgramId, "Other"));
+      times = 1;
+      api.listPipelines(otherProgramId);
+      result = Collections.singletonList(new DescriptorHelperTest.PipelineImpl(otherPipelineId, "Deploy"));
+      api.startExecution(programId, pipelineId);
+      result = first;
+      times = 1;
+      api.startExecution(otherProgramId, otherPipelineId);
+      result = second;
+      times = 1;
+      first.getProgramId();
+      result = programId;
+      first.getPipelineId();
+      result = pipelineId;
+      first.getId();
+      result = "3303";
+      second.getProgramId();
+      result = otherProgramId;
+      second.getPipelineId();
+      result = otherPipelineId;
+      second.getId();
+      result = "3304";
+    }};
+
+    WorkflowRun run = run("[program: '" + programId + "', pipeline: '" + pipelineId + "'], " +
+        "[program: 'Other', pipeline: 'Deploy'], " +
+        "[program: '" + otherProgramId + "', pipeline: 'Deploy']");
+    rule.assertBuildStatus(Result.SUCCESS, run);
+    assertTrue(run.getLog().contains(Messages.StartPipelineBuilder_started("3303", pipelineId)));
+    assertTrue(run.getLog().contains(Messages.StartPipelineBuilder_started("3304", "Deploy")));
+    List<CloudManagerBuildAction> actions = run.getActions(CloudManagerBuildAction.class);
+    assertEquals(2, actions.size());
+    assertEquals(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution(programId, pipelineId, "3303")), actions.get(0));
+    assertEquals(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution(otherProgramId, otherPipelineId, "3304")), actions.get(1));
+  }
+
+  @Test
+  public void missingPipeline() throws Exception {
+
+    new Expectations() {{
+      api.listPipelines(programId);
+      result = Collections.singletonList(new DescriptorHelperTest.PipelineImpl(pipelineId, "Deploy"));
+      api.startExecution(anyString, anyString);
+      times = 0;
+    }};
+
+    WorkflowRun run = run("[program: '" + programId + "', pipeline: 'Missing']");
+    rule.assertBuildStatus(Result.FAILURE, run);
+    assertTrue(run.getLog().contains(Messages.CloudManagerBuilder_error_missingPipeline("Missing")));
+    assertNull(run.getAction(CloudManagerBuildAction.class));
+  }
+
+  @Test
+  public void abortRecordsStarted(@Injectable PipelineExecution first) throws Exception {
+    CountDownLatch starting = new CountDownLatch(2);
+    new Expectations() {{
+      api.startExecution(programId, pipelineId);
+      result = new Delegate<PipelineExecution>() {
+        PipelineExecution delegate() {
+          starting.countDown();
+          return first;
+        }
+      };
+      api.startExecution(otherProgramId, otherPipelineId);
+      result = new Delegate<PipelineExecution>() {
+        PipelineExecution delegate() {
+          starting.countDown();
+          try {
+            Thread.sleep(Long.MAX_VALUE);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          throw new IllegalStateException("Interrupted");
+        }
+      };
+      first.getProgramId();
+      result = programId;
+      first.getPipelineId();
+      result = pipelineId;
+      first.getId();
+      result = "3303";
+    }};
+
+    rule.createOnlineSlave(Label.get("runner"));
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "node('runner') {\n" +
+            "    acmStartPipelines(aioProject: '" + AIO_PROJECT_NAME + "', queueTimeout: 0, pipelines: [" +
+            "[program: '" + programId + "', pipeline: '" + pipelineId + "'], [program: '" + otherProgramId + "', pipeline: '" + otherPipelineId + "']])\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+    assertTrue(starting.await(30, TimeUnit.SECONDS));
+    run.doStop();
+    rule.waitForCompletion(run);
+    rule.assertBuildStatus(Result.ABORTED, run);
+    List<CloudManagerBuildAction> actions = run.getActions(CloudManagerBuildAction.class);
+    assertEquals(1, actions.size());
+    assertEquals(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution(programId, pipelineId, "3303")), actions.get(0));
+  }
+}
@@ -26,6 +26,9 @@ package io.jenkins.plugins.adobe.cloudmanager.step;
  * #L%
  */
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import hudson.model.Result;
 import hudson.util.Secret;
 import io.adobe.cloudmanager.CloudManagerApi;
@@ -37,6 +40,7 @@ import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOConfig;
 import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.Messages;
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mock;
 import mockit.MockUp;
@@ -52,6 +56,7 @@ import org.junit.Test;
 import org.jvnet.hudson.test.BuildWatcher;
 import org.jvnet.hudson.test.RestartableJenkinsRule;
 import static io.jenkins.plugins.adobe.cloudmanager.test.TestHelper.*;
+import static org.junit.Assert.*;
 
 public class AdvancePipelineStepTest {
 
@@ -242,4 +247,50 @@ public class AdvancePipelineStepTest {
     });
   }
 
+
+  @Test
+  public void abortCancelsAdvance() {
+    story.then(rule ->  {
+      CountDownLatch calling = new CountDownLatch(1);
+      CountDownLatch interrupted = new CountDownLatch(1);
+      new Expectations() {{
+        projectConfig.authenticate();
+        result = Secret.fromString(ACCESS_TOKEN);
+        api.getExecution("1", "1", "1");
+        result = pipelineExecution;
+        api.getCurrentStep(pipelineExecution);
+        result = new Delegate<PipelineExecutionStepState>() {
+          PipelineExecutionStepState delegate() {
+            calling.countDown();
+            try {
+              Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+              interrupted.countDown();
+            }
+            return stepState;
+          }
+        };
+        api.advanceExecution(pipelineExecution);
+        times = 0;
+      }};
+
+      WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+      CpsFlowDefinition flow = new CpsFlowDefinition(
+          "node {\n" +
+              "    semaphore 'before'\n" +
+              "    acmAdvancePipeline(actions:['codeQuality'])\n" +
+              "}",
+          true);
+      job.setDefinition(flow);
+      WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+      SemaphoreStep.waitForStart("before/1", run);
+      run.addAction(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1")));
+      SemaphoreStep.success("before/1", true);
+      assertTrue(calling.await(30, TimeUnit.SECONDS));
+      run.doStop();
+      rule.waitForCompletion(run);
+      rule.assertBuildStatus(Result.ABORTED, run);
+      assertTrue(interrupted.await(30, TimeUnit.SECONDS));
+    });
+  }
 }
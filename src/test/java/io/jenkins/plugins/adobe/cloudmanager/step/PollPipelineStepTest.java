@@ -46,6 +46,7 @@ import io.jenkins.plugins.adobe.cloudmanager.config.AdobeIOProjectConfig;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.Messages;
 import io.jenkins.plugins.adobe.cloudmanager.step.execution.PollPipelineExecution;
 import io.jenkins.plugins.adobe.cloudmanager.test.RestartTest;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
 import mockit.Expectations;
 import mockit.Mock;
@@ -274,6 +275,43 @@ public class PollPipelineStepTest {
     });
   }
 
+  @Test
+  public void apiUnavailableRetries() {
+
+    story.then(rule -> {
+      new MockUp<AdobeIOConfig>() {
+        @Mock
+        public AdobeIOProjectConfig projectConfigFor(String name) {
+          return projectConfig;
+        }
+      };
+
+      new Expectations(projectConfig) {{
+        projectConfig.authenticate();
+        result = Secret.fromString(ACCESS_TOKEN);
+        api.isExecutionRunning("1", "1", "1");
+        result = new ApiUnavailableException("Unavailable");
+        result = false;
+      }};
+
+      WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+      CpsFlowDefinition flow = new CpsFlowDefinition(
+          "node {\n" +
+              "    semaphore 'before'\n" +
+              "    acmPollPipeline()\n" +
+              "}",
+          true);
+      job.setDefinition(flow);
+      WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+      SemaphoreStep.waitForStart("before/1", run);
+      run.addAction(new CloudManagerBuildAction(AIO_PROJECT_NAME, new CloudManagerPipelineExecution("1", "1", "1")));
+      SemaphoreStep.success("before/1", true);
+      rule.waitForMessage(Messages.PollPipelineExecution_unavailable("Unavailable", Util.getTimeSpanString(TimeUnit.SECONDS.toMillis(1))), run);
+      rule.waitForCompletion(run);
+      rule.assertBuildStatusSuccess(run);
+    });
+  }
+
   @Test
   @Category(RestartTest.class)
   public void survivesRestart() {
@@ -352,4 +390,20 @@ public class PollPipelineStepTest {
       }
     }
   }
+
+  @TestExtension("apiUnavailableRetries")
+  public static final class ShortPeriodStepListener implements StepListener {
+    @Override
+    public void notifyOfNewStep(@Nonnull Step step, @Nonnull StepContext stepContext) {
+      if (step instanceof PollPipelineStep) {
+        try {
+          Field rp = PollPipelineStep.class.getDeclaredField("recurrencePeriod");
+          rp.setAccessible(true);
+          rp.set(step, 1000);
+        } catch (Exception e) {
+          fail(e.getLocalizedMessage());
+        }
+      }
+    }
+  }
 }
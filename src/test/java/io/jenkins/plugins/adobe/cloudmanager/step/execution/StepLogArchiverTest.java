@@ -0,0 +1,141 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.sun.net.httpserver.HttpServer;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.TaskListener;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import jenkins.model.ArtifactManager;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import static org.junit.Assert.*;
+
+public class StepLogArchiverTest {
+
+  @Rule
+  public JenkinsRule rule = new JenkinsRule();
+
+  @Mocked
+  private CloudManagerApi api;
+
+  private HttpServer server;
+
+  @Before
+  public void before() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/build.txt", (exchange) -> {
+      byte[] content = "build log\n".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, content.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(content);
+      }
+      exchange.close();
+    });
+    server.createContext("/missing.txt", (exchange) -> {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+    });
+    server.start();
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  @Test
+  public void archivesCompressedLogs() throws Exception {
+    String base = String.format("http://localhost:%d", server.getAddress().getPort());
+    new Expectations() {{
+      api.getExecutionStepLogDownloadUrl("4", "5", "6", "build", null);
+      result = base + "/build.txt";
+      api.getExecutionStepLogDownloadUrl("4", "5", "6", "deploy", null);
+      result = base + "/missing.txt";
+    }};
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+
+    StepLogArchiver archiver = new StepLogArchiver(build, new CloudManagerPipelineExecution("4", "5", "6"), api, TaskListener.NULL);
+    int count = archiver.archive(Arrays.asList(new StepLogArchiver.Log(StepAction.build, 0), new StepLogArchiver.Log(StepAction.deploy, 0))).get();
+    assertEquals(1, count);
+
+    ArtifactManager artifacts = build.getArtifactManager();
+    assertFalse(artifacts.root().child(StepLogArchiver.artifactPath("6", new StepLogArchiver.Log(StepAction.deploy, 0))).exists());
+    try (InputStream in = new GZIPInputStream(artifacts.root().child(StepLogArchiver.artifactPath("6", new StepLogArchiver.Log(StepAction.build, 0))).open())) {
+      assertEquals("build log\n", IOUtils.toString(in, StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void archivesEachStep() throws Exception {
+    String base = String.format("http://localhost:%d", server.getAddress().getPort());
+    new Expectations() {{
+      api.getExecutionStepLogDownloadUrl("4", "5", "8", "deploy", null);
+      result = base + "/build.txt";
+    }};
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+
+    StepLogArchiver archiver = new StepLogArchiver(build, new CloudManagerPipelineExecution("4", "5", "8"), api, TaskListener.NULL);
+    StepLogArchiver.Log stage = new StepLogArchiver.Log(StepAction.deploy, 0);
+    StepLogArchiver.Log prod = new StepLogArchiver.Log(StepAction.deploy, 1);
+    assertEquals(2, (int) archiver.archive(Arrays.asList(stage, prod)).get());
+    assertEquals("cloud-manager-logs/8/deploy.log.gz", StepLogArchiver.artifactPath("8", stage));
+    assertEquals("cloud-manager-logs/8/deploy-2.log.gz", StepLogArchiver.artifactPath("8", prod));
+
+    ArtifactManager artifacts = build.getArtifactManager();
+    assertTrue(artifacts.root().child(StepLogArchiver.artifactPath("8", stage)).exists());
+    assertTrue(artifacts.root().child(StepLogArchiver.artifactPath("8", prod)).exists());
+  }
+
+  @Test
+  public void nothingToArchive() throws Exception {
+    FreeStyleProject project = rule.createFreeStyleProject();
+    FreeStyleBuild build = rule.buildAndAssertSuccess(project);
+    StepLogArchiver archiver = new StepLogArchiver(build, new CloudManagerPipelineExecution("4", "5", "7"), api, TaskListener.NULL);
+    assertEquals(0, (int) archiver.archive(Arrays.asList()).get());
+    assertFalse(build.getHasArtifacts());
+  }
+}
@@ -0,0 +1,134 @@
+package io.jenkins.plugins.adobe.cloudmanager.step.execution;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpServer;
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.StepAction;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StepLogTailerTest {
+
+  @Mocked
+  private CloudManagerApi api;
+
+  private HttpServer server;
+  private final StringBuilder log = new StringBuilder();
+  private final List<String> ranges = new ArrayList<>();
+
+  @Before
+  public void before() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/log.txt", (exchange) -> {
+      String range = exchange.getRequestHeaders().getFirst("Range");
+      ranges.add(range);
+      byte[] content = log.toString().getBytes(StandardCharsets.UTF_8);
+      int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+      if (start >= content.length) {
+        exchange.sendResponseHeaders(416, -1);
+      } else {
+        exchange.sendResponseHeaders(206, content.length - start);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(content, start, content.length - start);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  @Test
+  public void writesOnlyNewContent() throws Exception {
+    String url = String.format("http://localhost:%d/log.txt", server.getAddress().getPort());
+    new Expectations() {{
+      api.getExecutionStepLogDownloadUrl("1", "2", "3", "build", null);
+      result = url;
+    }};
+    ByteArrayOutputStream console = new ByteArrayOutputStream();
+    AtomicLong progress = new AtomicLong();
+    StepLogTailer tailer = new StepLogTailer(new CloudManagerPipelineExecution("1", "2", "3"), StepAction.build, api,
+        new PrintStream(console, true, StandardCharsets.UTF_8), 0, progress::set);
+
+    log.append("line 1\nline 2\n");
+    tailer.finish();
+    assertEquals("[build] line 1\n[build] line 2\n", console.toString(StandardCharsets.UTF_8));
+    assertEquals(14, progress.get());
+
+    tailer.finish();
+    assertEquals("[build] line 1\n[build] line 2\n", console.toString(StandardCharsets.UTF_8));
+
+    log.append("line 3\n");
+    tailer.finish();
+    assertEquals("[build] line 1\n[build] line 2\n[build] line 3\n", console.toString(StandardCharsets.UTF_8));
+    assertEquals(21, progress.get());
+    assertEquals("bytes=0-", ranges.get(0));
+    assertEquals("bytes=14-", ranges.get(2));
+  }
+
+  @Test
+  public void continuesLinesAcrossFetches() throws Exception {
+    String url = String.format("http://localhost:%d/log.txt", server.getAddress().getPort());
+    new Expectations() {{
+      api.getExecutionStepLogDownloadUrl("1", "2", "4", "build", null);
+      result = url;
+    }};
+    ByteArrayOutputStream console = new ByteArrayOutputStream();
+    StepLogTailer tailer = new StepLogTailer(new CloudManagerPipelineExecution("1", "2", "4"), StepAction.build, api,
+        new PrintStream(console, true, StandardCharsets.UTF_8), 0, (offset) -> { });
+
+    log.append("line 1\npart");
+    tailer.fetch();
+    assertEquals("[build] line 1\n[build] part", console.toString(StandardCharsets.UTF_8));
+
+    log.append("ial\nend");
+    tailer.fetch();
+    assertEquals("[build] line 1\n[build] partial\n[build] end", console.toString(StandardCharsets.UTF_8));
+
+    tailer.finish();
+    assertEquals("[build] line 1\n[build] partial\n[build] end\n", console.toString(StandardCharsets.UTF_8));
+  }
+}
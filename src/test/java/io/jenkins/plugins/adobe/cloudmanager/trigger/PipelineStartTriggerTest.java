@@ -27,6 +27,8 @@ package io.jenkins.plugins.adobe.cloudmanager.trigger;
  */
 
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -36,7 +38,9 @@ import io.adobe.cloudmanager.CloudManagerApi;
 import io.adobe.cloudmanager.Pipeline;
 import io.adobe.cloudmanager.Program;
 import io.jenkins.plugins.adobe.cloudmanager.action.CloudManagerBuildAction;
+import io.jenkins.plugins.adobe.cloudmanager.util.ApiUnavailableException;
 import io.jenkins.plugins.adobe.cloudmanager.util.CloudManagerApiUtil;
+import mockit.Expectations;
 import mockit.Mock;
 import mockit.MockUp;
 import mockit.Mocked;
@@ -75,6 +79,7 @@ public class PipelineStartTriggerTest {
 
   @Before
   public void before() {
+    TriggerIdResolver.get().invalidate();
     new MockUp<CloudManagerApiUtil>() {
       @Mock
       public Function<String, Optional<CloudManagerApi>> createApi() {
@@ -137,16 +142,22 @@ public class PipelineStartTriggerTest {
   @Test
   public void startsJobUsingNames() throws Exception {
 
-    new MockUp<CloudManagerApiUtil>() {
-      @Mock
-      public Optional<String> getProgramId(CloudManagerApi api, String programName) {
-        return Optional.of("1");
-      }
-      @Mock
-      public Optional<String> getPipelineId(CloudManagerApi api, String programId, String pipelineName) {
-        return Optional.of("2");
-      }
-    };
+    new Expectations() {{
+      program.getName();
+      result = PROGRAM_NAME;
+      program.getId();
+      result = "1";
+      pipeline.getName();
+      result = PIPELINE_NAME;
+      pipeline.getId();
+      result = "2";
+      api.listPrograms();
+      result = Collections.singletonList(program);
+      times = 1;
+      api.listPipelines("1");
+      result = Collections.singletonList(pipeline);
+      times = 1;
+    }};
 
     PipelineStartEvent event = new PipelineStartEvent(EVENT_ID, AIO_PROJECT_NAME, "1", "2", "3", OffsetDateTime.now());
 
@@ -170,9 +181,15 @@ public class PipelineStartTriggerTest {
     rule.waitForCompletion(run);
     rule.assertBuildStatus(Result.SUCCESS, run);
 
-    for (PipelineStartTrigger t : Util.filter(job.getTriggers().values(), PipelineStartTrigger.class)) {
-      t.onEvent(event);
-    }
+    PipelineStartTrigger trigger = awaitResolved(job);
+    assertEquals(PipelineStartTrigger.Status.READY, trigger.getStatus());
+    assertEquals(PROGRAM_NAME, trigger.getProgram());
+    assertEquals("1", trigger.getProgramId());
+    assertEquals(PIPELINE_NAME, trigger.getPipeline());
+    assertEquals("2", trigger.getPipelineId());
+    assertTrue(PipelineStartTrigger.interestedIn(event).test(trigger));
+
+    trigger.onEvent(event);
     while ((run = rule.jenkins.getItemByFullName("test", WorkflowJob.class).getBuildByNumber(2)) == null) {
       Thread.sleep(1000);
     }
@@ -186,9 +203,8 @@ public class PipelineStartTriggerTest {
     assertEquals("3", action.getCmExecution().getExecutionId());
   }
 
-
   @Test
-  public void apiCreateFails() throws Exception {
+  public void idsNeedNoApi() throws Exception {
     new MockUp<CloudManagerApiUtil>() {
       @Mock
       public Function<String, Optional<CloudManagerApi>> createApi() {
@@ -214,14 +230,18 @@ public class PipelineStartTriggerTest {
     WorkflowRun run = job.scheduleBuild2(0).waitForStart();
 
     rule.waitForCompletion(run);
-    rule.assertBuildStatus(Result.FAILURE, run);
+    rule.assertBuildStatus(Result.SUCCESS, run);
+    PipelineStartTrigger trigger = Util.filter(job.getTriggers().values(), PipelineStartTrigger.class).get(0);
+    assertEquals(PipelineStartTrigger.Status.READY, trigger.getStatus());
+    assertEquals("1", trigger.getProgramId());
+    assertEquals("2", trigger.getPipelineId());
   }
 
   @Test
-  public void programIdFails() throws Exception {
+  public void apiCreateFails() throws Exception {
     new MockUp<CloudManagerApiUtil>() {
       @Mock
-      public Function<String, Optional<CloudManagerApi>> getProgramId(CloudManagerApi api, String programName) {
+      public Function<String, Optional<CloudManagerApi>> createApi() {
         return (project) -> Optional.empty();
       }
     };
@@ -244,17 +264,50 @@ public class PipelineStartTriggerTest {
     WorkflowRun run = job.scheduleBuild2(0).waitForStart();
 
     rule.waitForCompletion(run);
-    rule.assertBuildStatus(Result.FAILURE, run);
+    rule.assertBuildStatus(Result.SUCCESS, run);
+    PipelineStartTrigger trigger = awaitResolved(job);
+    assertEquals(PipelineStartTrigger.Status.FAILED, trigger.getStatus());
+    assertEquals(Messages.PipelineStartTrigger_error_missingAioProject(AIO_PROJECT_NAME), trigger.getFailure());
+    assertNull(trigger.getProgramId());
   }
 
   @Test
-  public void pipelineIdFails() throws Exception {
-    new MockUp<CloudManagerApiUtil>() {
-      @Mock
-      public Function<String, Optional<CloudManagerApi>> getPipelineId(CloudManagerApi api, String programId, String pipelineName) {
-        return (project) -> Optional.empty();
-      }
-    };
+  public void programIdFails() throws Exception {
+    new Expectations() {{
+      api.listPrograms();
+      result = Collections.emptyList();
+    }};
+
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "pipeline {\n" +
+            "  agent any\n" +
+            "  triggers { acmPipelineStart(aioProject: '" + AIO_PROJECT_NAME + "', program: '" + PROGRAM_NAME + "', pipeline: '" + PIPELINE_NAME + "') }\n" +
+            "  stages {\n" +
+            "    stage('Started') {\n" +
+            "      steps {\n" +
+            "        echo 'PipelineStartTrigger worked.'\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+
+    rule.waitForCompletion(run);
+    rule.assertBuildStatus(Result.SUCCESS, run);
+    PipelineStartTrigger trigger = awaitResolved(job);
+    assertEquals(PipelineStartTrigger.Status.FAILED, trigger.getStatus());
+    assertEquals(Messages.PipelineStartTrigger_error_missingProgram(PROGRAM_NAME), trigger.getFailure());
+  }
+
+  @Test
+  public void apiUnavailable() throws Exception {
+    new Expectations() {{
+      api.listPrograms();
+      result = new ApiUnavailableException("Unavailable");
+    }};
 
     WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
     CpsFlowDefinition flow = new CpsFlowDefinition(
@@ -274,6 +327,86 @@ public class PipelineStartTriggerTest {
     WorkflowRun run = job.scheduleBuild2(0).waitForStart();
 
     rule.waitForCompletion(run);
-    rule.assertBuildStatus(Result.FAILURE, run);
+    rule.assertBuildStatus(Result.SUCCESS, run);
+    PipelineStartTrigger trigger = awaitResolved(job);
+    assertEquals(PipelineStartTrigger.Status.FAILED, trigger.getStatus());
+    assertEquals("Unavailable", trigger.getFailure());
+  }
+
+  @Test
+  public void pipelineIdFails() throws Exception {
+    new Expectations() {{
+      api.listPipelines("1");
+      result = Collections.emptyList();
+    }};
+
+    WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "test");
+    CpsFlowDefinition flow = new CpsFlowDefinition(
+        "pipeline {\n" +
+            "  agent any\n" +
+            "  triggers { acmPipelineStart(aioProject: '" + AIO_PROJECT_NAME + "', program: '1', pipeline: '" + PIPELINE_NAME + "') }\n" +
+            "  stages {\n" +
+            "    stage('Started') {\n" +
+            "      steps {\n" +
+            "        echo 'PipelineStartTrigger worked.'\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}",
+        true);
+    job.setDefinition(flow);
+    WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+
+    rule.waitForCompletion(run);
+    rule.assertBuildStatus(Result.SUCCESS, run);
+    PipelineStartTrigger trigger = awaitResolved(job);
+    assertEquals(PipelineStartTrigger.Status.FAILED, trigger.getStatus());
+    assertEquals(Messages.PipelineStartTrigger_error_missingPipeline(PIPELINE_NAME), trigger.getFailure());
+    assertEquals("1", trigger.getProgramId());
+    assertNull(trigger.getPipelineId());
+  }
+
+  @Test
+  public void missingNamesAreListedAgain() {
+    new Expectations() {{
+      program.getName();
+      result = PROGRAM_NAME;
+      program.getId();
+      result = "1";
+      pipeline.getName();
+      result = PIPELINE_NAME;
+      pipeline.getId();
+      result = "2";
+      api.listPrograms();
+      returns(Collections.emptyList(), Collections.singletonList(program));
+      times = 2;
+      api.listPipelines("1");
+      returns(Collections.emptyList(), Collections.singletonList(pipeline));
+      times = 2;
+    }};
+
+    TriggerIdResolver resolver = new TriggerIdResolver(System::currentTimeMillis);
+    PipelineStartTrigger trigger = new PipelineStartTrigger(AIO_PROJECT_NAME, PROGRAM_NAME, PIPELINE_NAME);
+    PipelineStartTrigger other = new PipelineStartTrigger(AIO_PROJECT_NAME, PROGRAM_NAME, PIPELINE_NAME);
+    // Triggers in the same pass share the listing.
+    assertEquals(Arrays.asList(trigger, other), resolver.resolve(Arrays.asList(trigger, other)));
+    assertEquals(Messages.PipelineStartTrigger_error_missingProgram(PROGRAM_NAME), trigger.getFailure());
+
+    assertEquals(Collections.singletonList(trigger), resolver.resolve(Collections.singletonList(trigger)));
+    assertEquals(Messages.PipelineStartTrigger_error_missingPipeline(PIPELINE_NAME), trigger.getFailure());
+
+    assertTrue(resolver.resolve(Collections.singletonList(trigger)).isEmpty());
+    assertEquals(PipelineStartTrigger.Status.READY, trigger.getStatus());
+    assertEquals("1", trigger.getProgramId());
+    assertEquals("2", trigger.getPipelineId());
+  }
+
+  // Names are resolved in the background, shortly after the trigger starts.
+  private static PipelineStartTrigger awaitResolved(WorkflowJob job) throws InterruptedException {
+    PipelineStartTrigger trigger = Util.filter(job.getTriggers().values(), PipelineStartTrigger.class).get(0);
+    while (trigger.getStatus() == PipelineStartTrigger.Status.PENDING) {
+      Thread.sleep(100);
+    }
+    return trigger;
   }
 }
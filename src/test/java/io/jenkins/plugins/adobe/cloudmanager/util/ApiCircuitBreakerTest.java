@@ -0,0 +1,99 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.junit.Test;
+import static io.jenkins.plugins.adobe.cloudmanager.util.ApiCircuitBreaker.State.*;
+import static org.junit.Assert.*;
+
+public class ApiCircuitBreakerTest {
+
+  private static final String ORG = "1234567890@AdobeOrg";
+
+  @Test
+  public void opensAfterFailures() throws Exception {
+    ApiCircuitBreaker tested = new ApiCircuitBreaker(2, 60000, 4, 0);
+    tested.admit(ORG, true).complete(false);
+    assertEquals(CLOSED, tested.getState(ORG));
+    tested.admit(ORG, true).complete(false);
+    assertEquals(OPEN, tested.getState(ORG));
+    assertEquals(1, tested.getOpenCount());
+    assertEquals(1, tested.getTransitionCount(OPEN));
+
+    assertThrows(ApiUnavailableException.class, () -> tested.admit(ORG, true));
+    assertEquals(1, tested.getRejectedCount());
+  }
+
+  @Test
+  public void successResetsFailures() throws Exception {
+    ApiCircuitBreaker tested = new ApiCircuitBreaker(2, 60000, 4, 0);
+    tested.admit(ORG, true).complete(false);
+    tested.admit(ORG, true).complete(true);
+    tested.admit(ORG, true).complete(false);
+    assertEquals(CLOSED, tested.getState(ORG));
+  }
+
+  @Test
+  public void halfOpenProbe() throws Exception {
+    ApiCircuitBreaker tested = new ApiCircuitBreaker(1, 0, 4, 0);
+    tested.admit(ORG, true).complete(false);
+    assertEquals(OPEN, tested.getState(ORG));
+
+    ApiCircuitBreaker.Permit probe = tested.admit(ORG, true);
+    assertEquals(HALF_OPEN, tested.getState(ORG));
+    assertThrows(ApiUnavailableException.class, () -> tested.admit(ORG, true));
+    probe.complete(false);
+    assertEquals(OPEN, tested.getState(ORG));
+
+    tested.admit(ORG, true).complete(true);
+    assertEquals(CLOSED, tested.getState(ORG));
+    assertEquals(2, tested.getTransitionCount(HALF_OPEN));
+    assertEquals(1, tested.getTransitionCount(CLOSED));
+  }
+
+  @Test
+  public void bulkhead() throws Exception {
+    ApiCircuitBreaker tested = new ApiCircuitBreaker(1, 60000, 1, 0);
+    ApiCircuitBreaker.Permit permit = tested.admit(ORG, true);
+    assertEquals(1, tested.getInFlight());
+    assertThrows(ApiUnavailableException.class, () -> tested.admit(ORG, true));
+    permit.complete(true);
+    permit.complete(true);
+    assertEquals(0, tested.getInFlight());
+    tested.admit(ORG, true).release();
+    assertEquals(CLOSED, tested.getState(ORG));
+  }
+
+  @Test
+  public void waitingCallerGivesUp() throws Exception {
+    ApiCircuitBreaker tested = new ApiCircuitBreaker(1, 60000, 1, 100);
+    tested.admit(ORG, false).complete(false);
+    long start = System.currentTimeMillis();
+    assertThrows(ApiUnavailableException.class, () -> tested.admit(ORG, false));
+    assertTrue(System.currentTimeMillis() - start >= 100);
+  }
+}
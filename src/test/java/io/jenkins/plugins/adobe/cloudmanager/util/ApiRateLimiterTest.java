@@ -0,0 +1,92 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import static io.jenkins.plugins.adobe.cloudmanager.util.ApiRateLimiter.Priority.*;
+import static org.junit.Assert.*;
+
+public class ApiRateLimiterTest {
+
+  private static final String ORG = "1234567890@AdobeOrg";
+
+  @Test
+  public void burst() throws Exception {
+    ApiRateLimiter tested = new ApiRateLimiter(1, 3);
+    long start = System.nanoTime();
+    for (int i = 0; i < 3; i++) {
+      tested.acquire(ORG, NORMAL);
+    }
+    assertTrue((System.nanoTime() - start) < 500_000_000L);
+    assertEquals(0, tested.getQueueDepth());
+  }
+
+  @Test
+  public void separateOrganizations() throws Exception {
+    ApiRateLimiter tested = new ApiRateLimiter(1, 1);
+    long start = System.nanoTime();
+    tested.acquire(ORG, NORMAL);
+    tested.acquire("Other Org", NORMAL);
+    assertTrue((System.nanoTime() - start) < 500_000_000L);
+  }
+
+  @Test
+  public void higherPriorityFirst() throws Exception {
+    ApiRateLimiter tested = new ApiRateLimiter(1, 1);
+    tested.acquire(ORG, NORMAL);
+
+    List<ApiRateLimiter.Priority> order = new CopyOnWriteArrayList<>();
+    Thread low = new Thread(() -> acquire(tested, LOW, order));
+    low.start();
+    while (tested.getQueueDepth(LOW) == 0) {
+      Thread.sleep(10);
+    }
+    Thread high = new Thread(() -> acquire(tested, HIGH, order));
+    high.start();
+    while (tested.getQueueDepth(HIGH) == 0 && order.isEmpty()) {
+      Thread.sleep(10);
+    }
+    high.join(5000);
+    low.join(5000);
+    assertEquals(2, order.size());
+    assertEquals(HIGH, order.get(0));
+    assertEquals(LOW, order.get(1));
+    assertEquals(0, tested.getQueueDepth());
+  }
+
+  private static void acquire(ApiRateLimiter limiter, ApiRateLimiter.Priority priority, List<ApiRateLimiter.Priority> order) {
+    try {
+      limiter.acquire(ORG, priority);
+      order.add(priority);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+public class AppendLogTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final List<String> applied = new ArrayList<>();
+
+  private void apply(String[] fields) {
+    applied.add(AppendLog.decode(fields[0]) + "=" + AppendLog.optional(fields, 1));
+  }
+
+  @Test
+  public void readsIncrementally() throws Exception {
+    AppendLog log = new AppendLog(new File(folder.getRoot(), "test.log"));
+    log.read(this::apply);
+    assertTrue(applied.isEmpty());
+
+    log.append(AppendLog.record(AppendLog.encode("a b"), AppendLog.encode("1\t2")));
+    log.append(Arrays.asList(AppendLog.record(AppendLog.encode("c"), ""), AppendLog.record(AppendLog.encode("d"))));
+    log.read(this::apply);
+    assertEquals(Arrays.asList("a b=1\t2", "c=null", "d=null"), applied);
+    assertEquals(3, log.getRecords());
+
+    log.append(AppendLog.record("e", "5"));
+    log.read(this::apply);
+    assertEquals(Arrays.asList("a b=1\t2", "c=null", "d=null", "e=5"), applied);
+  }
+
+  @Test
+  public void skipsBadRecords() throws Exception {
+    File file = new File(folder.getRoot(), "test.log");
+    Files.write(file.toPath(), "a\t1\n%zz\t2\nb\t3\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+    AppendLog log = new AppendLog(file);
+    log.read(this::apply);
+    assertEquals(Arrays.asList("a=1", "b=3"), applied);
+    assertEquals(3, log.getRecords());
+  }
+
+  @Test
+  public void rewrites() throws Exception {
+    AppendLog log = new AppendLog(new File(folder.getRoot(), "test.log"));
+    log.append(Arrays.asList(AppendLog.record("a", "1"), AppendLog.record("a", "2"), AppendLog.record("b", "3")));
+    log.read(this::apply);
+
+    log.rewrite(Arrays.asList(AppendLog.record("a", "2"), AppendLog.record("b", "3")));
+    assertEquals(2, log.getRecords());
+    assertFalse(log.isReplaced());
+    assertEquals(Arrays.asList("a\t2", "b\t3"), Files.readAllLines(log.getFile().toPath(), StandardCharsets.UTF_8));
+
+    // Only what's appended after rewriting is read.
+    applied.clear();
+    log.append(AppendLog.record("c", "4"));
+    log.read(this::apply);
+    assertEquals(Arrays.asList("c=4"), applied);
+
+    // Replaced by something else, everything is read again.
+    Files.write(log.getFile().toPath(), "d\t5\n".getBytes(StandardCharsets.UTF_8));
+    assertTrue(log.isReplaced());
+    applied.clear();
+    log.read(this::apply);
+    assertEquals(Arrays.asList("d=5"), applied);
+    assertEquals(1, log.getRecords());
+  }
+}
@@ -27,6 +27,10 @@ package io.jenkins.plugins.adobe.cloudmanager.util;
  */
 
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import hudson.util.Secret;
 import io.adobe.cloudmanager.CloudManagerApi;
@@ -150,4 +154,56 @@ public class CloudManagerApiUtilTest {
     }};
     assertEquals("2", CloudManagerApiUtil.getPipelineId(api, "1", "Found").get());
   }
+
+  @Test
+  public void supplyAsyncSuccess() throws Exception {
+    assertEquals("result", CloudManagerApiUtil.await(CloudManagerApiUtil.supplyAsync(() -> "result")));
+  }
+
+  @Test
+  public void supplyAsyncFailure() {
+    CompletableFuture<String> future = CloudManagerApiUtil.supplyAsync(() -> {
+      throw new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+    });
+    CloudManagerApiException e = assertThrows(CloudManagerApiException.class, () -> CloudManagerApiUtil.await(future));
+    assertTrue(e.getMessage().contains("1"));
+  }
+
+  @Test
+  public void supplyAsyncTimeout() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    CompletableFuture<String> future = CloudManagerApiUtil.supplyAsync(() -> {
+      try {
+        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return "late";
+    }, 100, TimeUnit.MILLISECONDS);
+    assertThrows(ApiUnavailableException.class, () -> CloudManagerApiUtil.await(future));
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void supplyAsyncRetriesUnavailable() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    CompletableFuture<Boolean> future = CloudManagerApiUtil.supplyAsync(() -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new ApiUnavailableException("Unavailable");
+      }
+      return CloudManagerExecutors.isShared();
+    });
+    assertTrue(CloudManagerApiUtil.await(future));
+    assertEquals(3, attempts.get());
+    assertFalse(CloudManagerExecutors.isShared());
+  }
+
+  @Test
+  public void supplyAsyncTimeoutWhileUnavailable() {
+    CompletableFuture<String> future = CloudManagerApiUtil.supplyAsync(() -> {
+      throw new ApiUnavailableException("Unavailable");
+    }, 2, TimeUnit.SECONDS);
+    ApiUnavailableException e = assertThrows(ApiUnavailableException.class, () -> CloudManagerApiUtil.await(future));
+    assertEquals("Unavailable", e.getMessage());
+  }
 }
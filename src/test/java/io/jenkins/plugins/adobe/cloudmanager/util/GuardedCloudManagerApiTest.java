@@ -0,0 +1,89 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.adobe.cloudmanager.CloudManagerApi;
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.adobe.cloudmanager.swagger.invoker.ApiException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GuardedCloudManagerApiTest {
+
+  @Test
+  public void unexpectedErrorsAreFailures() {
+    assertTrue(GuardedCloudManagerApi.isFailure(new IllegalStateException("broken")));
+  }
+
+  @Test
+  public void requestErrorsAreNotFailures() {
+    assertFalse(GuardedCloudManagerApi.isFailure(new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1")));
+    assertFalse(GuardedCloudManagerApi.isFailure(apiException(new ApiException(404, "Not Found"))));
+    assertFalse(GuardedCloudManagerApi.isFailure(apiException(new ApiException(412, "Precondition Failed"))));
+  }
+
+  @Test
+  public void serverAndTransportErrorsAreFailures() {
+    assertTrue(GuardedCloudManagerApi.isFailure(apiException(new ApiException(503, "Service Unavailable"))));
+    assertTrue(GuardedCloudManagerApi.isFailure(apiException(new ApiException(new IOException("Connection reset")))));
+    assertTrue(GuardedCloudManagerApi.isFailure(apiException(new IOException("Connection reset"))));
+    assertTrue(GuardedCloudManagerApi.isFailure(apiException(new RuntimeException(new IOException("Connection reset")))));
+  }
+
+  @Test
+  public void sharedExecutorDoesNotWait() throws Exception {
+    CloudManagerApi broken = (CloudManagerApi) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { CloudManagerApi.class },
+        (proxy, method, args) -> {
+          throw new IllegalStateException("broken");
+        });
+    CloudManagerApi api = GuardedCloudManagerApi.wrap(broken, "shared-executor-org", ApiRateLimiter.Priority.NORMAL, false);
+    for (int i = 0; i < ApiCircuitBreaker.FAILURE_THRESHOLD; i++) {
+      assertThrows(IllegalStateException.class, api::listPrograms);
+    }
+    assertEquals(ApiCircuitBreaker.State.OPEN, ApiCircuitBreaker.get().getState("shared-executor-org"));
+
+    // Rejected right away, rather than backing off until the circuit's open duration has passed.
+    long start = System.currentTimeMillis();
+    Future<?> call = CloudManagerExecutors.get().submit(() -> api.listPrograms());
+    ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(ApiCircuitBreaker.OPEN_DURATION, TimeUnit.MILLISECONDS));
+    assertTrue(e.getCause() instanceof ApiUnavailableException);
+    assertTrue(System.currentTimeMillis() - start < ApiCircuitBreaker.OPEN_DURATION);
+  }
+
+  // How the library reports a call which failed in its generated client.
+  private static CloudManagerApiException apiException(Throwable cause) {
+    CloudManagerApiException e = new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+    e.initCause(cause);
+    return e;
+  }
+}
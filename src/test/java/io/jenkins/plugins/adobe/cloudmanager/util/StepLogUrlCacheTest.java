@@ -0,0 +1,153 @@
+package io.jenkins.plugins.adobe.cloudmanager.util;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.adobe.cloudmanager.CloudManagerApiException;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StepLogUrlCacheTest {
+
+  private static final String SIGNED = "https://logs.example.com/log.txt?X-Amz-Date=20210520T224500Z&X-Amz-Expires=60&X-Amz-Signature=abc";
+  private static final long SIGNED_AT = LocalDateTime.of(2021, 5, 20, 22, 45).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+  private final CloudManagerPipelineExecution execution = new CloudManagerPipelineExecution("1", "2", "3");
+  private final AtomicLong now = new AtomicLong(SIGNED_AT);
+  private final AtomicInteger calls = new AtomicInteger();
+  private final StepLogUrlCache tested = new StepLogUrlCache(now::get);
+
+  @Test
+  public void readsSignatureExpiry() {
+    assertEquals(SIGNED_AT + TimeUnit.SECONDS.toMillis(60) - StepLogUrlCache.MARGIN, StepLogUrlCache.usableUntil(SIGNED, 0));
+    assertEquals(Instant.parse("2021-05-20T23:00:00Z").toEpochMilli() - StepLogUrlCache.MARGIN, StepLogUrlCache.usableUntil("https://logs.example.com/log.txt?se=2021-05-20T23%3A00%3A00Z&sig=abc", 0));
+    assertEquals(1000 + StepLogUrlCache.TTL, StepLogUrlCache.usableUntil("https://logs.example.com/log.txt", 1000));
+  }
+
+  @Test
+  public void cachesUntilExpiry() throws Exception {
+    assertEquals(SIGNED, tested.getUrl(execution, "build", null, this::fetch));
+    assertEquals(SIGNED, tested.getUrl(execution, "build", null, this::fetch));
+    assertEquals(1, calls.get());
+
+    tested.getUrl(execution, "codeQuality", "sonarLogFile", this::fetch);
+    assertEquals(2, calls.get());
+
+    now.addAndGet(TimeUnit.SECONDS.toMillis(60) - StepLogUrlCache.MARGIN);
+    tested.getUrl(execution, "build", null, this::fetch);
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void failuresNotCached() throws Exception {
+    assertThrows(CloudManagerApiException.class, () -> tested.getUrl(execution, "build", null, () -> {
+      calls.incrementAndGet();
+      throw new CloudManagerApiException(CloudManagerApiException.ErrorType.FIND_PROGRAM, "1");
+    }));
+    assertNull(tested.getUrl(execution, "build", null, () -> null));
+    assertEquals(0, tested.size());
+    assertEquals(SIGNED, tested.getUrl(execution, "build", null, this::fetch));
+    assertEquals(1, tested.size());
+  }
+
+  @Test
+  public void coalescesConcurrentRequests() throws Exception {
+    CountDownLatch fetching = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<String> first = executor.submit(() -> tested.getUrl(execution, "build", null, () -> {
+        fetching.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return fetch();
+      }));
+      fetching.await();
+      Future<String> second = executor.submit(() -> tested.getUrl(execution, "build", null, this::fetch));
+      Future<String> third = executor.submit(() -> tested.getUrl(execution, "build", null, this::fetch));
+      release.countDown();
+      assertEquals(SIGNED, first.get(10, TimeUnit.SECONDS));
+      assertEquals(SIGNED, second.get(10, TimeUnit.SECONDS));
+      assertEquals(SIGNED, third.get(10, TimeUnit.SECONDS));
+      assertEquals(1, calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void errorsReleaseWaiters() throws Exception {
+    CountDownLatch fetching = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> tested.getUrl(execution, "build", null, () -> {
+        fetching.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        throw new LinkageError("Broken");
+      }));
+      fetching.await();
+      Future<String> second = executor.submit(() -> tested.getUrl(execution, "build", null, this::fetch));
+      release.countDown();
+      ExecutionException failed = assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+      assertTrue(failed.getCause() instanceof LinkageError);
+      // The waiter either saw the failure, or arrived after it and fetched the URL itself; it must not hang.
+      try {
+        assertEquals(SIGNED, second.get(10, TimeUnit.SECONDS));
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause().getCause() instanceof LinkageError);
+      }
+      assertEquals(SIGNED, tested.getUrl(execution, "build", null, this::fetch));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private String fetch() {
+    calls.incrementAndGet();
+    return SIGNED;
+  }
+}
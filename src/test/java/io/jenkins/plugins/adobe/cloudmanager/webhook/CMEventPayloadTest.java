@@ -29,6 +29,7 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import javax.servlet.ServletInputStream;
 
 import org.apache.commons.io.IOUtils;
@@ -112,8 +113,8 @@ public class CMEventPayloadTest {
 
     new MockUp<IOUtils>() {
       @Mock
-      public String toString(InputStream inputStream, Charset charset) {
-        return body;
+      public byte[] toByteArray(InputStream inputStream) {
+        return body.getBytes(StandardCharsets.UTF_8);
       }
     };
 
@@ -142,8 +143,8 @@ public class CMEventPayloadTest {
     String body = "Not Json";
     new MockUp<IOUtils>() {
       @Mock
-      public String toString(InputStream inputStream, Charset charset) {
-        return body;
+      public byte[] toByteArray(InputStream inputStream) {
+        return body.getBytes(StandardCharsets.UTF_8);
       }
     };
 
@@ -163,8 +164,8 @@ public class CMEventPayloadTest {
     String body = "{}";
     new MockUp<IOUtils>() {
       @Mock
-      public String toString(InputStream inputStream, Charset charset) {
-        return body;
+      public byte[] toByteArray(InputStream inputStream) {
+        return body.getBytes(StandardCharsets.UTF_8);
       }
     };
 
@@ -191,8 +192,8 @@ public class CMEventPayloadTest {
     String body = IOUtils.resourceToString("events/pipeline-ended.json", Charset.defaultCharset(), this.getClass().getClassLoader());
     new MockUp<IOUtils>() {
       @Mock
-      public String toString(InputStream inputStream, Charset charset) {
-        return body;
+      public byte[] toByteArray(InputStream inputStream) {
+        return body.getBytes(StandardCharsets.UTF_8);
       }
     };
 
@@ -26,16 +26,19 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
  * #L%
  */
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.Socket;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
 import javax.annotation.Nonnull;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.HttpMethod;
 
@@ -58,12 +61,6 @@ public class CloudManagerWebHookTest {
   @Rule
   public JenkinsRule rule = new JenkinsRule();
 
-  private static String sign(String toSign) throws Exception {
-    Mac mac = Mac.getInstance("HmacSHA256");
-    mac.init(new SecretKeySpec(CLIENT_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-    return Base64.getEncoder().encodeToString(mac.doFinal(toSign.getBytes(StandardCharsets.UTF_8)));
-  }
-
   @Before
   public void before() throws Exception {
     setupAdobeIOConfigs(rule.jenkins);
@@ -129,6 +126,46 @@ public class CloudManagerWebHookTest {
     assertEquals(expected, subscriber.event);
   }
 
+  @Test
+  public void rejectsOversizedBody() throws Exception {
+    // The declared length is never sent, the request must be rejected before any of it is read or allocated.
+    URL url = new URL(String.format("%s%s/", rule.getURL().toString(), CloudManagerWebHook.URL_NAME));
+    try (Socket socket = new Socket(url.getHost(), url.getPort())) {
+      socket.setSoTimeout(30000);
+      String request = "POST " + url.getPath() + " HTTP/1.1\r\n" +
+          "Host: " + url.getHost() + ":" + url.getPort() + "\r\n" +
+          "Content-Type: " + ContentType.APPLICATION_JSON.getMimeType() + "\r\n" +
+          "Content-Length: " + (8L * 1024 * 1024 * 1024) + "\r\n" +
+          "\r\n{";
+      socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+      socket.getOutputStream().flush();
+      BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      String status = reader.readLine();
+      assertNotNull(status);
+      assertTrue(status, status.contains(String.valueOf(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE)));
+    }
+  }
+
+  @Test
+  public void rejectsOversizedChunkedBody() throws Exception {
+    String url = String.format("%s%s/", rule.getURL().toString(), CloudManagerWebHook.URL_NAME);
+    HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+    con.setRequestMethod(HttpMethod.POST);
+    con.setRequestProperty("Content-Type", ContentType.APPLICATION_JSON.getMimeType());
+    con.setChunkedStreamingMode(8192);
+    con.setDoOutput(true);
+    byte[] chunk = new byte[8192];
+    Arrays.fill(chunk, (byte) ' ');
+    try (OutputStream out = con.getOutputStream()) {
+      for (int written = 0; written <= CMEventReader.MAX_SIZE; written += chunk.length) {
+        out.write(chunk);
+      }
+    } catch (IOException e) {
+      // The server may stop reading as soon as it has seen too much.
+    }
+    assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, con.getResponseCode());
+  }
+
   @Test
   public void testPipelineExecutionEndEvent() throws Exception {
 
@@ -28,12 +28,8 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook;
 
 import java.lang.reflect.InvocationTargetException;
 
-import io.adobe.cloudmanager.CloudManagerApiException;
-import io.adobe.cloudmanager.CloudManagerApiException.ErrorType;
 import io.adobe.cloudmanager.event.CloudManagerEvent;
 import mockit.Expectations;
-import mockit.Mock;
-import mockit.MockUp;
 import mockit.Mocked;
 import mockit.Tested;
 import org.junit.Rule;
@@ -120,12 +116,6 @@ public class RequireCMEventPayloadTest {
   @Test
   public void failOnNoMatchedProjectSignature() throws Exception {
 
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String secret) throws CloudManagerApiException {
-        throw new CloudManagerApiException(ErrorType.VALIDATE_EVENT, "Error");
-      }
-    };
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
       result = "Signed";
@@ -139,15 +129,9 @@ public class RequireCMEventPayloadTest {
   @Test
   public void failOnValidateSignatureErrors() throws Exception {
 
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String slientSecret) throws CloudManagerApiException {
-        return false;
-      }
-    };
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
-      result = "Signed";
+      result = "Not a Base64 signature!";
     }};
 
     setupAdobeIOConfigs(rule.jenkins);
@@ -158,15 +142,9 @@ public class RequireCMEventPayloadTest {
   @Test
   public void validChallengeSignature() throws Exception {
 
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String secret) throws CloudManagerApiException {
-        return true;
-      }
-    };
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
-      result = "Signed";
+      result = sign(PAYLOAD);
     }};
 
     setupAdobeIOConfigs(rule.jenkins);
@@ -177,15 +155,9 @@ public class RequireCMEventPayloadTest {
   @Test
   public void validEventSignature() throws Exception {
 
-    new MockUp<CloudManagerEvent>() {
-      @Mock
-      public boolean isValidSignature(String payload, String digest, String secret) throws CloudManagerApiException {
-        return true;
-      }
-    };
     new Expectations() {{
       request.getHeader(CloudManagerEvent.SIGNATURE_HEADER);
-      result = "Signed";
+      result = sign(PAYLOAD);
     }};
 
     setupAdobeIOConfigs(rule.jenkins);
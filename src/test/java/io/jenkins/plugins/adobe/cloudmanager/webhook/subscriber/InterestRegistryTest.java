@@ -0,0 +1,95 @@
+package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
+
+/*-
+ * #%L
+ * Adobe Cloud Manager Plugin
+ * %%
+ * Copyright (C) 2020 - 2021 Adobe Inc.
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import io.adobe.cloudmanager.event.CloudManagerEvent;
+import io.jenkins.plugins.adobe.cloudmanager.CloudManagerPipelineExecution;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class InterestRegistryTest {
+
+  private final CloudManagerPipelineExecution execution = new CloudManagerPipelineExecution("1", "2", "3");
+
+  @Test
+  public void executionInterest() {
+    InterestRegistry tested = new InterestRegistry();
+    assertFalse(tested.isInterested(execution));
+    assertFalse(tested.isInterested(null));
+
+    tested.register("first", execution);
+    tested.register("second", execution);
+    assertTrue(tested.isInterested(execution));
+    assertFalse(tested.isInterested(new CloudManagerPipelineExecution("1", "2", "4")));
+
+    tested.unregister("first");
+    assertTrue(tested.isInterested(execution));
+    tested.unregister("second");
+    assertFalse(tested.isInterested(execution));
+  }
+
+  @Test
+  public void pipelineInterest() {
+    InterestRegistry tested = new InterestRegistry();
+    tested.registerPipeline("job", "1", "2");
+    assertTrue(tested.isInterestedInPipeline(execution));
+    assertFalse(tested.isInterestedInPipeline(new CloudManagerPipelineExecution("1", "3", "3")));
+    assertFalse(tested.isInterested(execution));
+
+    tested.unregisterPipeline("job", "1", "2");
+    assertFalse(tested.isInterestedInPipeline(execution));
+  }
+
+  @Test
+  public void pipelineInterestFollowsItems() {
+    InterestRegistry tested = new InterestRegistry();
+    tested.registerPipeline("folder/job", "1", "2");
+    tested.registerPipeline("folder-other", "1", "2");
+
+    tested.movePipelines("folder", "renamed");
+    tested.unregisterPipeline("folder-other", "1", "2");
+    assertTrue(tested.isInterestedInPipeline(execution));
+    tested.unregisterPipeline("folder/job", "1", "2");
+    assertTrue(tested.isInterestedInPipeline(execution));
+    tested.unregisterPipeline("renamed/job", "1", "2");
+    assertFalse(tested.isInterestedInPipeline(execution));
+
+    tested.registerPipeline("renamed/job", "1", "2");
+    tested.removePipelines("renamed");
+    assertFalse(tested.isInterestedInPipeline(execution));
+  }
+
+  @Test
+  public void executionFromLink() {
+    String payload = "{ \"activitystreams:object\": { \"@id\": \"https://cloudmanager.adobe.io/api/program/1/pipeline/2/execution/3/phase/4/step/5\" } }";
+    CloudManagerSubscriberEvent event = new CloudManagerSubscriberEvent("AIO Project", CloudManagerEvent.EventType.STEP_STARTED, payload);
+    assertEquals(execution, event.getCmExecution());
+
+    event = new CloudManagerSubscriberEvent("AIO Project", CloudManagerEvent.EventType.STEP_STARTED, "{}");
+    assertNull(event.getCmExecution());
+  }
+}
@@ -27,6 +27,7 @@ package io.jenkins.plugins.adobe.cloudmanager.webhook.subscriber;
  */
 
 import java.nio.charset.Charset;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -285,7 +286,7 @@ public class PipelineStepEventSubscriberTest {
       }
 
       @Override
-      public void process(PipelineExecution pe, PipelineExecutionStepState stepState) {
+      public void process(PipelineExecution pe, PipelineExecutionStepState stepState, OffsetDateTime published) {
         step.state = stepState;
         getContext().onSuccess(null);
       }